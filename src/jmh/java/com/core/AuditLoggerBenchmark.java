@@ -0,0 +1,88 @@
+package com.core;
+
+import com.domain.Resource;
+import com.infra.AsyncAuditLogger;
+import com.infra.AuditLogger;
+import com.infra.AuditOverflowPolicy;
+import com.infra.ConsoleAuditLogger;
+import com.infra.NoopAuditLogger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Audit overhead per lock acquire/release pair (two events) with 4 threads on distinct resources.
+ * Console output goes to a discarding stream so only formatting and the stream lock are measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class AuditLoggerBenchmark {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Param({"noop", "console", "async-console", "async-console-drop"})
+    public String logger;
+
+    private PrintStream originalOut;
+    private AsyncAuditLogger asyncAuditLogger;
+    private LockRegistry lockRegistry;
+
+    @Setup
+    public void setUp() {
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        AuditLogger auditLogger = switch (logger) {
+            case "console" -> new ConsoleAuditLogger();
+            case "async-console" -> asyncAuditLogger = new AsyncAuditLogger(new ConsoleAuditLogger());
+            case "async-console-drop" -> asyncAuditLogger = AsyncAuditLogger.builder(new ConsoleAuditLogger())
+                    .overflowPolicy(AuditOverflowPolicy.DROP)
+                    .build();
+            default -> new NoopAuditLogger();
+        };
+        lockRegistry = new LockRegistry(new LockGraphEngine(), auditLogger);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (asyncAuditLogger != null) {
+            asyncAuditLogger.close();
+        }
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void acquireAndRelease(Worker worker) throws Exception {
+        lockRegistry.acquireLocks(worker.jobId, worker.claim, TIMEOUT).close();
+    }
+
+    @State(Scope.Thread)
+    public static class Worker {
+        private static final AtomicInteger IDS = new AtomicInteger();
+
+        String jobId;
+        List<Resource> claim;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            int id = IDS.incrementAndGet();
+            jobId = "job-" + id;
+            claim = List.of(new Resource("resource-" + id));
+        }
+    }
+}
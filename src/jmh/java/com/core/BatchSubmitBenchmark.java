@@ -0,0 +1,137 @@
+package com.core;
+
+import com.domain.Job;
+import com.domain.JobContext;
+import com.domain.JobExecutionContext;
+import com.domain.RetryPolicies;
+import com.infra.AsyncAuditLogger;
+import com.infra.AuditLogger;
+import com.infra.FileJobStore;
+import com.infra.NoopAuditLogger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Ingest rate of {@value #JOBS} no-op jobs, submitted one by one or through
+ * {@link JobEngine#submitAll(java.util.Collection)}. Only the submitting is timed; the jobs are awaited
+ * after each invocation. {@code file} persists submissions in a {@link FileJobStore} and audits through an
+ * {@link AsyncAuditLogger}, {@code transient} keeps nothing and discards audit events.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class BatchSubmitBenchmark {
+    static final int JOBS = 10_000;
+
+    @Param({"single", "batch"})
+    public String path;
+
+    @Param({"transient", "file"})
+    public String store;
+
+    private Path directory;
+    private JobStore jobStore;
+    private AuditLogger auditLogger;
+    private JobEngine engine;
+    private List<JobSubmission> submissions;
+    private int round;
+    private CompletableFuture<?> pending;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("batch-submit");
+        if (store.equals("file")) {
+            jobStore = new FileJobStore(directory);
+            auditLogger = new AsyncAuditLogger(new NoopAuditLogger());
+        } else {
+            jobStore = null;
+            auditLogger = new NoopAuditLogger();
+        }
+        JobRunner runner = new JobRunner(new LockRegistry(new LockGraphEngine(), auditLogger), auditLogger,
+                new InMemoryExecutionContextFactory());
+        JobEngine.Builder builder = JobEngine.builder(runner, auditLogger).workerCount(4);
+        if (jobStore != null) {
+            builder.jobStore(jobStore);
+        }
+        engine = builder.build();
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareRound() {
+        round++;
+        submissions = new ArrayList<>(JOBS);
+        Job job = new NoopJob();
+        for (int i = 0; i < JOBS; i++) {
+            submissions.add(new JobSubmission(job, new JobContext("job-" + round + "-" + i, Duration.ofMinutes(1),
+                    RetryPolicies.fixedDelay(1, 0), List.of())));
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void awaitRound() {
+        pending.join();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        engine.close();
+        if (auditLogger instanceof AsyncAuditLogger asyncAuditLogger) {
+            asyncAuditLogger.close();
+        }
+        if (jobStore != null) {
+            jobStore.close();
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(JOBS)
+    public void ingest() {
+        if (path.equals("batch")) {
+            pending = engine.submitAll(submissions).completion();
+            return;
+        }
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[JOBS];
+        for (int i = 0; i < JOBS; i++) {
+            JobSubmission submission = submissions.get(i);
+            futures[i] = engine.submit(submission.job(), submission.context());
+        }
+        pending = CompletableFuture.allOf(futures);
+    }
+
+    static final class NoopJob implements Job {
+        @Override
+        public void prepare(JobContext context, JobExecutionContext executionContext) {
+        }
+
+        @Override
+        public void execute(JobContext context, JobExecutionContext executionContext) {
+        }
+
+        @Override
+        public void rollback(JobContext context, JobExecutionContext executionContext, Exception cause) {
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.core;
+
+import com.domain.Resource;
+import com.infra.BinaryAuditJournal;
+import com.infra.ConsoleAuditLogger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Lock-acquired events per second written to the binary journal versus formatted by the console logger
+ * into a discarding stream. Run with {@code -Pjmh.profilers=gc} to check the journal allocates nothing.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class BinaryAuditJournalBenchmark {
+    private final Resource resource = new Resource("tenant/42/orders/7");
+
+    private Path directory;
+    private BinaryAuditJournal journal;
+    private ConsoleAuditLogger console;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("audit-journal");
+        journal = new BinaryAuditJournal(directory);
+        console = new ConsoleAuditLogger();
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        System.setOut(originalOut);
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void journal() {
+        journal.lockAcquired("job-1", resource);
+    }
+
+    @Benchmark
+    public void console() {
+        console.lockAcquired("job-1", resource);
+    }
+}
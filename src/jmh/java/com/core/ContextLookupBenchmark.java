@@ -0,0 +1,86 @@
+package com.core;
+
+import com.domain.ContextKey;
+import com.domain.JobExecutionContext;
+import com.infra.JdbcExecutionContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of fetching the JDBC connection from an execution context: the typed slot lookup against the
+ * string lookup, and both adapters between the two, a typed key on a context that only implements
+ * {@code find} and {@link ContextKey#find} on top of slots. Run with {@code -Pjmh.profilers=gc} to see the
+ * allocation per lookup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ContextLookupBenchmark {
+    private JobExecutionContext context;
+    private JobExecutionContext stringOnlyContext;
+    private String name;
+    private ContextKey<Connection> key;
+
+    @Setup
+    public void setUp() {
+        Connection connection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> null);
+        context = new JdbcExecutionContext(connection);
+        stringOnlyContext = new StringOnlyContext(connection);
+        name = new String(ExecutionContextKeys.JDBC_CONNECTION);
+        key = ExecutionContextKeys.CONNECTION;
+    }
+
+    @Benchmark
+    public Connection typedGet() {
+        return context.get(key);
+    }
+
+    @Benchmark
+    public Connection stringFind() {
+        return context.find(name, Connection.class).orElse(null);
+    }
+
+    @Benchmark
+    public Connection typedGetOnStringOnlyContext() {
+        return stringOnlyContext.get(key);
+    }
+
+    @Benchmark
+    public Connection stringFindOverSlots() {
+        return ContextKey.find(context, name, Connection.class).orElse(null);
+    }
+
+    /**
+     * A context written before typed keys, which only implements the string lookup.
+     */
+    static final class StringOnlyContext implements JobExecutionContext {
+        private final Connection connection;
+
+        StringOnlyContext(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public <T> Optional<T> find(String key, Class<T> type) {
+            if (ExecutionContextKeys.JDBC_CONNECTION.equals(key) && type.isInstance(connection)) {
+                return Optional.of(type.cast(connection));
+            }
+            return Optional.empty();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.core;
+
+import com.domain.Job;
+import com.domain.JobContext;
+import com.domain.JobExecutionContext;
+import com.domain.Resource;
+import com.domain.RetryPolicies;
+import com.infra.AuditLogger;
+import com.infra.JdbcConnectionPool;
+import com.infra.JdbcExecutionContextFactory;
+import com.infra.NoopAuditLogger;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@value #JOBS} one-insert jobs on distinct resources, run by 16 workers over pooled
+ * connections, with one commit per job ({@code maxGroupSize} 1) against group commit. The H2 server is
+ * reached over loopback TCP so every commit is a round trip; {@code file} also writes the database to
+ * disk.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class GroupCommitBenchmark {
+    static final int JOBS = 2_000;
+
+    @Param({"1", "32"})
+    public int maxGroupSize;
+
+    @Param({"mem", "file"})
+    public String database;
+
+    private Path directory;
+    private Server server;
+    private JdbcConnectionPool pool;
+    private JobEngine engine;
+    private Job job;
+    private JobContext[] contexts;
+
+    @Setup
+    public void setUp() throws SQLException, IOException {
+        directory = Files.createTempDirectory("group-commit-bench");
+        server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists", "-baseDir", directory.toString()).start();
+        String name = database.equals("file") ? "./events" : "mem:events;DB_CLOSE_DELAY=-1";
+        String url = "jdbc:h2:tcp://localhost:" + server.getPort() + "/" + name;
+        JdbcExecutionContextFactory.ConnectionProvider provider = () -> DriverManager.getConnection(url, "sa", "");
+        try (Connection connection = provider.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("create table if not exists bench_events(id bigint auto_increment primary key, name varchar(64))");
+        }
+        pool = JdbcConnectionPool.builder(provider).maxSize(16).build();
+        AuditLogger auditLogger = new NoopAuditLogger();
+        JobRunner runner = JobRunner.builder(new LockRegistry(new LockGraphEngine(), auditLogger), auditLogger, pool)
+                .groupCommit(maxGroupSize)
+                .build();
+        engine = JobEngine.builder(runner, auditLogger)
+                .workerCount(16)
+                .build();
+        job = new InsertJob();
+        contexts = new JobContext[JOBS];
+        for (int i = 0; i < JOBS; i++) {
+            contexts[i] = new JobContext("job-" + i, Duration.ofMinutes(1), RetryPolicies.fixedDelay(1, 0),
+                    List.of(new Resource("resource-" + i)));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        engine.close();
+        pool.close();
+        server.stop();
+        try (var files = Files.walk(directory)) {
+            files.sorted((left, right) -> right.compareTo(left)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(JOBS)
+    public void runInsertJobs() {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[JOBS];
+        for (int i = 0; i < JOBS; i++) {
+            futures[i] = engine.submit(job, contexts[i]);
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+
+    static final class InsertJob implements Job {
+        @Override
+        public void prepare(JobContext context, JobExecutionContext executionContext) {
+        }
+
+        @Override
+        public void execute(JobContext context, JobExecutionContext executionContext) throws SQLException {
+            Connection connection = executionContext.get(ExecutionContextKeys.CONNECTION);
+            try (PreparedStatement statement = connection.prepareStatement("insert into bench_events(name) values (?)")) {
+                statement.setString(1, context.id());
+                statement.executeUpdate();
+            }
+        }
+
+        @Override
+        public void rollback(JobContext context, JobExecutionContext executionContext, Exception cause) {
+        }
+    }
+}
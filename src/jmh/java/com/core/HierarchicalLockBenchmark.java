@@ -0,0 +1,54 @@
+package com.core;
+
+import com.domain.Resource;
+import com.infra.NoopAuditLogger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Locking every order of a tenant: listing each child resource versus one exclusive lock on the tenant.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class HierarchicalLockBenchmark {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Param({"1000"})
+    public int children;
+
+    private LockRegistry lockRegistry;
+    private List<Resource> everyChild;
+    private List<Resource> tenant;
+
+    @Setup
+    public void setUp() {
+        lockRegistry = new LockRegistry(new LockGraphEngine(), new NoopAuditLogger());
+        everyChild = new ArrayList<>();
+        for (int i = 0; i < children; i++) {
+            everyChild.add(new Resource("tenant-42-order-" + i));
+        }
+        tenant = List.of(new Resource("tenant/42"));
+    }
+
+    @Benchmark
+    public void lockEveryChild() throws Exception {
+        lockRegistry.acquireLocks("job-1", everyChild, TIMEOUT).close();
+    }
+
+    @Benchmark
+    public void lockParent() throws Exception {
+        lockRegistry.acquireLocks("job-1", tenant, TIMEOUT).close();
+    }
+}
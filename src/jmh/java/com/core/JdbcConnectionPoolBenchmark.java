@@ -0,0 +1,113 @@
+package com.core;
+
+import com.domain.Job;
+import com.domain.JobContext;
+import com.domain.JobExecutionContext;
+import com.domain.RetryPolicies;
+import com.infra.AuditLogger;
+import com.infra.JdbcConnectionPool;
+import com.infra.JdbcExecutionContextFactory;
+import com.infra.NoopAuditLogger;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-job latency of a short JDBC job, one insert, when every attempt opens its own connection against
+ * leasing one from {@link JdbcConnectionPool}. {@code tcp} talks to an H2 server over loopback, which is
+ * closer to a real database than the in-process {@code mem} URL.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class JdbcConnectionPoolBenchmark {
+    @Param({"per-attempt", "pooled"})
+    public String connections;
+
+    @Param({"mem", "tcp"})
+    public String database;
+
+    private Server server;
+    private JdbcConnectionPool pool;
+    private JobRunner runner;
+    private Job job;
+    private JobContext context;
+
+    @Setup
+    public void setUp() throws SQLException {
+        String url;
+        if (database.equals("tcp")) {
+            server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+            url = "jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:pool-bench;DB_CLOSE_DELAY=-1";
+        } else {
+            url = "jdbc:h2:mem:pool-bench;DB_CLOSE_DELAY=-1";
+        }
+        JdbcExecutionContextFactory.ConnectionProvider provider = () -> DriverManager.getConnection(url, "sa", "");
+        try (Connection connection = provider.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("create table if not exists bench_events(id bigint auto_increment primary key, name varchar(64))");
+        }
+        ExecutionContextFactory factory;
+        if (connections.equals("pooled")) {
+            pool = JdbcConnectionPool.builder(provider).maxSize(8).build();
+            factory = pool;
+        } else {
+            factory = new JdbcExecutionContextFactory(provider);
+        }
+        AuditLogger auditLogger = new NoopAuditLogger();
+        runner = new JobRunner(new LockRegistry(new LockGraphEngine(), auditLogger), auditLogger, factory);
+        job = new InsertJob();
+        context = new JobContext("bench", Duration.ofSeconds(5), RetryPolicies.fixedDelay(1, 0), List.of());
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public JobState runInsertJob() {
+        return runner.run(job, context);
+    }
+
+    static final class InsertJob implements Job {
+        @Override
+        public void prepare(JobContext context, JobExecutionContext executionContext) {
+        }
+
+        @Override
+        public void execute(JobContext context, JobExecutionContext executionContext) throws SQLException {
+            Connection connection = executionContext.get(ExecutionContextKeys.CONNECTION);
+            try (PreparedStatement statement = connection.prepareStatement("insert into bench_events(name) values (?)")) {
+                statement.setString(1, context.id());
+                statement.executeUpdate();
+            }
+        }
+
+        @Override
+        public void rollback(JobContext context, JobExecutionContext executionContext, Exception cause) {
+        }
+    }
+}
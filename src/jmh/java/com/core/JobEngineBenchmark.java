@@ -0,0 +1,105 @@
+package com.core;
+
+import com.domain.Job;
+import com.domain.JobContext;
+import com.domain.JobExecutionContext;
+import com.domain.Resource;
+import com.domain.RetryPolicies;
+import com.infra.AuditLogger;
+import com.infra.NoopAuditLogger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@value #JOBS} concurrently submitted jobs that each block for {@code blockMillis},
+ * standing in for a JDBC round trip.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class JobEngineBenchmark {
+    static final int JOBS = 10_000;
+
+    @Param({"PLATFORM_POOL", "VIRTUAL_PER_JOB"})
+    public WorkerMode workerMode;
+
+    @Param({"200"})
+    public int workerCount;
+
+    @Param({"10"})
+    public long blockMillis;
+
+    private JobEngine engine;
+    private Job job;
+    private JobContext[] contexts;
+
+    @Setup
+    public void setUp() {
+        AuditLogger auditLogger = new NoopAuditLogger();
+        JobRunner runner = new JobRunner(new LockRegistry(new LockGraphEngine(), auditLogger), auditLogger,
+                new InMemoryExecutionContextFactory());
+        engine = JobEngine.builder(runner, auditLogger)
+                .workerMode(workerMode)
+                .workerCount(workerCount)
+                .build();
+        job = new BlockingJob(blockMillis);
+        contexts = new JobContext[JOBS];
+        for (int i = 0; i < JOBS; i++) {
+            contexts[i] = new JobContext("job-" + i, Duration.ofMinutes(1), RetryPolicies.fixedDelay(1, 0),
+                    List.of(new Resource("resource-" + i)));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(JOBS)
+    public void runBlockingJobs() {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[JOBS];
+        for (int i = 0; i < JOBS; i++) {
+            futures[i] = engine.submit(job, contexts[i]);
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+
+    static final class BlockingJob implements Job {
+        private final long blockMillis;
+
+        BlockingJob(long blockMillis) {
+            this.blockMillis = blockMillis;
+        }
+
+        @Override
+        public void prepare(JobContext context, JobExecutionContext executionContext) {
+        }
+
+        @Override
+        public void execute(JobContext context, JobExecutionContext executionContext) throws Exception {
+            Thread.sleep(blockMillis);
+        }
+
+        @Override
+        public void rollback(JobContext context, JobExecutionContext executionContext, Exception cause) {
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.core;
+
+import com.domain.Job;
+import com.domain.JobContext;
+import com.domain.JobExecutionContext;
+import com.domain.RetryPolicies;
+import com.infra.AuditLogger;
+import com.infra.NoopAuditLogger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares jobs/sec of the shared deadline path against the previous thread-per-attempt path.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class JobRunnerBenchmark {
+    @Param({"deadline", "thread-per-attempt"})
+    public String attemptExecutor;
+
+    private JobRunner runner;
+    private Job job;
+    private JobContext context;
+
+    @Setup
+    public void setUp() {
+        AuditLogger auditLogger = new NoopAuditLogger();
+        AttemptExecutor executor = attemptExecutor.equals("deadline")
+                ? new DeadlineAttemptExecutor()
+                : new ThreadPerAttemptExecutor();
+        runner = new JobRunner(new LockRegistry(new LockGraphEngine(), auditLogger), auditLogger,
+                new InMemoryExecutionContextFactory(), executor);
+        job = new NoopJob();
+        context = new JobContext("bench", Duration.ofSeconds(5), RetryPolicies.fixedDelay(1, 0), List.of());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public JobState runJob() {
+        return runner.run(job, context);
+    }
+
+    /**
+     * The execution path {@link JobRunner} used before {@link DeadlineAttemptExecutor}.
+     */
+    static final class ThreadPerAttemptExecutor implements AttemptExecutor {
+        @Override
+        public void execute(Callable<Void> attempt, Duration timeout) throws Exception {
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                Future<Void> future = executor.submit(attempt);
+                try {
+                    future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+                } catch (java.util.concurrent.TimeoutException timeoutException) {
+                    future.cancel(true);
+                    throw new JobRunner.TimeoutException("Job timed out after " + timeout.toMillis() + "ms");
+                } catch (ExecutionException executionException) {
+                    Throwable cause = executionException.getCause();
+                    if (cause instanceof Exception exception) {
+                        throw exception;
+                    }
+                    throw executionException;
+                }
+            } finally {
+                executor.shutdownNow();
+                executor.awaitTermination(5, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    static final class NoopJob implements Job {
+        @Override
+        public void prepare(JobContext context, JobExecutionContext executionContext) {
+        }
+
+        @Override
+        public void execute(JobContext context, JobExecutionContext executionContext) {
+        }
+
+        @Override
+        public void rollback(JobContext context, JobExecutionContext executionContext, Exception cause) {
+        }
+    }
+}
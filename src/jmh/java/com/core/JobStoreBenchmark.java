@@ -0,0 +1,81 @@
+package com.core;
+
+import com.domain.JobContext;
+import com.domain.RetryPolicies;
+import com.infra.FileJobStore;
+import com.infra.JdbcJobStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Durable submissions per second. With one thread every submission pays its own flush; with 16 threads
+ * the group commit lets concurrent submissions share one.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class JobStoreBenchmark {
+    @Param({"file", "jdbc-h2"})
+    public String store;
+
+    private final AtomicLong ids = new AtomicLong();
+    private Path directory;
+    private JobStore jobStore;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("job-store");
+        if (store.equals("file")) {
+            jobStore = new FileJobStore(directory);
+        } else {
+            String url = "jdbc:h2:file:" + directory.resolve("jobs") + ";DB_CLOSE_DELAY=-1";
+            JdbcJobStore jdbcJobStore = new JdbcJobStore(() -> DriverManager.getConnection(url));
+            jdbcJobStore.createSchema();
+            jobStore = jdbcJobStore;
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        jobStore.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void submitOneThread() {
+        submit();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void submitSixteenThreads() {
+        submit();
+    }
+
+    private void submit() {
+        jobStore.submitted("report", new JobContext("job-" + ids.incrementAndGet(), Duration.ofSeconds(5),
+                RetryPolicies.fixedDelay(1, 0), List.of()));
+    }
+}
@@ -0,0 +1,51 @@
+package com.core;
+
+import com.domain.Resource;
+import com.infra.NoopAuditLogger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one uncontended acquire/release of a job's resources. Run with {@code -Pjmh.profilers=gc} to
+ * see allocation per acquisition.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class LockAcquisitionBenchmark {
+    private static final Duration TIMEOUT = Duration.ofSeconds(1);
+
+    @Param({"1", "4"})
+    public int resourcesPerJob;
+
+    private LockRegistry lockRegistry;
+    private List<Resource> resources;
+
+    @Setup
+    public void setUp() {
+        lockRegistry = new LockRegistry(new LockGraphEngine(), new NoopAuditLogger());
+        resources = new ArrayList<>();
+        for (int i = 0; i < resourcesPerJob; i++) {
+            resources.add(new Resource("tenant-" + i + "/orders"));
+        }
+        Collections.reverse(resources);
+        resources = List.copyOf(resources);
+    }
+
+    @Benchmark
+    public void acquireAndRelease() throws Exception {
+        lockRegistry.acquireLocks("job-1", resources, TIMEOUT).close();
+    }
+}
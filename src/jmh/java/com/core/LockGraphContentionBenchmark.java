@@ -0,0 +1,82 @@
+package com.core;
+
+import com.domain.Resource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Wait/acquire/release bookkeeping throughput in {@link LockGraphEngine} as the number of threads grows.
+ * Every thread acts as its own job on a random resource out of a shared pool.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class LockGraphContentionBenchmark {
+    private static final int RESOURCES = 4096;
+
+    private LockGraphEngine engine;
+    private Resource[] resources;
+
+    @Setup
+    public void setUp() {
+        engine = new LockGraphEngine();
+        resources = new Resource[RESOURCES];
+        for (int i = 0; i < RESOURCES; i++) {
+            resources[i] = new Resource("resource-" + i);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void threads01(Job job) {
+        cycle(job);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void threads08(Job job) {
+        cycle(job);
+    }
+
+    @Benchmark
+    @Threads(32)
+    public void threads32(Job job) {
+        cycle(job);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void threads64(Job job) {
+        cycle(job);
+    }
+
+    private void cycle(Job job) {
+        Resource resource = resources[ThreadLocalRandom.current().nextInt(RESOURCES)];
+        engine.markWaiting(job.id, resource);
+        engine.markAcquired(job.id, resource);
+        engine.markReleased(job.id, resource);
+    }
+
+    @State(Scope.Thread)
+    public static class Job {
+        private static final AtomicInteger IDS = new AtomicInteger();
+
+        String id;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            id = "job-" + IDS.incrementAndGet();
+        }
+    }
+}
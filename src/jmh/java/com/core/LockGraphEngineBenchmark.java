@@ -0,0 +1,84 @@
+package com.core;
+
+import com.domain.Resource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadlock check cost on a synthetic graph where every job owns {@code resources / jobs} resources and
+ * waits on the next job, forming one wait-for chain as long as the job count.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class LockGraphEngineBenchmark {
+    @Param({"10000"})
+    public int jobs;
+
+    @Param({"100000"})
+    public int resources;
+
+    private LockGraphEngine engine;
+    private Resource[] resourceIds;
+    private Resource chainHead;
+    private Resource free;
+
+    @Setup
+    public void setUp() {
+        engine = new LockGraphEngine();
+        resourceIds = new Resource[resources];
+        for (int i = 0; i < resources; i++) {
+            resourceIds[i] = new Resource("resource-" + i);
+            engine.markAcquired(jobId(i % jobs), resourceIds[i]);
+        }
+        for (int job = 0; job < jobs - 1; job++) {
+            engine.markWaiting(jobId(job), resourceIds[job + 1]);
+        }
+        chainHead = resourceIds[0];
+        free = new Resource("free");
+    }
+
+    /**
+     * A new job waits on the head of the chain: the whole chain is walked and no cycle is found.
+     */
+    @Benchmark
+    public boolean waitWithoutCycle() {
+        engine.markWaiting("probe", chainHead);
+        boolean deadlock = engine.hasDeadlock("probe");
+        engine.cancelWaiting("probe", chainHead);
+        return deadlock;
+    }
+
+    /**
+     * The last job in the chain waits on a resource held by the first one, closing a cycle.
+     */
+    @Benchmark
+    public boolean waitClosingCycle() {
+        String tail = jobId(jobs - 1);
+        engine.markWaiting(tail, chainHead);
+        boolean deadlock = engine.hasDeadlock(tail);
+        engine.cancelWaiting(tail, chainHead);
+        return deadlock;
+    }
+
+    /**
+     * An uncontended acquire and release next to the large graph.
+     */
+    @Benchmark
+    public void acquireAndRelease() {
+        engine.markAcquired("probe", free);
+        engine.markReleased("probe", free);
+    }
+
+    private static String jobId(int index) {
+        return "job-" + index;
+    }
+}
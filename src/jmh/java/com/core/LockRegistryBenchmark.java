@@ -0,0 +1,71 @@
+package com.core;
+
+import com.domain.Resource;
+import com.infra.NoopAuditLogger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock acquisition latency (p50/p99 via sample mode) with 8 threads contending on a few hot resources.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class LockRegistryBenchmark {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Param({"4"})
+    public int hotResources;
+
+    private LockRegistry lockRegistry;
+    private List<List<Resource>> claims;
+
+    @Setup
+    public void setUp() {
+        lockRegistry = new LockRegistry(new LockGraphEngine(), new NoopAuditLogger());
+        claims = new ArrayList<>();
+        for (int i = 0; i < hotResources; i++) {
+            claims.add(List.of(new Resource("hot-" + i)));
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void acquireAndRelease(Worker worker) throws Exception {
+        List<Resource> claim = claims.get(ThreadLocalRandom.current().nextInt(claims.size()));
+        try (LockRegistry.LockHandle ignored = lockRegistry.acquireLocks(worker.jobId, claim, TIMEOUT)) {
+            // Simulate a short critical section so waiters actually queue up.
+            long until = System.nanoTime() + 2_000;
+            while (System.nanoTime() < until) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Worker {
+        private static final AtomicInteger IDS = new AtomicInteger();
+
+        String jobId;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            jobId = "job-" + IDS.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.core;
+
+import com.domain.Resource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of recording one event into a shared {@link SchedulerMetrics}: a counter, a histogram value, a lock
+ * wait looked up by resource among {@value #RESOURCES}, a job outcome, and an execution time including the
+ * two clock reads that measure it, next to the clock reads alone. The {@code contended} variants run the
+ * counter and histogram updates from {@value #CONTENDING_THREADS} threads at once; on a machine with fewer
+ * cores than that they also pay for time slicing, so compare them on a multi-core machine.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SchedulerMetricsBenchmark {
+    static final int RESOURCES = 256;
+    static final int CONTENDING_THREADS = 4;
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        final SchedulerMetrics metrics = new SchedulerMetrics();
+        final Resource[] resources = new Resource[RESOURCES];
+
+        @Setup
+        public void setUp() {
+            for (int i = 0; i < RESOURCES; i++) {
+                resources[i] = new Resource("resource-" + i);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Local {
+        long value;
+        int next;
+
+        long nextValue() {
+            value = value * 6364136223846793005L + 1442695040888963407L;
+            return value >>> 40;
+        }
+    }
+
+    @Benchmark
+    public void counter(Shared shared) {
+        shared.metrics.recordRetry();
+    }
+
+    @Benchmark
+    public void histogram(Shared shared, Local local) {
+        shared.metrics.recordExecutionTime(local.nextValue());
+    }
+
+    @Benchmark
+    public void lockWaitPerResource(Shared shared, Local local) {
+        shared.metrics.recordLockWait(shared.resources[local.next++ & RESOURCES - 1], local.nextValue());
+    }
+
+    @Benchmark
+    public void outcome(Shared shared, Local local) {
+        shared.metrics.recordOutcome(JobState.SUCCESS, (int) (local.nextValue() & 3) + 1);
+    }
+
+    @Benchmark
+    @Threads(CONTENDING_THREADS)
+    public void contendedCounter(Shared shared) {
+        shared.metrics.recordRetry();
+    }
+
+    @Benchmark
+    @Threads(CONTENDING_THREADS)
+    public void contendedHistogram(Shared shared, Local local) {
+        shared.metrics.recordExecutionTime(local.nextValue());
+    }
+
+    @Benchmark
+    @Threads(CONTENDING_THREADS)
+    public void contendedHistogramSameBucket(Shared shared) {
+        shared.metrics.recordExecutionTime(1000);
+    }
+
+    @Benchmark
+    public long clockReads() {
+        long started = System.nanoTime();
+        return System.nanoTime() - started;
+    }
+
+    @Benchmark
+    public void timedExecution(Shared shared) {
+        long started = System.nanoTime();
+        shared.metrics.recordExecutionTime(System.nanoTime() - started);
+    }
+}
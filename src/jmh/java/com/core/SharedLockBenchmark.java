@@ -0,0 +1,63 @@
+package com.core;
+
+import com.domain.LockMode;
+import com.domain.Resource;
+import com.infra.NoopAuditLogger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Read-only report jobs on one reference table, locked SHARED versus EXCLUSIVE. The job body blocks for
+ * 1ms the way a query would, so the difference shows up even on a single core.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class SharedLockBenchmark {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Param({"SHARED", "EXCLUSIVE"})
+    public LockMode mode;
+
+    private LockRegistry lockRegistry;
+    private Map<Resource, LockMode> claim;
+
+    @Setup
+    public void setUp() {
+        lockRegistry = new LockRegistry(new LockGraphEngine(), new NoopAuditLogger());
+        claim = Map.of(new Resource("reference-table"), mode);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void readReport(Worker worker) throws Exception {
+        try (LockRegistry.LockHandle ignored = lockRegistry.acquireLocks(worker.jobId, claim, TIMEOUT)) {
+            Thread.sleep(1);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Worker {
+        private static final AtomicInteger IDS = new AtomicInteger();
+
+        String jobId;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            jobId = "report-" + IDS.incrementAndGet();
+        }
+    }
+}
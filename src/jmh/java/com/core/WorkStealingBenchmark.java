@@ -0,0 +1,117 @@
+package com.core;
+
+import com.domain.Job;
+import com.domain.JobContext;
+import com.domain.JobExecutionContext;
+import com.domain.Resource;
+import com.domain.RetryPolicies;
+import com.infra.AuditLogger;
+import com.infra.NoopAuditLogger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Scaling of the shared pool queue against per-worker queues with stealing, from 1 to 64 workers. Four
+ * producers each submit {@value #JOBS} short jobs over {@code resources} resources and wait for them, so
+ * the engine's queue, not the job bodies, is what the workers contend on. Run with as many cores as
+ * workers for the numbers to mean anything.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Threads(4)
+@State(Scope.Benchmark)
+public class WorkStealingBenchmark {
+    static final int JOBS = 5_000;
+
+    @Param({"PLATFORM_POOL", "WORK_STEALING"})
+    public WorkerMode workerMode;
+
+    @Param({"1", "2", "4", "8", "16", "32", "64"})
+    public int workerCount;
+
+    @Param({"1024"})
+    public int resources;
+
+    private final AtomicInteger producers = new AtomicInteger();
+    private JobEngine engine;
+    private Job job;
+
+    @Setup
+    public void setUp() {
+        AuditLogger auditLogger = new NoopAuditLogger();
+        JobRunner runner = new JobRunner(new LockRegistry(new LockGraphEngine(), auditLogger), auditLogger,
+                new InMemoryExecutionContextFactory());
+        engine = JobEngine.builder(runner, auditLogger)
+                .workerMode(workerMode)
+                .workerCount(workerCount)
+                .build();
+        job = new ShortJob();
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(JOBS)
+    public void submitShortJobs(Producer producer) {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[JOBS];
+        for (int i = 0; i < JOBS; i++) {
+            futures[i] = engine.submit(job, producer.contexts[i]);
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+
+    /**
+     * Each producer's job ids are its own, so producers do not overwrite each other's states.
+     */
+    @State(Scope.Thread)
+    public static class Producer {
+        private JobContext[] contexts;
+
+        @Setup
+        public void setUp(WorkStealingBenchmark benchmark) {
+            int producer = benchmark.producers.getAndIncrement();
+            contexts = new JobContext[JOBS];
+            for (int i = 0; i < JOBS; i++) {
+                contexts[i] = new JobContext("job-" + producer + "-" + i, Duration.ofMinutes(1),
+                        RetryPolicies.fixedDelay(1, 0),
+                        List.of(new Resource("resource-" + (i * 31 + producer) % benchmark.resources)));
+            }
+        }
+    }
+
+    static final class ShortJob implements Job {
+        @Override
+        public void prepare(JobContext context, JobExecutionContext executionContext) {
+        }
+
+        @Override
+        public void execute(JobContext context, JobExecutionContext executionContext) {
+        }
+
+        @Override
+        public void rollback(JobContext context, JobExecutionContext executionContext, Exception cause) {
+        }
+    }
+}
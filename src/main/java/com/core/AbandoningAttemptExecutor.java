@@ -0,0 +1,81 @@
+package com.core;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the attempt on a separate thread and stops waiting for it at the deadline.
+ * When the timeout passes, the attempt is interrupted and given a grace period to stop; after that it is
+ * abandoned and reported as timed out, so the caller gets control back and can release the job's locks
+ * even when the body ignores interrupts. An abandoned body keeps running in the background and may still
+ * be using its execution context. This costs a thread hand-off per attempt, which
+ * {@link DeadlineAttemptExecutor} avoids.
+ */
+public class AbandoningAttemptExecutor implements AttemptExecutor {
+    public static final Duration DEFAULT_GRACE = Duration.ofSeconds(5);
+
+    private final ExecutorService attemptThreads;
+    private final Duration grace;
+
+    public AbandoningAttemptExecutor() {
+        this(DEFAULT_GRACE);
+    }
+
+    public AbandoningAttemptExecutor(Duration grace) {
+        this(SharedThreads.INSTANCE, grace);
+    }
+
+    public AbandoningAttemptExecutor(ExecutorService attemptThreads, Duration grace) {
+        this.attemptThreads = Objects.requireNonNull(attemptThreads, "attemptThreads");
+        this.grace = Objects.requireNonNull(grace, "grace");
+        if (grace.isNegative()) {
+            throw new IllegalArgumentException("grace must not be negative");
+        }
+    }
+
+    @Override
+    public void execute(Callable<Void> attempt, Duration timeout) throws Exception {
+        CountDownLatch stopped = new CountDownLatch(1);
+        Future<Void> future = attemptThreads.submit(() -> {
+            try {
+                return attempt.call();
+            } finally {
+                stopped.countDown();
+            }
+        });
+        try {
+            future.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (java.util.concurrent.TimeoutException timeoutException) {
+            future.cancel(true);
+            stopped.await(grace.toNanos(), TimeUnit.NANOSECONDS);
+            throw new JobRunner.TimeoutException("Job timed out after " + timeout.toMillis() + "ms");
+        } catch (InterruptedException interruptedException) {
+            future.cancel(true);
+            throw interruptedException;
+        } catch (ExecutionException executionException) {
+            Throwable cause = executionException.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw executionException;
+        }
+    }
+
+    private static final class SharedThreads {
+        private static final ExecutorService INSTANCE = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "job-attempt");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
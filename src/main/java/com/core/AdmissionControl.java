@@ -0,0 +1,117 @@
+package com.core;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Counts a {@link JobEngine}'s queued and unfinished jobs and decides whether a submission fits. A job is
+ * queued from admission until its first attempt starts, and unfinished until its final outcome. A
+ * submission fits when the queued jobs stay within {@code maxQueued} and, with an {@link AimdLimit}, the
+ * unfinished ones within its current limit. An empty engine always admits, so a batch larger than the
+ * bounds cannot wait forever. Jobs re-driven by {@link JobEngine#recover(JobResolver)} bypass it.
+ */
+final class AdmissionControl {
+    private final int maxQueued;
+    private final AimdLimit limit;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition space = lock.newCondition();
+    private final LongAdder rejected = new LongAdder();
+    private volatile int queued;
+    private volatile int inFlight;
+
+    AdmissionControl(int maxQueued, AimdLimit limit) {
+        this.maxQueued = maxQueued;
+        this.limit = limit;
+    }
+
+    /**
+     * Admits {@code count} jobs, waiting for room when {@code wait} is set. Returns {@code false}, and
+     * counts the jobs as rejected, when they do not fit or the wait was interrupted.
+     */
+    boolean admit(int count, boolean wait) {
+        lock.lock();
+        try {
+            while (!fits(count)) {
+                if (!wait) {
+                    rejected.add(count);
+                    return false;
+                }
+                try {
+                    space.await();
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    rejected.add(count);
+                    return false;
+                }
+            }
+            queued += count;
+            inFlight += count;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes back {@code count} admitted jobs that were never queued, because recording them failed.
+     */
+    void withdraw(int count) {
+        lock.lock();
+        try {
+            queued -= count;
+            inFlight -= count;
+            space.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * An admitted job's first attempt started, or the job ended before it could start.
+     */
+    void started() {
+        lock.lock();
+        try {
+            queued--;
+            space.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * An admitted job reached its final outcome {@code latencyNanos} after admission.
+     */
+    void finished(long latencyNanos, boolean timedOut) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (limit != null) {
+                limit.onSample(latencyNanos, timedOut, inFlight);
+            }
+            space.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int queued() {
+        return queued;
+    }
+
+    int inFlight() {
+        return inFlight;
+    }
+
+    long rejected() {
+        return rejected.sum();
+    }
+
+    private boolean fits(int count) {
+        if (inFlight == 0) {
+            return true;
+        }
+        return queued + (long) count <= maxQueued && (limit == null || inFlight + count <= limit.limit());
+    }
+}
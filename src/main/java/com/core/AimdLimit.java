@@ -0,0 +1,106 @@
+package com.core;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Adaptive cap on a {@link JobEngine}'s unfinished jobs, adjusted by additive increase and multiplicative
+ * decrease from each job's latency, measured from admission until the job finishes. A job slower than
+ * {@code latencyThreshold}, or one that ends in {@link JobState#TIMEOUT}, multiplies the limit by
+ * {@code backoffRatio}. Any other job raises it by one, but only while at least half the limit is in use,
+ * so an idle engine does not build up headroom it has never tested. Holds state, so each engine needs its
+ * own instance.
+ */
+public final class AimdLimit {
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private volatile double limit;
+
+    private AimdLimit(Builder builder) {
+        this.minLimit = builder.minLimit;
+        this.maxLimit = builder.maxLimit;
+        this.latencyThresholdNanos = builder.latencyThreshold.toNanos();
+        this.backoffRatio = builder.backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, builder.initialLimit));
+    }
+
+    public static Builder builder(Duration latencyThreshold) {
+        return new Builder(latencyThreshold);
+    }
+
+    /**
+     * Current number of unfinished jobs the engine admits.
+     */
+    public int limit() {
+        return (int) limit;
+    }
+
+    /**
+     * Called under the engine's admission lock for every finished job.
+     */
+    void onSample(long latencyNanos, boolean timedOut, int inFlight) {
+        double current = limit;
+        if (timedOut || latencyNanos > latencyThresholdNanos) {
+            limit = Math.max(minLimit, current * backoffRatio);
+        } else if (inFlight * 2 >= current) {
+            limit = Math.min(maxLimit, current + 1);
+        }
+    }
+
+    public static final class Builder {
+        private final Duration latencyThreshold;
+        private int initialLimit = 20;
+        private int minLimit = 1;
+        private int maxLimit = 1_000;
+        private double backoffRatio = 0.9;
+
+        private Builder(Duration latencyThreshold) {
+            Objects.requireNonNull(latencyThreshold, "latencyThreshold");
+            if (latencyThreshold.isNegative() || latencyThreshold.isZero()) {
+                throw new IllegalArgumentException("latencyThreshold must be positive");
+            }
+            this.latencyThreshold = latencyThreshold;
+        }
+
+        public Builder initialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+            return this;
+        }
+
+        public Builder minLimit(int minLimit) {
+            if (minLimit <= 0) {
+                throw new IllegalArgumentException("minLimit must be positive");
+            }
+            this.minLimit = minLimit;
+            return this;
+        }
+
+        public Builder maxLimit(int maxLimit) {
+            if (maxLimit <= 0) {
+                throw new IllegalArgumentException("maxLimit must be positive");
+            }
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        /**
+         * Factor the limit is multiplied by on a slow or timed-out job; between 0 and 1.
+         */
+        public Builder backoffRatio(double backoffRatio) {
+            if (!(backoffRatio > 0 && backoffRatio < 1)) {
+                throw new IllegalArgumentException("backoffRatio must be between 0 and 1");
+            }
+            this.backoffRatio = backoffRatio;
+            return this;
+        }
+
+        public AimdLimit build() {
+            if (minLimit > maxLimit) {
+                throw new IllegalArgumentException("minLimit must not exceed maxLimit");
+            }
+            return new AimdLimit(this);
+        }
+    }
+}
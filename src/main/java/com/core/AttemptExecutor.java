@@ -0,0 +1,13 @@
+package com.core;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Runs the body of a single job attempt and enforces its timeout.
+ * Implementations throw {@link JobRunner.TimeoutException} when the attempt exceeds its timeout and
+ * must interrupt the body so it can stop early.
+ */
+public interface AttemptExecutor {
+    void execute(Callable<Void> attempt, Duration timeout) throws Exception;
+}
@@ -0,0 +1,39 @@
+package com.core;
+
+import java.util.Objects;
+
+/**
+ * Outcome of a single job attempt: either a final {@link JobState} or a request to retry after a delay.
+ */
+public final class AttemptResult {
+    private final JobState state;
+    private final long retryDelayMillis;
+
+    private AttemptResult(JobState state, long retryDelayMillis) {
+        this.state = state;
+        this.retryDelayMillis = retryDelayMillis;
+    }
+
+    public static AttemptResult completed(JobState state) {
+        return new AttemptResult(Objects.requireNonNull(state, "state"), 0);
+    }
+
+    public static AttemptResult retryAfter(long delayMillis) {
+        return new AttemptResult(null, Math.max(0, delayMillis));
+    }
+
+    public boolean retry() {
+        return state == null;
+    }
+
+    /**
+     * The final state of the job. Only meaningful when {@link #retry()} is {@code false}.
+     */
+    public JobState state() {
+        return state;
+    }
+
+    public long retryDelayMillis() {
+        return retryDelayMillis;
+    }
+}
@@ -0,0 +1,403 @@
+package com.core;
+
+import com.domain.ContextKey;
+import com.domain.JobContext;
+import com.domain.JobExecutionContext;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Keeps execution contexts between attempts instead of creating and closing one per attempt. Contexts are
+ * cached under an affinity key, by default the job's set of resources, so back-to-back jobs on the same
+ * resources get the same context back. Closing a leased context returns it: it is
+ * {@link ReusableExecutionContext#reset() reset} and kept idle. Contexts that are not
+ * {@link ReusableExecutionContext} are closed as before.
+ * <p>
+ * A lease takes the most recently returned idle context for its key, health-checking it first when it has
+ * been idle for longer than {@code healthCheckAfterIdle}. At most {@code maxIdle} contexts are kept, none
+ * for longer than {@code maxIdleTime}. When the contexts this cache holds reach the delegate's
+ * {@link ExecutionContextFactory#maxContexts()}, a miss evicts another key's idle context rather than wait
+ * on one that only sits in the cache. Give the cache a delegate of its own, since it cannot see other
+ * leases.
+ */
+public class CachingExecutionContextFactory implements ExecutionContextFactory, AutoCloseable {
+    private static final Object NO_AFFINITY = new Object();
+
+    private final ExecutionContextFactory delegate;
+    private final Function<JobContext, ?> affinityKey;
+    private final int maxIdle;
+    private final int maxContexts;
+    private final long maxIdleNanos;
+    private final long healthCheckAfterIdleNanos;
+    private final Map<Object, Deque<Idle>> idleByKey = new HashMap<>();
+    /**
+     * Every idle context in the order it was returned, least recent first; used as an ordered set.
+     */
+    private final LinkedHashMap<Idle, Boolean> idleByAge = new LinkedHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder failedHealthChecks = new LongAdder();
+    /**
+     * Contexts created through the delegate and not yet dropped, leased or idle.
+     */
+    private int open;
+    private boolean closed;
+
+    public CachingExecutionContextFactory(ExecutionContextFactory delegate) {
+        this(builder(delegate));
+    }
+
+    private CachingExecutionContextFactory(Builder builder) {
+        this.delegate = builder.delegate;
+        this.affinityKey = builder.affinityKey;
+        this.maxIdle = builder.maxIdle;
+        this.maxContexts = builder.delegate.maxContexts();
+        this.maxIdleNanos = builder.maxIdleTime.toNanos();
+        this.healthCheckAfterIdleNanos = builder.healthCheckAfterIdle.toNanos();
+    }
+
+    public static Builder builder(ExecutionContextFactory delegate) {
+        return new Builder(delegate);
+    }
+
+    /**
+     * Leases a context that is not tied to any job, for callers that have none.
+     */
+    @Override
+    public JobExecutionContext create() throws Exception {
+        return lease(NO_AFFINITY);
+    }
+
+    @Override
+    public JobExecutionContext create(JobContext context) throws Exception {
+        Object key = affinityKey.apply(context);
+        return lease(key == null ? NO_AFFINITY : key);
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Share of leases served from the cache, or {@code 0} before the first lease.
+     */
+    public double hitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Idle contexts closed because the cache was full or they sat unused for too long.
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public long failedHealthCheckCount() {
+        return failedHealthChecks.sum();
+    }
+
+    public synchronized int idleCount() {
+        return idleByAge.size();
+    }
+
+    /**
+     * The delegate's bound, which this cache passes on.
+     */
+    @Override
+    public int maxContexts() {
+        return maxContexts;
+    }
+
+    /**
+     * Closes the idle contexts; leased ones are closed when they come back.
+     */
+    @Override
+    public void close() {
+        List<Idle> toClose;
+        synchronized (this) {
+            closed = true;
+            toClose = new ArrayList<>(idleByAge.keySet());
+            open -= toClose.size();
+            idleByAge.clear();
+            idleByKey.clear();
+        }
+        for (Idle idle : toClose) {
+            closeQuietly(idle.context);
+        }
+    }
+
+    private JobExecutionContext lease(Object key) throws Exception {
+        while (true) {
+            Idle idle = takeIdle(key, System.nanoTime());
+            if (idle == null) {
+                misses.increment();
+                return new Leased(key, createReserved());
+            }
+            if (System.nanoTime() - idle.returnedAtNanos > healthCheckAfterIdleNanos && !idle.context.isHealthy()) {
+                failedHealthChecks.increment();
+                drop(idle.context);
+                continue;
+            }
+            hits.increment();
+            return new Leased(key, idle.context);
+        }
+    }
+
+    /**
+     * Takes the most recent idle context for {@code key}. On a miss, reserves room for a new context
+     * instead, evicting the oldest idle context when the delegate is at its bound.
+     */
+    private Idle takeIdle(Object key, long now) {
+        List<Idle> evicted = new ArrayList<>();
+        Idle idle;
+        synchronized (this) {
+            evict(now, evicted);
+            Deque<Idle> forKey = idleByKey.get(key);
+            idle = forKey == null ? null : forKey.pollLast();
+            if (idle != null) {
+                idleByAge.remove(idle);
+                if (forKey.isEmpty()) {
+                    idleByKey.remove(key);
+                }
+            } else {
+                if (open >= maxContexts && !idleByAge.isEmpty()) {
+                    evictOldest(evicted);
+                }
+                open++;
+            }
+        }
+        closeAll(evicted);
+        return idle;
+    }
+
+    private JobExecutionContext createReserved() throws Exception {
+        boolean created = false;
+        try {
+            JobExecutionContext context = delegate.create();
+            created = true;
+            return context;
+        } finally {
+            if (!created) {
+                synchronized (this) {
+                    open--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes a context that leaves the cache for good.
+     */
+    private void drop(JobExecutionContext context) {
+        synchronized (this) {
+            open--;
+        }
+        closeQuietly(context);
+    }
+
+    private void giveBack(Object key, JobExecutionContext context) {
+        if (!(context instanceof ReusableExecutionContext reusable)) {
+            drop(context);
+            return;
+        }
+        try {
+            reusable.reset();
+        } catch (Exception exception) {
+            drop(context);
+            return;
+        }
+        List<Idle> evicted = new ArrayList<>();
+        long now = System.nanoTime();
+        synchronized (this) {
+            if (closed) {
+                open--;
+                evicted.add(new Idle(key, reusable, now));
+            } else {
+                Idle idle = new Idle(key, reusable, now);
+                idleByKey.computeIfAbsent(key, ignored -> new ArrayDeque<>()).addLast(idle);
+                idleByAge.put(idle, Boolean.TRUE);
+                evict(now, evicted);
+            }
+        }
+        closeAll(evicted);
+    }
+
+    /**
+     * Removes the oldest idle contexts while the cache is over capacity or they are past the idle time.
+     * Called with the monitor held; the caller closes {@code evicted} after releasing it.
+     */
+    private void evict(long now, List<Idle> evicted) {
+        while (!idleByAge.isEmpty()) {
+            Idle idle = idleByAge.keySet().iterator().next();
+            if (idleByAge.size() <= maxIdle && now - idle.returnedAtNanos <= maxIdleNanos) {
+                return;
+            }
+            evictOldest(evicted);
+        }
+    }
+
+    /**
+     * Removes the least recently returned idle context. Called with the monitor held.
+     */
+    private void evictOldest(List<Idle> evicted) {
+        Iterator<Idle> oldest = idleByAge.keySet().iterator();
+        Idle idle = oldest.next();
+        oldest.remove();
+        Deque<Idle> forKey = idleByKey.get(idle.key);
+        forKey.remove(idle);
+        if (forKey.isEmpty()) {
+            idleByKey.remove(idle.key);
+        }
+        open--;
+        evictions.increment();
+        evicted.add(idle);
+    }
+
+    private static void closeAll(List<Idle> idles) {
+        for (Idle idle : idles) {
+            closeQuietly(idle.context);
+        }
+    }
+
+    private static void closeQuietly(JobExecutionContext context) {
+        try {
+            context.close();
+        } catch (Exception ignored) {
+            // the context is dropped either way
+        }
+    }
+
+    /**
+     * The default affinity key: the job's resources, in any order. The key set view of
+     * {@link JobContext#lockModes()} already has set equality, so nothing is copied per attempt.
+     */
+    private static Object resourceSet(JobContext context) {
+        return context.lockModes().keySet();
+    }
+
+    /**
+     * An idle context; identity equality, so the ordered set can hold several for the same key.
+     */
+    private static final class Idle {
+        private final Object key;
+        private final ReusableExecutionContext context;
+        private final long returnedAtNanos;
+
+        private Idle(Object key, ReusableExecutionContext context, long returnedAtNanos) {
+            this.key = key;
+            this.context = context;
+            this.returnedAtNanos = returnedAtNanos;
+        }
+    }
+
+    /**
+     * What a lease hands out: closing it returns the context to the cache. Closing twice returns it once.
+     */
+    private final class Leased implements JobExecutionContext {
+        private final Object key;
+        private JobExecutionContext context;
+
+        private Leased(Object key, JobExecutionContext context) {
+            this.key = key;
+            this.context = context;
+        }
+
+        @Override
+        public <T> Optional<T> find(String key, Class<T> type) {
+            return context.find(key, type);
+        }
+
+        @Override
+        public <T> T get(ContextKey<T> key) {
+            return context.get(key);
+        }
+
+        @Override
+        public void close() {
+            JobExecutionContext returned = context;
+            context = null;
+            if (returned != null) {
+                giveBack(key, returned);
+            }
+        }
+    }
+
+    public static final class Builder {
+        private final ExecutionContextFactory delegate;
+        private Function<JobContext, ?> affinityKey = CachingExecutionContextFactory::resourceSet;
+        private int maxIdle = 64;
+        private Duration maxIdleTime = Duration.ofMinutes(1);
+        private Duration healthCheckAfterIdle = Duration.ofSeconds(1);
+
+        private Builder(ExecutionContextFactory delegate) {
+            this.delegate = Objects.requireNonNull(delegate, "delegate");
+        }
+
+        /**
+         * What jobs must share to get each other's contexts, instead of their resource set. A {@code null}
+         * key puts the job with those that have no affinity.
+         */
+        public Builder affinityKey(Function<JobContext, ?> affinityKey) {
+            this.affinityKey = Objects.requireNonNull(affinityKey, "affinityKey");
+            return this;
+        }
+
+        /**
+         * Most idle contexts kept across all keys.
+         */
+        public Builder maxIdle(int maxIdle) {
+            if (maxIdle < 0) {
+                throw new IllegalArgumentException("maxIdle must not be negative");
+            }
+            this.maxIdle = maxIdle;
+            return this;
+        }
+
+        /**
+         * How long a context may stay idle before it is closed.
+         */
+        public Builder maxIdleTime(Duration maxIdleTime) {
+            Objects.requireNonNull(maxIdleTime, "maxIdleTime");
+            if (maxIdleTime.isNegative()) {
+                throw new IllegalArgumentException("maxIdleTime must not be negative");
+            }
+            this.maxIdleTime = maxIdleTime;
+            return this;
+        }
+
+        /**
+         * Idle time after which a context is health-checked before it is leased again.
+         */
+        public Builder healthCheckAfterIdle(Duration healthCheckAfterIdle) {
+            Objects.requireNonNull(healthCheckAfterIdle, "healthCheckAfterIdle");
+            if (healthCheckAfterIdle.isNegative()) {
+                throw new IllegalArgumentException("healthCheckAfterIdle must not be negative");
+            }
+            this.healthCheckAfterIdle = healthCheckAfterIdle;
+            return this;
+        }
+
+        public CachingExecutionContextFactory build() {
+            return new CachingExecutionContextFactory(this);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.core;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the attempt on the calling thread and arms a deadline on a shared scheduler.
+ * When the deadline fires before the attempt finishes, the calling thread is interrupted and the
+ * attempt is reported as timed out. No thread is created per attempt.
+ *
+ * <p>Because the body runs inline, the caller only gets control back once the body returns: a body that
+ * ignores interrupts runs past its timeout, and the caller keeps holding the job's locks until it does.
+ * Use {@link AbandoningAttemptExecutor} for bodies that may not respond to interrupts.
+ *
+ * <p>Only the interrupt the deadline delivered is cleared. If the caller was already interrupted when the
+ * deadline fired, the deadline does not interrupt it again and leaves the status alone. An interrupt from
+ * elsewhere that lands after the deadline fired cannot be told apart from the deadline's own and is
+ * cleared with it.
+ */
+public class DeadlineAttemptExecutor implements AttemptExecutor {
+    private final ScheduledExecutorService deadlineScheduler;
+
+    public DeadlineAttemptExecutor() {
+        this(SharedScheduler.INSTANCE);
+    }
+
+    public DeadlineAttemptExecutor(ScheduledExecutorService deadlineScheduler) {
+        this.deadlineScheduler = Objects.requireNonNull(deadlineScheduler, "deadlineScheduler");
+    }
+
+    @Override
+    public void execute(Callable<Void> attempt, Duration timeout) throws Exception {
+        Deadline deadline = new Deadline(Thread.currentThread());
+        ScheduledFuture<?> timer = deadlineScheduler.schedule(deadline::expire, timeout.toNanos(), TimeUnit.NANOSECONDS);
+        Exception failure = null;
+        boolean finishedInTime;
+        try {
+            attempt.call();
+        } catch (Exception exception) {
+            failure = exception;
+        } finally {
+            timer.cancel(false);
+            finishedInTime = deadline.finish();
+        }
+        if (!finishedInTime) {
+            throw new JobRunner.TimeoutException("Job timed out after " + timeout.toMillis() + "ms");
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static final class Deadline {
+        private static final int RUNNING = 0;
+        private static final int INTERRUPTING = 1;
+        private static final int EXPIRED = 2;
+        private static final int DONE = 3;
+
+        private final Thread worker;
+        private final AtomicInteger state = new AtomicInteger(RUNNING);
+        private boolean delivered;
+
+        private Deadline(Thread worker) {
+            this.worker = worker;
+        }
+
+        private void expire() {
+            if (state.compareAndSet(RUNNING, INTERRUPTING)) {
+                if (!worker.isInterrupted()) {
+                    delivered = true;
+                    worker.interrupt();
+                }
+                state.set(EXPIRED);
+            }
+        }
+
+        /**
+         * Returns {@code true} when the attempt finished before its deadline. Otherwise waits for the
+         * deadline's interrupt to land and clears it so it does not leak into the next attempt. An
+         * interrupt that was already pending when the deadline fired is left in place.
+         */
+        private boolean finish() {
+            if (state.compareAndSet(RUNNING, DONE) || state.get() == DONE) {
+                return true;
+            }
+            while (state.get() == INTERRUPTING) {
+                Thread.onSpinWait();
+            }
+            if (delivered) {
+                Thread.interrupted();
+            }
+            return false;
+        }
+    }
+
+    private static final class SharedScheduler {
+        private static final ScheduledExecutorService INSTANCE = create();
+
+        private static ScheduledExecutorService create() {
+            ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "job-deadline");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.setRemoveOnCancelPolicy(true);
+            return scheduler;
+        }
+    }
+}
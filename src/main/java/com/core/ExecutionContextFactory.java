@@ -1,7 +1,24 @@
 package com.core;
 
+import com.domain.JobContext;
 import com.domain.JobExecutionContext;
 
 public interface ExecutionContextFactory {
     JobExecutionContext create() throws Exception;
+
+    /**
+     * Creates the context for an attempt of the job described by {@code context}. Factories that choose
+     * or reuse contexts per job override this; by default the job is ignored.
+     */
+    default JobExecutionContext create(JobContext context) throws Exception {
+        return create();
+    }
+
+    /**
+     * Most contexts this factory hands out at once; beyond it {@code create} waits or fails, as a bounded
+     * pool does. Unbounded by default.
+     */
+    default int maxContexts() {
+        return Integer.MAX_VALUE;
+    }
 }
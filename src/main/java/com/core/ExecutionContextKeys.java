@@ -1,8 +1,17 @@
 package com.core;
 
+import com.domain.ContextKey;
+
+import java.sql.Connection;
+
 public final class ExecutionContextKeys {
     public static final String JDBC_CONNECTION = "jdbc.connection";
 
+    /**
+     * Typed form of {@link #JDBC_CONNECTION}.
+     */
+    public static final ContextKey<Connection> CONNECTION = ContextKey.of(JDBC_CONNECTION, Connection.class);
+
     private ExecutionContextKeys() {
     }
 }
@@ -1,15 +1,30 @@
 package com.core;
 
-import com.domain.JobExecutionContext;
+import com.domain.ContextKey;
 
 import java.util.Optional;
 
-public class InMemoryExecutionContext implements JobExecutionContext {
+public class InMemoryExecutionContext implements ReusableExecutionContext {
     @Override
     public <T> Optional<T> find(String key, Class<T> type) {
         return Optional.empty();
     }
 
+    @Override
+    public <T> T get(ContextKey<T> key) {
+        return null;
+    }
+
+    @Override
+    public boolean isHealthy() {
+        return true;
+    }
+
+    @Override
+    public void reset() {
+        // Nothing carries over between attempts.
+    }
+
     @Override
     public void close() {
         // No resources to close.
@@ -0,0 +1,109 @@
+package com.core;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Handle for the jobs of one {@link JobEngine#submitAll(java.util.Collection)} call. It keeps one result
+ * slot per job instead of a future each, and {@link #completion()} finishes once every job has a result.
+ */
+public final class JobBatch {
+    private final List<String> jobIds;
+    private final AtomicReferenceArray<JobState> states;
+    private final AtomicReferenceArray<Throwable> failures;
+    private final AtomicInteger remaining;
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private volatile Map<String, Integer> indexes;
+
+    JobBatch(List<String> jobIds) {
+        this.jobIds = jobIds;
+        this.states = new AtomicReferenceArray<>(jobIds.size());
+        this.failures = new AtomicReferenceArray<>(jobIds.size());
+        this.remaining = new AtomicInteger(jobIds.size());
+        if (jobIds.isEmpty()) {
+            completion.complete(null);
+        }
+    }
+
+    public int size() {
+        return jobIds.size();
+    }
+
+    /**
+     * The ids of the batch's jobs, in submission order.
+     */
+    public List<String> jobIds() {
+        return jobIds;
+    }
+
+    /**
+     * Completes normally once every job has finished, whatever its outcome.
+     */
+    public CompletableFuture<Void> completion() {
+        return completion;
+    }
+
+    public int finishedCount() {
+        return jobIds.size() - remaining.get();
+    }
+
+    /**
+     * The final state of the job at {@code index} in submission order, or empty while it has not finished.
+     */
+    public Optional<JobState> result(int index) {
+        return Optional.ofNullable(states.get(index));
+    }
+
+    /**
+     * The final state of job {@code jobId}, or empty while it has not finished.
+     *
+     * @throws NoSuchElementException when the job is not part of this batch
+     */
+    public Optional<JobState> result(String jobId) {
+        return result(indexOf(jobId));
+    }
+
+    /**
+     * Why the job at {@code index} could not be run at all, for example because the engine was shut down.
+     * Such a job's result is {@link JobState#FAILED}.
+     */
+    public Optional<Throwable> failure(int index) {
+        return Optional.ofNullable(failures.get(index));
+    }
+
+    void finished(int index, JobState state) {
+        if (states.compareAndSet(index, null, state) && remaining.decrementAndGet() == 0) {
+            completion.complete(null);
+        }
+    }
+
+    void failed(int index, Throwable failure) {
+        failures.compareAndSet(index, null, failure);
+        finished(index, JobState.FAILED);
+    }
+
+    /**
+     * The id-to-index map is only built when a caller looks a job up by id.
+     */
+    private int indexOf(String jobId) {
+        Map<String, Integer> current = indexes;
+        if (current == null) {
+            current = new HashMap<>(jobIds.size() * 2);
+            for (int i = 0; i < jobIds.size(); i++) {
+                current.putIfAbsent(jobIds.get(i), i);
+            }
+            indexes = current;
+        }
+        Integer index = current.get(jobId);
+        if (index == null) {
+            throw new NoSuchElementException("Job " + jobId + " is not part of this batch");
+        }
+        return index;
+    }
+}
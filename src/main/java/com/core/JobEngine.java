@@ -2,43 +2,714 @@ package com.core;
 
 import com.domain.Job;
 import com.domain.JobContext;
+import com.domain.Resource;
 import com.infra.AuditLogger;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 public class JobEngine implements AutoCloseable {
+    private static final long NOT_ADMITTED = Long.MIN_VALUE;
+
+    /**
+     * The worker pool; {@code null} in {@link WorkerMode#WORK_STEALING}, which uses
+     * {@link #workStealingExecutor} instead.
+     */
     private final ExecutorService executor;
-    private final Map<String, JobState> jobStates = new ConcurrentHashMap<>();
+    private final WorkStealingExecutor<QueuedAttempt> workStealingExecutor;
+    private final ScheduledExecutorService retryScheduler;
+    private final JobStateTable jobStates;
     private final JobRunner jobRunner;
     private final AuditLogger auditLogger;
+    private final JobStore jobStore;
+    private final long agingStepNanos;
+    private final AtomicLong sequence = new AtomicLong();
+    private final SchedulerMetrics metrics;
+    private final LongAdder shedJobs = new LongAdder();
+    private final LockAwareDispatcher<QueuedAttempt> lockAwareDispatcher;
+    private final AdmissionControl admission;
+    private final SubmissionOverflowPolicy overflowPolicy;
 
     public JobEngine(int workerCount, JobRunner jobRunner, AuditLogger auditLogger) {
-        this.executor = Executors.newFixedThreadPool(workerCount);
-        this.jobRunner = Objects.requireNonNull(jobRunner, "jobRunner");
-        this.auditLogger = Objects.requireNonNull(auditLogger, "auditLogger");
+        this(builder(jobRunner, auditLogger).workerCount(workerCount));
+    }
+
+    private JobEngine(Builder builder) {
+        this.jobRunner = builder.jobRunner;
+        this.auditLogger = builder.auditLogger;
+        this.jobStore = builder.jobStore;
+        this.jobStates = new JobStateTable(builder.terminalStateTtl, builder.maxTerminalStates, builder.archiveEvictedStates);
+        this.agingStepNanos = builder.agingStep.toNanos();
+        this.admission = new AdmissionControl(builder.maxQueuedJobs, builder.concurrencyLimit);
+        this.overflowPolicy = builder.overflowPolicy;
+        this.metrics = builder.jobRunner.metrics();
+        this.executor = switch (builder.workerMode) {
+            case PLATFORM_POOL -> new ThreadPoolExecutor(builder.workerCount, builder.workerCount,
+                    0L, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>());
+            case VIRTUAL_PER_JOB -> VirtualThreads.newPerTaskExecutor();
+            case WORK_STEALING -> null;
+        };
+        this.workStealingExecutor = builder.workerMode == WorkerMode.WORK_STEALING
+                ? new WorkStealingExecutor<>(builder.workerCount, "job-worker-")
+                : null;
+        this.retryScheduler = newRetryScheduler();
+        this.lockAwareDispatcher = builder.lockAwareDispatch
+                ? new LockAwareDispatcher<>(jobRunner.lockRegistry().lockGraphEngine(), this::execute, retryScheduler)
+                : null;
     }
 
+    public static Builder builder(JobRunner jobRunner, AuditLogger auditLogger) {
+        return new Builder(jobRunner, auditLogger);
+    }
+
+    /**
+     * Queues the job with {@link JobPriority#NORMAL} priority and no deadline.
+     */
     public CompletableFuture<Void> submit(Job job, JobContext context) {
-        jobStates.put(context.id(), JobState.PENDING);
-        auditLogger.jobStateChanged(context.id(), JobState.PENDING, "queued");
-        return CompletableFuture.runAsync(() -> {
-            jobStates.put(context.id(), JobState.RUNNING);
-            JobState result = jobRunner.run(job, context);
-            jobStates.put(context.id(), result);
-        }, executor);
+        return submit(job, context, JobPriority.NORMAL, null);
+    }
+
+    /**
+     * Queues the job. Waiting jobs run earliest effective deadline first: a job's effective deadline is
+     * the time it was queued plus its priority's aging offset, or its own {@code deadline} if that is
+     * sooner. A job still queued when {@code deadline} passes is shed as {@link JobState#CANCELLED}
+     * without running. Ordering applies to the {@link WorkerMode#PLATFORM_POOL} queue and to each worker's
+     * queue in {@link WorkerMode#WORK_STEALING}; in {@link WorkerMode#VIRTUAL_PER_JOB} mode every job
+     * starts at once. With a durable {@link JobStore}
+     * the submission is persisted before this returns, with the job's class name as its type for
+     * {@link #recover(JobResolver)}.
+     *
+     * <p>
+     * When the engine already holds {@link Builder#maxQueuedJobs(int)} queued jobs, or as many unfinished
+     * jobs as its {@link Builder#concurrencyLimit(AimdLimit)} allows, the {@link SubmissionOverflowPolicy}
+     * decides between waiting and rejecting.
+     *
+     * @param deadline latest time an attempt may start, or {@code null} for none
+     * @throws SaturatedException when the job is rejected, or interrupted while waiting for room
+     */
+    public CompletableFuture<Void> submit(Job job, JobContext context, JobPriority priority, Instant deadline) {
+        Objects.requireNonNull(priority, "priority");
+        if (!admission.admit(1, overflowPolicy == SubmissionOverflowPolicy.BLOCK)) {
+            throw new SaturatedException("Engine saturated, rejected job " + context.id());
+        }
+        return enqueue(job, context, priority, deadline);
+    }
+
+    /**
+     * Like {@link #submit(Job, JobContext)}, but never waits: returns empty, and counts a rejection, when
+     * the engine has no room for the job.
+     */
+    public Optional<CompletableFuture<Void>> trySubmit(Job job, JobContext context) {
+        return trySubmit(job, context, JobPriority.NORMAL, null);
+    }
+
+    /**
+     * Like {@link #submit(Job, JobContext, JobPriority, Instant)}, but never waits: returns empty, and
+     * counts a rejection, when the engine has no room for the job.
+     */
+    public Optional<CompletableFuture<Void>> trySubmit(Job job, JobContext context, JobPriority priority,
+                                                      Instant deadline) {
+        Objects.requireNonNull(priority, "priority");
+        if (!admission.admit(1, false)) {
+            return Optional.empty();
+        }
+        return Optional.of(enqueue(job, context, priority, deadline));
     }
 
+    private CompletableFuture<Void> enqueue(Job job, JobContext context, JobPriority priority, Instant deadline) {
+        long admittedAt = System.nanoTime();
+        try {
+            jobStore.submitted(job.getClass().getName(), context);
+            jobStates.put(context.id(), JobState.PENDING);
+            auditLogger.jobStateChanged(context.id(), JobState.PENDING, "queued");
+        } catch (Throwable failure) {
+            admission.withdraw(1);
+            throw failure;
+        }
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        dispatch(new Submission(job, context, priority, deadlineNanos(deadline), completion, admittedAt), 1);
+        return completion;
+    }
+
+    /**
+     * Queues many jobs in one go. The submissions reach the {@link JobStore} as a single flush, their
+     * {@link JobState#PENDING} states and audit events are recorded as one batch, and instead of a future
+     * per job the returned {@link JobBatch} holds every job's result. Each job is then scheduled exactly as
+     * if it had been passed to {@link #submit(Job, JobContext, JobPriority, Instant)}. The batch is
+     * admitted as a whole.
+     *
+     * @throws SaturatedException when the batch is rejected, or interrupted while waiting for room
+     */
+    public JobBatch submitAll(Collection<JobSubmission> submissions) {
+        List<JobSubmission> jobs = List.copyOf(submissions);
+        if (!admission.admit(jobs.size(), overflowPolicy == SubmissionOverflowPolicy.BLOCK)) {
+            throw new SaturatedException("Engine saturated, rejected a batch of " + jobs.size() + " jobs");
+        }
+        long admittedAt = System.nanoTime();
+        List<String> jobIds = new ArrayList<>(jobs.size());
+        for (JobSubmission submission : jobs) {
+            jobIds.add(submission.context().id());
+        }
+        try {
+            jobStore.submittedAll(jobs);
+            jobStates.putAll(jobIds, JobState.PENDING);
+            auditLogger.jobStatesChanged(jobIds, JobState.PENDING, "queued");
+        } catch (Throwable failure) {
+            admission.withdraw(jobs.size());
+            throw failure;
+        }
+        JobBatch batch = new JobBatch(Collections.unmodifiableList(jobIds));
+        for (int i = 0; i < jobs.size(); i++) {
+            JobSubmission submission = jobs.get(i);
+            dispatch(new Submission(submission.job(), submission.context(), submission.priority(),
+                    deadlineNanos(submission.deadline()), batch, i, admittedAt), 1);
+        }
+        return batch;
+    }
+
+    /**
+     * Re-drives the jobs the {@link JobStore} recorded as unfinished, typically right after a restart.
+     * A job that was waiting to run is dispatched again. A job that was {@link JobState#RUNNING} counts as a
+     * failed attempt, with an {@link InterruptedAttemptException}, and is retried or failed according to
+     * its {@link com.domain.RetryPolicy}. Recovered jobs run with {@link JobPriority#NORMAL} priority and no
+     * deadline, because the store does not keep either.
+     */
+    public Map<String, CompletableFuture<Void>> recover(JobResolver resolver) {
+        Map<String, CompletableFuture<Void>> recovered = new LinkedHashMap<>();
+        for (StoredJob storedJob : jobStore.unfinished()) {
+            JobContext context = storedJob.toContext(resolver.retryPolicy(storedJob));
+            CompletableFuture<Void> completion = new CompletableFuture<>();
+            Submission submission = new Submission(resolver.job(storedJob), context, JobPriority.NORMAL,
+                    Long.MAX_VALUE, completion, NOT_ADMITTED);
+            recovered.put(context.id(), completion);
+            int attempt = storedJob.attempt();
+            if (storedJob.state() != JobState.RUNNING) {
+                jobStates.put(context.id(), JobState.PENDING);
+                dispatch(submission, attempt + 1);
+                continue;
+            }
+            Exception interrupted = new InterruptedAttemptException("Attempt " + attempt + " was interrupted by a restart");
+            if (!context.retryPolicy().shouldRetry(attempt, interrupted)) {
+                jobStore.transitioned(context.id(), JobState.FAILED, attempt);
+                jobStates.put(context.id(), JobState.FAILED);
+                metrics.recordOutcome(JobState.FAILED, attempt);
+                auditLogger.jobStateChanged(context.id(), JobState.FAILED, interrupted.getMessage());
+                completion.complete(null);
+                continue;
+            }
+            long delay = context.retryPolicy().backoffDelayMillis(attempt, interrupted);
+            metrics.recordRetry();
+            auditLogger.retryScheduled(context.id(), attempt, delay, interrupted);
+            jobStore.transitioned(context.id(), JobState.PENDING, attempt);
+            jobStates.put(context.id(), JobState.PENDING);
+            retryScheduler.schedule(() -> dispatch(submission, attempt + 1), delay, TimeUnit.MILLISECONDS);
+        }
+        return recovered;
+    }
+
+    /**
+     * The job's state, including terminal states evicted to the archive. An id the engine has no record
+     * of reads as {@link JobState#PENDING}; use {@link #statusOf(String)} to tell it apart from a job that
+     * is really pending.
+     */
     public JobState stateOf(String jobId) {
-        return jobStates.getOrDefault(jobId, JobState.PENDING);
+        JobStatus status = jobStates.lookup(jobId);
+        return status.isKnown() ? status.state() : JobState.PENDING;
+    }
+
+    /**
+     * Like {@link #stateOf(String)}, but tells a tracked job, an evicted one and an unknown id apart.
+     */
+    public JobStatus statusOf(String jobId) {
+        return jobStates.lookup(jobId);
+    }
+
+    /**
+     * Number of job states held in full: pending and running jobs plus terminal ones not yet evicted.
+     */
+    public int trackedJobCount() {
+        return jobStates.trackedCount();
+    }
+
+    /**
+     * Number of evicted terminal states held in the archive.
+     */
+    public int archivedJobCount() {
+        return jobStates.archivedCount();
+    }
+
+    /**
+     * Bytes used by the archive's tables.
+     */
+    public long archiveMemoryBytes() {
+        return jobStates.archiveMemoryBytes();
+    }
+
+    /**
+     * Time jobs of {@code priority} spent queued before an attempt started, as recorded in
+     * {@link #metrics()}.
+     */
+    public LatencyHistogram.Snapshot queueDelay(JobPriority priority) {
+        return metrics.queueWait(priority).snapshot();
+    }
+
+    /**
+     * The metrics of this engine's {@link JobRunner}. Engines sharing a runner, or a {@link LockRegistry},
+     * share its metrics.
+     */
+    public SchedulerMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Jobs dropped because their deadline passed while they were queued.
+     */
+    public long shedJobCount() {
+        return shedJobs.sum();
+    }
+
+    /**
+     * Admitted jobs whose first attempt has not started yet.
+     */
+    public int queuedJobCount() {
+        return admission.queued();
+    }
+
+    /**
+     * Admitted jobs that have not reached their final outcome, queued or running.
+     */
+    public int unfinishedJobCount() {
+        return admission.inFlight();
+    }
+
+    /**
+     * Submissions turned away because the engine was saturated; a rejected batch counts each of its jobs.
+     */
+    public long rejectedJobCount() {
+        return admission.rejected();
+    }
+
+    /**
+     * Attempts held back by lock-aware dispatch until their resources look free; always {@code 0} when it
+     * is off.
+     */
+    public long parkedJobCount() {
+        return lockAwareDispatcher == null ? 0 : lockAwareDispatcher.parkedCount();
+    }
+
+    /**
+     * Attempts a {@link WorkerMode#WORK_STEALING} worker took from another worker's queue; always {@code 0}
+     * in the other modes.
+     */
+    public long stolenJobCount() {
+        return workStealingExecutor == null ? 0 : workStealingExecutor.stolenCount();
     }
 
     @Override
     public void close() {
-        executor.shutdownNow();
+        if (lockAwareDispatcher != null) {
+            lockAwareDispatcher.close();
+        }
+        retryScheduler.shutdownNow();
+        if (workStealingExecutor != null) {
+            workStealingExecutor.shutdownNow();
+        } else {
+            executor.shutdownNow();
+        }
+    }
+
+    private void dispatch(Submission submission, int attempt) {
+        QueuedAttempt queued = new QueuedAttempt(submission, attempt);
+        if (lockAwareDispatcher != null) {
+            lockAwareDispatcher.dispatch(queued, submission.context.lockModes());
+        } else {
+            execute(queued);
+        }
+    }
+
+    /**
+     * Hands an attempt to a worker. Returns {@code false} when the workers rejected it and the job was failed.
+     */
+    private boolean execute(QueuedAttempt queued) {
+        try {
+            if (workStealingExecutor == null) {
+                executor.execute(queued);
+            } else {
+                route(queued);
+            }
+            return true;
+        } catch (RejectedExecutionException rejectedExecutionException) {
+            fail(queued.submission, rejectedExecutionException);
+            return false;
+        }
+    }
+
+    /**
+     * Routes by the first resource, so attempts on one resource contend for its lock on one worker.
+     */
+    private void route(QueuedAttempt queued) {
+        List<Resource> resources = queued.submission.context.resources();
+        if (resources.isEmpty()) {
+            workStealingExecutor.execute(queued);
+        } else {
+            workStealingExecutor.execute(queued, resources.get(0).hashCode());
+        }
+    }
+
+    /**
+     * A retry goes back through {@link #retryScheduler}, so the worker is free during the backoff.
+     */
+    private void runAttempt(Submission submission, int attempt) {
+        JobContext context = submission.context;
+        try {
+            if (System.nanoTime() - submission.deadlineNanos > 0) {
+                shed(submission, attempt);
+                return;
+            }
+            jobStore.transitioned(context.id(), JobState.RUNNING, attempt);
+            jobStates.put(context.id(), JobState.RUNNING);
+            AttemptResult result = jobRunner.runAttempt(submission.job, context, attempt);
+            if (result.retry()) {
+                jobStore.transitioned(context.id(), JobState.PENDING, attempt);
+                retryScheduler.schedule(() -> dispatch(submission, attempt + 1),
+                        result.retryDelayMillis(), TimeUnit.MILLISECONDS);
+                return;
+            }
+            jobStore.transitioned(context.id(), result.state(), attempt);
+            jobStates.put(context.id(), result.state());
+            finish(submission, result.state());
+        } catch (Throwable throwable) {
+            fail(submission, throwable);
+        } finally {
+            if (lockAwareDispatcher != null) {
+                lockAwareDispatcher.finished(context.lockModes());
+            }
+        }
+    }
+
+    private void shed(Submission submission, int attempt) {
+        String jobId = submission.context.id();
+        shedJobs.increment();
+        metrics.recordOutcome(JobState.CANCELLED, attempt - 1);
+        jobStore.transitioned(jobId, JobState.CANCELLED, attempt - 1);
+        jobStates.put(jobId, JobState.CANCELLED);
+        auditLogger.jobStateChanged(jobId, JobState.CANCELLED, "deadline passed before execution");
+        finish(submission, JobState.CANCELLED);
+    }
+
+    private void finish(Submission submission, JobState state) {
+        release(submission, state);
+        submission.finish(state);
+    }
+
+    private void fail(Submission submission, Throwable failure) {
+        release(submission, JobState.FAILED);
+        submission.fail(failure);
+    }
+
+    private void release(Submission submission, JobState state) {
+        if (submission.admittedAtNanos == NOT_ADMITTED) {
+            return;
+        }
+        markStarted(submission);
+        admission.finished(System.nanoTime() - submission.admittedAtNanos, state == JobState.TIMEOUT);
+    }
+
+    private void markStarted(Submission submission) {
+        if (submission.awaitingStart) {
+            submission.awaitingStart = false;
+            admission.started();
+        }
+    }
+
+    /**
+     * Converts a wall-clock deadline to the {@link System#nanoTime()} scale, saturating far-off deadlines.
+     */
+    private static long deadlineNanos(Instant deadline) {
+        if (deadline == null) {
+            return Long.MAX_VALUE;
+        }
+        long now = System.nanoTime();
+        long remaining;
+        try {
+            remaining = Duration.between(Instant.now(), deadline).toNanos();
+        } catch (ArithmeticException overflow) {
+            return Long.MAX_VALUE;
+        }
+        return remaining > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + remaining;
+    }
+
+    private static ScheduledExecutorService newRetryScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "job-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    /**
+     * A submitted job with what it keeps across attempts. Its outcome goes either to its own future or to
+     * its slot in a {@link JobBatch}.
+     */
+    private static final class Submission {
+        private final Job job;
+        private final JobContext context;
+        private final JobPriority priority;
+        private final long deadlineNanos;
+        private final CompletableFuture<Void> completion;
+        private final JobBatch batch;
+        private final int batchIndex;
+        private final long admittedAtNanos;
+        /**
+         * Set until the first attempt starts; only touched by the thread currently driving the job.
+         */
+        private boolean awaitingStart;
+
+        private Submission(Job job, JobContext context, JobPriority priority, long deadlineNanos,
+                           CompletableFuture<Void> completion, long admittedAtNanos) {
+            this(job, context, priority, deadlineNanos, completion, null, -1, admittedAtNanos);
+        }
+
+        private Submission(Job job, JobContext context, JobPriority priority, long deadlineNanos,
+                           JobBatch batch, int batchIndex, long admittedAtNanos) {
+            this(job, context, priority, deadlineNanos, null, batch, batchIndex, admittedAtNanos);
+        }
+
+        private Submission(Job job, JobContext context, JobPriority priority, long deadlineNanos,
+                           CompletableFuture<Void> completion, JobBatch batch, int batchIndex,
+                           long admittedAtNanos) {
+            this.job = job;
+            this.context = context;
+            this.priority = priority;
+            this.deadlineNanos = deadlineNanos;
+            this.completion = completion;
+            this.batch = batch;
+            this.batchIndex = batchIndex;
+            this.admittedAtNanos = admittedAtNanos;
+            this.awaitingStart = admittedAtNanos != NOT_ADMITTED;
+        }
+
+        private void finish(JobState state) {
+            if (batch != null) {
+                batch.finished(batchIndex, state);
+            } else {
+                completion.complete(null);
+            }
+        }
+
+        private void fail(Throwable failure) {
+            if (batch != null) {
+                batch.failed(batchIndex, failure);
+            } else {
+                completion.completeExceptionally(failure);
+            }
+        }
+    }
+
+    /**
+     * Ordered by effective deadline, then by queueing order. The rank is fixed when queued, so aging needs
+     * no re-sorting.
+     */
+    private final class QueuedAttempt implements Runnable, Comparable<QueuedAttempt> {
+        private final Submission submission;
+        private final int attempt;
+        private final long queuedAtNanos;
+        private final long rankNanos;
+        private final long order;
+
+        private QueuedAttempt(Submission submission, int attempt) {
+            this.submission = submission;
+            this.attempt = attempt;
+            this.queuedAtNanos = System.nanoTime();
+            long aged = queuedAtNanos + agingStepNanos * submission.priority.ordinal();
+            this.rankNanos = submission.deadlineNanos - aged < 0 ? submission.deadlineNanos : aged;
+            this.order = sequence.getAndIncrement();
+        }
+
+        @Override
+        public void run() {
+            markStarted(submission);
+            metrics.recordQueueWait(submission.priority, System.nanoTime() - queuedAtNanos);
+            runAttempt(submission, attempt);
+        }
+
+        @Override
+        public int compareTo(QueuedAttempt other) {
+            int byRank = Long.compare(rankNanos - other.rankNanos, 0);
+            return byRank != 0 ? byRank : Long.compare(order, other.order);
+        }
+    }
+
+    /**
+     * Thrown when a submission does not fit within the engine's bounds.
+     */
+    public static class SaturatedException extends RejectedExecutionException {
+        public SaturatedException(String message) {
+            super(message);
+        }
+    }
+
+    public static class InterruptedAttemptException extends Exception {
+        public InterruptedAttemptException(String message) {
+            super(message);
+        }
+    }
+
+    public static final class Builder {
+        private final JobRunner jobRunner;
+        private final AuditLogger auditLogger;
+        private int workerCount = Runtime.getRuntime().availableProcessors();
+        private WorkerMode workerMode = WorkerMode.PLATFORM_POOL;
+        private JobStore jobStore = TransientJobStore.INSTANCE;
+        private Duration terminalStateTtl;
+        private int maxTerminalStates = Integer.MAX_VALUE;
+        private boolean archiveEvictedStates = true;
+        private Duration agingStep = Duration.ofMillis(100);
+        private boolean lockAwareDispatch;
+        private int maxQueuedJobs = Integer.MAX_VALUE;
+        private SubmissionOverflowPolicy overflowPolicy = SubmissionOverflowPolicy.REJECT;
+        private AimdLimit concurrencyLimit;
+
+        private Builder(JobRunner jobRunner, AuditLogger auditLogger) {
+            this.jobRunner = Objects.requireNonNull(jobRunner, "jobRunner");
+            this.auditLogger = Objects.requireNonNull(auditLogger, "auditLogger");
+        }
+
+        /**
+         * Number of platform worker threads. Ignored in {@link WorkerMode#VIRTUAL_PER_JOB}.
+         */
+        public Builder workerCount(int workerCount) {
+            if (workerCount <= 0) {
+                throw new IllegalArgumentException("workerCount must be positive");
+            }
+            this.workerCount = workerCount;
+            return this;
+        }
+
+        public Builder workerMode(WorkerMode workerMode) {
+            this.workerMode = Objects.requireNonNull(workerMode, "workerMode");
+            return this;
+        }
+
+        /**
+         * Persists submissions and state transitions so {@link JobEngine#recover(JobResolver)} can re-drive
+         * unfinished jobs after a restart. Without one the engine keeps everything in memory.
+         */
+        public Builder jobStore(JobStore jobStore) {
+            this.jobStore = Objects.requireNonNull(jobStore, "jobStore");
+            return this;
+        }
+
+        /**
+         * How long a finished job's state stays in the state table before it is evicted. By default finished
+         * states are never evicted.
+         */
+        public Builder terminalStateTtl(Duration terminalStateTtl) {
+            Objects.requireNonNull(terminalStateTtl, "terminalStateTtl");
+            if (terminalStateTtl.isNegative()) {
+                throw new IllegalArgumentException("terminalStateTtl must not be negative");
+            }
+            this.terminalStateTtl = terminalStateTtl;
+            return this;
+        }
+
+        /**
+         * Most finished job states kept in the state table; the oldest are evicted first. Unlimited by default.
+         */
+        public Builder maxTerminalStates(int maxTerminalStates) {
+            if (maxTerminalStates < 0) {
+                throw new IllegalArgumentException("maxTerminalStates must not be negative");
+            }
+            this.maxTerminalStates = maxTerminalStates;
+            return this;
+        }
+
+        /**
+         * Whether evicted states are kept in a compact archive, about 9 bytes per job and never trimmed, so
+         * {@link JobEngine#stateOf(String)} still answers for them. On by default; it only matters once
+         * eviction is turned on. Without it an evicted id cannot be told apart from one never submitted.
+         */
+        public Builder archiveEvictedStates(boolean archiveEvictedStates) {
+            this.archiveEvictedStates = archiveEvictedStates;
+            return this;
+        }
+
+        /**
+         * Head start each priority class has over the next lower one. A queued job ranks as if it had
+         * been queued {@code agingStep * priority.ordinal()} later, so a {@link JobPriority#BULK} job that
+         * has waited longer than three steps runs before a newly queued {@link JobPriority#CRITICAL} one.
+         */
+        public Builder agingStep(Duration agingStep) {
+            Objects.requireNonNull(agingStep, "agingStep");
+            if (agingStep.isNegative()) {
+                throw new IllegalArgumentException("agingStep must not be negative");
+            }
+            this.agingStep = agingStep;
+            return this;
+        }
+
+        /**
+         * Holds back attempts whose resources are locked, or claimed by another dispatched attempt, in a
+         * conflicting mode, and hands them to a worker once the resource is released, instead of letting
+         * them block a worker while they wait. Off by default. Time spent held back counts as queueing
+         * delay but not towards the job's lock timeout.
+         */
+        public Builder lockAwareDispatch(boolean lockAwareDispatch) {
+            this.lockAwareDispatch = lockAwareDispatch;
+            return this;
+        }
+
+        /**
+         * Most jobs that may wait for their first attempt; unbounded by default. Further submissions wait
+         * or are rejected according to {@link #overflowPolicy(SubmissionOverflowPolicy)}.
+         */
+        public Builder maxQueuedJobs(int maxQueuedJobs) {
+            if (maxQueuedJobs <= 0) {
+                throw new IllegalArgumentException("maxQueuedJobs must be positive");
+            }
+            this.maxQueuedJobs = maxQueuedJobs;
+            return this;
+        }
+
+        /**
+         * What a submission does when the engine is saturated; {@link SubmissionOverflowPolicy#REJECT} by
+         * default. {@link JobEngine#trySubmit} never waits.
+         */
+        public Builder overflowPolicy(SubmissionOverflowPolicy overflowPolicy) {
+            this.overflowPolicy = Objects.requireNonNull(overflowPolicy, "overflowPolicy");
+            return this;
+        }
+
+        /**
+         * Caps the engine's unfinished jobs at a limit that adapts to their latency. Off by default.
+         */
+        public Builder concurrencyLimit(AimdLimit concurrencyLimit) {
+            this.concurrencyLimit = Objects.requireNonNull(concurrencyLimit, "concurrencyLimit");
+            return this;
+        }
+
+        public JobEngine build() {
+            return new JobEngine(this);
+        }
     }
 }
@@ -0,0 +1,12 @@
+package com.core;
+
+/**
+ * Scheduling class of a submitted job, from most to least urgent. See
+ * {@link JobEngine.Builder#agingStep(java.time.Duration)} for how waiting jobs age.
+ */
+public enum JobPriority {
+    CRITICAL,
+    HIGH,
+    NORMAL,
+    BULK
+}
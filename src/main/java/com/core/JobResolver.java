@@ -0,0 +1,13 @@
+package com.core;
+
+import com.domain.Job;
+import com.domain.RetryPolicy;
+
+/**
+ * Supplies the code behind a {@link StoredJob} when {@link JobEngine#recover(JobResolver)} re-drives it.
+ */
+public interface JobResolver {
+    Job job(StoredJob storedJob);
+
+    RetryPolicy retryPolicy(StoredJob storedJob);
+}
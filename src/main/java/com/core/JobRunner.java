@@ -9,109 +9,142 @@ import com.infra.AuditLogger;
 import java.sql.Connection;
 import java.time.Duration;
 import java.util.Objects;
-import java.util.Optional;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
 
 public class JobRunner {
     private final LockRegistry lockRegistry;
     private final AuditLogger auditLogger;
     private final ExecutionContextFactory executionContextFactory;
+    private final AttemptExecutor attemptExecutor;
+    private final TransactionGroup transactionGroup;
+    private final SchedulerMetrics metrics;
 
     public JobRunner(LockRegistry lockRegistry, AuditLogger auditLogger, ExecutionContextFactory executionContextFactory) {
-        this.lockRegistry = Objects.requireNonNull(lockRegistry, "lockRegistry");
-        this.auditLogger = Objects.requireNonNull(auditLogger, "auditLogger");
-        this.executionContextFactory = Objects.requireNonNull(executionContextFactory, "executionContextFactory");
+        this(builder(lockRegistry, auditLogger, executionContextFactory));
+    }
+
+    public JobRunner(LockRegistry lockRegistry,
+                     AuditLogger auditLogger,
+                     ExecutionContextFactory executionContextFactory,
+                     AttemptExecutor attemptExecutor) {
+        this(builder(lockRegistry, auditLogger, executionContextFactory).attemptExecutor(attemptExecutor));
+    }
+
+    private JobRunner(Builder builder) {
+        this.lockRegistry = builder.lockRegistry;
+        this.auditLogger = builder.auditLogger;
+        this.executionContextFactory = builder.executionContextFactory;
+        this.attemptExecutor = builder.attemptExecutor;
+        this.transactionGroup = builder.maxGroupSize > 1
+                ? new TransactionGroup(executionContextFactory, attemptExecutor, builder.maxGroupSize)
+                : null;
+        this.metrics = lockRegistry.metrics();
+    }
+
+    public static Builder builder(LockRegistry lockRegistry,
+                                  AuditLogger auditLogger,
+                                  ExecutionContextFactory executionContextFactory) {
+        return new Builder(lockRegistry, auditLogger, executionContextFactory);
+    }
+
+    LockRegistry lockRegistry() {
+        return lockRegistry;
+    }
+
+    /**
+     * The metrics of this runner's {@link LockRegistry}, which also receive execution times, attempts per
+     * job, execution timeouts, retries and outcomes.
+     */
+    public SchedulerMetrics metrics() {
+        return metrics;
     }
 
     public JobState run(Job job, JobContext context) {
-        RetryPolicy retryPolicy = context.retryPolicy();
         int attempt = 0;
         while (true) {
             attempt++;
-            auditLogger.jobStateChanged(context.id(), JobState.RUNNING, "attempt " + attempt);
-            try (LockRegistry.LockHandle ignored = lockRegistry.acquireLocks(context.id(), context.resources(), context.timeout())) {
+            AttemptResult result = runAttempt(job, context, attempt);
+            if (!result.retry()) {
+                return result.state();
+            }
+            try {
+                Thread.sleep(result.retryDelayMillis());
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+                complete(context, JobState.CANCELLED, attempt, "interrupted during retry");
+                return JobState.CANCELLED;
+            }
+        }
+    }
+
+    /**
+     * Runs a single attempt. When the attempt fails and the retry policy allows another one, the retry is
+     * announced through {@link AuditLogger#retryScheduled} and left to the caller to schedule.
+     */
+    public AttemptResult runAttempt(Job job, JobContext context, int attempt) {
+        auditLogger.jobStateChanged(context.id(), JobState.RUNNING, "attempt " + attempt);
+        try (LockRegistry.LockHandle ignored = lockRegistry.acquireLocks(context.id(), context.lockModes(), context.timeout())) {
+            long started = System.nanoTime();
+            try {
                 executeWithTimeout(job, context, context.timeout());
-                auditLogger.jobStateChanged(context.id(), JobState.SUCCESS, "completed");
-                return JobState.SUCCESS;
-            } catch (LockRegistry.DeadlockException deadlockException) {
-                lockRegistry.clearJob(context.id());
-                auditLogger.jobStateChanged(context.id(), JobState.FAILED, deadlockException.getMessage());
-                return JobState.FAILED;
-            } catch (LockRegistry.LockTimeoutException timeoutException) {
-                lockRegistry.clearJob(context.id());
-                auditLogger.jobStateChanged(context.id(), JobState.TIMEOUT, timeoutException.getMessage());
-                return JobState.TIMEOUT;
-            } catch (TimeoutException timeoutException) {
-                lockRegistry.clearJob(context.id());
-                auditLogger.jobStateChanged(context.id(), JobState.TIMEOUT, timeoutException.getMessage());
-                return JobState.TIMEOUT;
-            } catch (Exception exception) {
-                if (!retryPolicy.shouldRetry(attempt, exception)) {
-                    auditLogger.jobStateChanged(context.id(), JobState.FAILED, exception.getMessage());
-                    return JobState.FAILED;
-                }
-                long delay = retryPolicy.backoffDelayMillis(attempt, exception);
-                auditLogger.retryScheduled(context.id(), attempt, delay, exception);
-                try {
-                    Thread.sleep(delay);
-                } catch (InterruptedException interruptedException) {
-                    Thread.currentThread().interrupt();
-                    auditLogger.jobStateChanged(context.id(), JobState.CANCELLED, "interrupted during retry");
-                    return JobState.CANCELLED;
-                }
+            } finally {
+                metrics.recordExecutionTime(System.nanoTime() - started);
+            }
+            return complete(context, JobState.SUCCESS, attempt, "completed");
+        } catch (LockRegistry.DeadlockException deadlockException) {
+            lockRegistry.clearJob(context.id());
+            return complete(context, JobState.FAILED, attempt, deadlockException.getMessage());
+        } catch (LockRegistry.LockTimeoutException timeoutException) {
+            lockRegistry.clearJob(context.id());
+            return complete(context, JobState.TIMEOUT, attempt, timeoutException.getMessage());
+        } catch (TimeoutException timeoutException) {
+            lockRegistry.clearJob(context.id());
+            metrics.recordExecutionTimeout();
+            return complete(context, JobState.TIMEOUT, attempt, timeoutException.getMessage());
+        } catch (Exception exception) {
+            RetryPolicy retryPolicy = context.retryPolicy();
+            if (!retryPolicy.shouldRetry(attempt, exception)) {
+                return complete(context, JobState.FAILED, attempt, exception.getMessage());
             }
+            long delay = retryPolicy.backoffDelayMillis(attempt, exception);
+            metrics.recordRetry();
+            auditLogger.retryScheduled(context.id(), attempt, delay, exception);
+            return AttemptResult.retryAfter(delay);
         }
     }
 
+    private AttemptResult complete(JobContext context, JobState state, int attempt, String detail) {
+        auditLogger.jobStateChanged(context.id(), state, detail);
+        metrics.recordOutcome(state, attempt);
+        return AttemptResult.completed(state);
+    }
+
     private void executeWithTimeout(Job job, JobContext context, Duration timeout) throws Exception {
-        ExecutorService executor = Executors.newSingleThreadExecutor();
-        try {
-            Future<Void> future = executor.submit(() -> {
-                try (JobExecutionContext executionContext = executionContextFactory.create()) {
-                    Optional<Connection> connection = executionContext.find(ExecutionContextKeys.JDBC_CONNECTION, Connection.class);
-                    if (connection.isPresent()) {
-                        connection.get().setAutoCommit(false);
+        if (transactionGroup != null) {
+            transactionGroup.execute(job, context);
+            return;
+        }
+        attemptExecutor.execute(() -> {
+            try (JobExecutionContext executionContext = executionContextFactory.create(context)) {
+                Connection connection = executionContext.get(ExecutionContextKeys.CONNECTION);
+                if (connection != null) {
+                    connection.setAutoCommit(false);
+                }
+                try {
+                    job.prepare(context, executionContext);
+                    job.execute(context, executionContext);
+                    if (connection != null) {
+                        connection.commit();
                     }
-                    try {
-                        job.prepare(context, executionContext);
-                        job.execute(context, executionContext);
-                        if (connection.isPresent()) {
-                            connection.get().commit();
-                        }
-                    } catch (Exception exception) {
-                        job.rollback(context, executionContext, exception);
-                        if (connection.isPresent()) {
-                            connection.get().rollback();
-                        }
-                        throw exception;
+                } catch (Exception exception) {
+                    job.rollback(context, executionContext, exception);
+                    if (connection != null) {
+                        connection.rollback();
                     }
-                }
-                return null;
-            });
-            try {
-                future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
-            } catch (java.util.concurrent.TimeoutException timeoutException) {
-                future.cancel(true);
-                throw new TimeoutException("Job timed out after " + timeout.toMillis() + "ms");
-            } catch (ExecutionException executionException) {
-                Throwable cause = executionException.getCause();
-                if (cause instanceof Exception exception) {
                     throw exception;
                 }
-                throw executionException;
-            }
-        } finally {
-            executor.shutdownNow();
-            try {
-                executor.awaitTermination(5, TimeUnit.SECONDS);
-            } catch (InterruptedException interruptedException) {
-                Thread.currentThread().interrupt();
             }
-        }
+            return null;
+        }, timeout);
     }
 
     public static class TimeoutException extends Exception {
@@ -119,4 +152,42 @@ public class JobRunner {
             super(message);
         }
     }
+
+    public static final class Builder {
+        private final LockRegistry lockRegistry;
+        private final AuditLogger auditLogger;
+        private final ExecutionContextFactory executionContextFactory;
+        private AttemptExecutor attemptExecutor = new DeadlineAttemptExecutor();
+        private int maxGroupSize = 1;
+
+        private Builder(LockRegistry lockRegistry, AuditLogger auditLogger, ExecutionContextFactory executionContextFactory) {
+            this.lockRegistry = Objects.requireNonNull(lockRegistry, "lockRegistry");
+            this.auditLogger = Objects.requireNonNull(auditLogger, "auditLogger");
+            this.executionContextFactory = Objects.requireNonNull(executionContextFactory, "executionContextFactory");
+        }
+
+        public Builder attemptExecutor(AttemptExecutor attemptExecutor) {
+            this.attemptExecutor = Objects.requireNonNull(attemptExecutor, "attemptExecutor");
+            return this;
+        }
+
+        /**
+         * Runs up to {@code maxGroupSize} concurrent attempts in one transaction with a single commit, instead
+         * of one transaction per attempt. Attempts in a group never share a locked resource. When one body
+         * fails, only that job is rolled back and failed, and the rest of the group is re-run in a new
+         * transaction, so bodies must be idempotent. Bodies in a group run one after another, which suits
+         * many short jobs whose cost is mostly the commit. {@code 1}, the default, turns grouping off.
+         */
+        public Builder groupCommit(int maxGroupSize) {
+            if (maxGroupSize <= 0) {
+                throw new IllegalArgumentException("maxGroupSize must be positive");
+            }
+            this.maxGroupSize = maxGroupSize;
+            return this;
+        }
+
+        public JobRunner build() {
+            return new JobRunner(this);
+        }
+    }
 }
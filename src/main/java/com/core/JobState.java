@@ -6,5 +6,12 @@ public enum JobState {
     SUCCESS,
     FAILED,
     TIMEOUT,
-    CANCELLED
+    CANCELLED;
+
+    /**
+     * Whether the job has finished and will not run again.
+     */
+    public boolean isTerminal() {
+        return this != PENDING && this != RUNNING;
+    }
 }
@@ -0,0 +1,97 @@
+package com.core;
+
+/**
+ * Compact archive of terminal job states evicted from {@link JobStateTable}. Each job id is reduced to a
+ * 64-bit fingerprint kept in an open-addressing table next to a one-byte state, so an archived job costs
+ * about 9 bytes plus the table's free slots instead of a map entry and its id string. Two ids colliding
+ * on all 64 bits would share an entry; at realistic job counts that chance is negligible. Entries are
+ * never removed, so the archive is opt-in.
+ */
+final class JobStateArchive {
+    private static final JobState[] STATES = JobState.values();
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private long[] fingerprints = new long[INITIAL_CAPACITY];
+    private byte[] states = new byte[INITIAL_CAPACITY];
+    private int size;
+
+    synchronized void archive(String jobId, JobState state) {
+        if ((size + 1) * 4L > fingerprints.length * 3L) {
+            resize();
+        }
+        if (insert(fingerprints, states, fingerprint(jobId), (byte) state.ordinal())) {
+            size++;
+        }
+    }
+
+    /**
+     * The archived state, or {@code null} when the id was never archived.
+     */
+    synchronized JobState lookup(String jobId) {
+        long fingerprint = fingerprint(jobId);
+        int mask = fingerprints.length - 1;
+        for (int slot = (int) fingerprint & mask; fingerprints[slot] != 0; slot = slot + 1 & mask) {
+            if (fingerprints[slot] == fingerprint) {
+                return STATES[states[slot]];
+            }
+        }
+        return null;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Bytes held by the archive's arrays.
+     */
+    synchronized long memoryBytes() {
+        return (long) fingerprints.length * (Long.BYTES + Byte.BYTES);
+    }
+
+    private void resize() {
+        long[] grownFingerprints = new long[fingerprints.length * 2];
+        byte[] grownStates = new byte[states.length * 2];
+        for (int i = 0; i < fingerprints.length; i++) {
+            if (fingerprints[i] != 0) {
+                insert(grownFingerprints, grownStates, fingerprints[i], states[i]);
+            }
+        }
+        fingerprints = grownFingerprints;
+        states = grownStates;
+    }
+
+    /**
+     * Returns {@code true} when a new slot was taken, {@code false} when an existing entry was updated.
+     */
+    private static boolean insert(long[] fingerprints, byte[] states, long fingerprint, byte state) {
+        int mask = fingerprints.length - 1;
+        int slot = (int) fingerprint & mask;
+        while (fingerprints[slot] != 0) {
+            if (fingerprints[slot] == fingerprint) {
+                states[slot] = state;
+                return false;
+            }
+            slot = slot + 1 & mask;
+        }
+        fingerprints[slot] = fingerprint;
+        states[slot] = state;
+        return true;
+    }
+
+    /**
+     * 64-bit FNV-1a over the id's chars, mixed so the low bits used for the slot index are well spread.
+     * Zero marks an empty slot and is never returned.
+     */
+    private static long fingerprint(String jobId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < jobId.length(); i++) {
+            hash ^= jobId.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash == 0 ? 1 : hash;
+    }
+}
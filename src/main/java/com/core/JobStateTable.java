@@ -0,0 +1,147 @@
+package com.core;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Job states tracked by {@link JobEngine}. Pending and running jobs stay until they finish. When a TTL or
+ * a cap is set, terminal states are queued in completion order and evicted once they are older than the
+ * TTL or more than {@code maxTerminal} of them are held; eviction runs inline on updates and lookups, so no
+ * sweeper thread is needed. Evicted states go to the optional {@link JobStateArchive}.
+ */
+final class JobStateTable {
+    private static final Entry[] NON_TERMINAL = new Entry[JobState.values().length];
+
+    static {
+        for (JobState state : JobState.values()) {
+            NON_TERMINAL[state.ordinal()] = new Entry(state);
+        }
+    }
+
+    private final Map<String, Entry> states = new ConcurrentHashMap<>();
+    private final Queue<Expiry> terminal = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger terminalCount = new AtomicInteger();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final boolean evicts;
+    private final long ttlNanos;
+    private final int maxTerminal;
+    private final JobStateArchive archive;
+
+    /**
+     * @param ttl         how long terminal states are kept, or {@code null} to keep them regardless of age
+     * @param maxTerminal most terminal states kept; {@link Integer#MAX_VALUE} for no cap
+     */
+    JobStateTable(Duration ttl, int maxTerminal, boolean archiveEvicted) {
+        this.evicts = ttl != null || maxTerminal != Integer.MAX_VALUE;
+        this.ttlNanos = ttl == null ? Long.MAX_VALUE : ttl.toNanos();
+        this.maxTerminal = maxTerminal;
+        this.archive = evicts && archiveEvicted ? new JobStateArchive() : null;
+    }
+
+    void put(String jobId, JobState state) {
+        long now = System.nanoTime();
+        record(jobId, state, now);
+        evict(now);
+    }
+
+    /**
+     * Records the same state for many jobs, checking for evictions once rather than per job.
+     */
+    void putAll(List<String> jobIds, JobState state) {
+        long now = System.nanoTime();
+        for (String jobId : jobIds) {
+            record(jobId, state, now);
+        }
+        evict(now);
+    }
+
+    JobStatus lookup(String jobId) {
+        evict(System.nanoTime());
+        Entry entry = states.get(jobId);
+        if (entry != null) {
+            return JobStatus.tracked(entry.state);
+        }
+        JobState archived = archive == null ? null : archive.lookup(jobId);
+        return archived == null ? JobStatus.unknown() : JobStatus.evicted(archived);
+    }
+
+    int trackedCount() {
+        return states.size();
+    }
+
+    int archivedCount() {
+        return archive == null ? 0 : archive.size();
+    }
+
+    long archiveMemoryBytes() {
+        return archive == null ? 0 : archive.memoryBytes();
+    }
+
+    private void record(String jobId, JobState state, long now) {
+        if (!evicts || !state.isTerminal()) {
+            states.put(jobId, NON_TERMINAL[state.ordinal()]);
+            return;
+        }
+        Entry entry = new Entry(state);
+        states.put(jobId, entry);
+        terminal.add(new Expiry(jobId, entry, ttlNanos == Long.MAX_VALUE ? Long.MAX_VALUE : now + ttlNanos));
+        terminalCount.incrementAndGet();
+    }
+
+    /**
+     * Only one thread evicts at a time; others skip, since the running evictor will catch up. An expiry
+     * only removes the entry it was queued for, not a later run of the same id.
+     */
+    private void evict(long now) {
+        if (!evicts || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Expiry oldest;
+            while ((oldest = terminal.peek()) != null
+                    && (oldest.expiresAtNanos != Long.MAX_VALUE && oldest.expiresAtNanos - now <= 0
+                    || terminalCount.get() > maxTerminal)) {
+                terminal.poll();
+                terminalCount.decrementAndGet();
+                Expiry expired = oldest;
+                states.computeIfPresent(expired.jobId, (jobId, entry) -> {
+                    if (entry != expired.entry) {
+                        return entry;
+                    }
+                    if (archive != null) {
+                        archive.archive(jobId, entry.state);
+                    }
+                    return null;
+                });
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private static final class Entry {
+        private final JobState state;
+
+        private Entry(JobState state) {
+            this.state = state;
+        }
+    }
+
+    private static final class Expiry {
+        private final String jobId;
+        private final Entry entry;
+        private final long expiresAtNanos;
+
+        private Expiry(String jobId, Entry entry, long expiresAtNanos) {
+            this.jobId = jobId;
+            this.entry = entry;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+}
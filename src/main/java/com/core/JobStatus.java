@@ -0,0 +1,65 @@
+package com.core;
+
+import java.util.Objects;
+
+/**
+ * Result of {@link JobEngine#statusOf(String)}: the job's state and where it came from.
+ */
+public final class JobStatus {
+    private static final JobStatus UNKNOWN = new JobStatus(Source.UNKNOWN, null);
+
+    private final Source source;
+    private final JobState state;
+
+    private JobStatus(Source source, JobState state) {
+        this.source = source;
+        this.state = state;
+    }
+
+    static JobStatus tracked(JobState state) {
+        return new JobStatus(Source.TRACKED, Objects.requireNonNull(state, "state"));
+    }
+
+    static JobStatus evicted(JobState state) {
+        return new JobStatus(Source.EVICTED, Objects.requireNonNull(state, "state"));
+    }
+
+    static JobStatus unknown() {
+        return UNKNOWN;
+    }
+
+    public Source source() {
+        return source;
+    }
+
+    /**
+     * The job's state, or {@code null} when the id is {@link Source#UNKNOWN}.
+     */
+    public JobState state() {
+        return state;
+    }
+
+    public boolean isKnown() {
+        return source != Source.UNKNOWN;
+    }
+
+    @Override
+    public String toString() {
+        return "JobStatus{" + "source=" + source + ", state=" + state + '}';
+    }
+
+    public enum Source {
+        /**
+         * The job is still held in the engine's state table.
+         */
+        TRACKED,
+        /**
+         * The job finished and its state was evicted to the compact archive.
+         */
+        EVICTED,
+        /**
+         * The engine never saw the id, or evicted it with archiving disabled.
+         */
+        UNKNOWN
+    }
+}
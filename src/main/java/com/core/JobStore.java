@@ -0,0 +1,42 @@
+package com.core;
+
+import com.domain.JobContext;
+
+import java.util.List;
+
+/**
+ * Durable record of submitted jobs and their state transitions, so unfinished jobs survive a restart.
+ * Every method returns once the change is durable. Implementations group-commit concurrent calls, so
+ * callers that arrive while a flush is running share the next one instead of paying a flush each.
+ * A submission's {@link JobPriority} and deadline are not stored, so a recovered job runs with
+ * {@link JobPriority#NORMAL} priority and no deadline.
+ */
+public interface JobStore extends AutoCloseable {
+    void submitted(String jobType, JobContext context);
+
+    /**
+     * Records several submissions, which a group-committing store makes durable in a single flush.
+     */
+    default void submittedAll(List<JobSubmission> submissions) {
+        for (JobSubmission submission : submissions) {
+            submitted(submission.jobType(), submission.context());
+        }
+    }
+
+    void transitioned(String jobId, JobState state, int attempt);
+
+    /**
+     * Jobs whose last recorded state is {@link JobState#PENDING} or {@link JobState#RUNNING}, in
+     * submission order.
+     */
+    List<StoredJob> unfinished();
+
+    @Override
+    void close();
+
+    class StoreException extends RuntimeException {
+        public StoreException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.core;
+
+import com.domain.Job;
+import com.domain.JobContext;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * One job for {@link JobEngine#submitAll(java.util.Collection)}, with the same options as
+ * {@link JobEngine#submit(Job, JobContext, JobPriority, Instant)}.
+ */
+public final class JobSubmission {
+    private final Job job;
+    private final JobContext context;
+    private final JobPriority priority;
+    private final Instant deadline;
+
+    public JobSubmission(Job job, JobContext context) {
+        this(job, context, JobPriority.NORMAL, null);
+    }
+
+    /**
+     * @param deadline latest time an attempt may start, or {@code null} for none
+     */
+    public JobSubmission(Job job, JobContext context, JobPriority priority, Instant deadline) {
+        this.job = Objects.requireNonNull(job, "job");
+        this.context = Objects.requireNonNull(context, "context");
+        this.priority = Objects.requireNonNull(priority, "priority");
+        this.deadline = deadline;
+    }
+
+    public Job job() {
+        return job;
+    }
+
+    public JobContext context() {
+        return context;
+    }
+
+    public JobPriority priority() {
+        return priority;
+    }
+
+    public Instant deadline() {
+        return deadline;
+    }
+
+    /**
+     * The type recorded in the {@link JobStore}: the job's class name.
+     */
+    public String jobType() {
+        return job.getClass().getName();
+    }
+}
@@ -0,0 +1,148 @@
+package com.core;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of nanosecond latencies with log-linear buckets in the style of HdrHistogram:
+ * every power of two is split into {@value #SUB_BUCKETS} buckets, so a recorded value is reported within
+ * about 3% of its true value from 1ns up to {@code Long.MAX_VALUE}. Recording is one atomic increment.
+ * <p>
+ * Like {@link java.util.concurrent.atomic.LongAdder}, the counts start in one array and are striped only
+ * once two threads collide on a bucket: from then on each thread increments the copy its id hashes to, up
+ * to {@link #MAX_STRIPES} copies of about 15 KB each, and a snapshot adds them up. Uncontended histograms,
+ * which are most of the per-resource ones, stay at a single array.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+    static final int MAX_STRIPES = 8;
+    private static final int STRIPES = Math.min(MAX_STRIPES,
+            Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)));
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private volatile AtomicLongArray[] stripes;
+
+    public void record(long nanos) {
+        int index = indexOf(Math.max(0, nanos));
+        AtomicLongArray[] striped = stripes;
+        if (striped == null) {
+            long current = counts.get(index);
+            if (counts.compareAndSet(index, current, current + 1)) {
+                return;
+            }
+            striped = stripe();
+        }
+        striped[stripeOf(Thread.currentThread()) & striped.length - 1].incrementAndGet(index);
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long total = 0;
+        AtomicLongArray[] striped = stripes;
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = counts.get(i);
+            if (striped != null) {
+                for (AtomicLongArray stripe : striped) {
+                    count += stripe.get(i);
+                }
+            }
+            copy[i] = count;
+            total += count;
+        }
+        return new Snapshot(copy, total);
+    }
+
+    private synchronized AtomicLongArray[] stripe() {
+        AtomicLongArray[] striped = stripes;
+        if (striped == null) {
+            striped = new AtomicLongArray[STRIPES];
+            for (int i = 0; i < striped.length; i++) {
+                striped[i] = new AtomicLongArray(BUCKETS);
+            }
+            stripes = striped;
+        }
+        return striped;
+    }
+
+    private static int stripeOf(Thread thread) {
+        long hash = thread.getId() * 0x9e3779b97f4a7c15L;
+        return (int) (hash >>> 32);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift & SUB_BUCKETS - 1);
+    }
+
+    /**
+     * Largest value that falls into bucket {@code index}.
+     */
+    static long highestValueAt(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * Point-in-time copy of the counts.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+
+        private Snapshot(long[] counts, long count) {
+            this.counts = counts;
+            this.count = count;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        /**
+         * The value below which {@code percentile} percent of the recorded values fall, rounded up to the
+         * bucket boundary; {@code 0} when nothing was recorded.
+         */
+        public long valueAtPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return highestValueAt(i);
+                }
+            }
+            return highestValueAt(counts.length - 1);
+        }
+
+        public long max() {
+            return valueAtPercentile(100);
+        }
+
+        /**
+         * Total of the recorded values, estimated from the middle of each bucket and so within the bucket
+         * resolution of the true total.
+         */
+        public double sum() {
+            double sum = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) {
+                    long lowest = i == 0 ? 0 : highestValueAt(i - 1) + 1;
+                    sum += counts[i] * ((lowest + (double) highestValueAt(i)) / 2);
+                }
+            }
+            return sum;
+        }
+    }
+}
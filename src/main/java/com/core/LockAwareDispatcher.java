@@ -0,0 +1,257 @@
+package com.core;
+
+import com.domain.LockMode;
+import com.domain.Resource;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Hands attempts to the worker executor only when their locks are likely to be free, so workers do not sit
+ * blocked in {@link LockRegistry#acquireLocks} while runnable jobs wait behind them.
+ * <p>
+ * A dispatched attempt claims its resources, and the intention modes on their ancestors, until
+ * {@link #finished(Map)}; the claims keep a burst on a hot resource from all looking free before any
+ * worker has taken the lock. An attempt that cannot claim a resource parks on it in FIFO order and is
+ * woken by a finished attempt or by a release the {@link LockGraphEngine} reports. Each resource is
+ * claimed, parked on and woken inside one {@code compute} on its slot, so a wake-up cannot slip in
+ * between a failed claim and the park. Time spent parked does not count towards the job's lock timeout.
+ */
+final class LockAwareDispatcher<T> implements AutoCloseable {
+    private static final LockMode[] MODES = LockMode.values();
+
+    private final LockGraphEngine lockGraphEngine;
+    private final Predicate<T> executor;
+    private final Executor wakeExecutor;
+    private final Map<Resource, Slot<T>> slots = new ConcurrentHashMap<>();
+    private final LongAdder parkedCount = new LongAdder();
+    private final Queue<Resource> released = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean wakeScheduled = new AtomicBoolean();
+    private final Consumer<Resource> onRelease = this::released;
+
+    /**
+     * @param executor     hands an attempt to a worker and returns {@code false} when it was rejected; must
+     *                     not throw
+     * @param wakeExecutor runs the wake-ups for releases reported by the graph
+     */
+    LockAwareDispatcher(LockGraphEngine lockGraphEngine, Predicate<T> executor, Executor wakeExecutor) {
+        this.lockGraphEngine = lockGraphEngine;
+        this.executor = executor;
+        this.wakeExecutor = wakeExecutor;
+        lockGraphEngine.addReleaseListener(onRelease);
+    }
+
+    /**
+     * Runs {@code attempt} on the executor now, or parks it until the resources in {@code lockModes} can be
+     * claimed. The caller must report the end of the attempt through {@link #finished(Map)}.
+     */
+    void dispatch(T attempt, Map<Resource, LockMode> lockModes) {
+        wake(tryDispatch(new Parked<>(attempt, claimsOf(lockModes)), true));
+    }
+
+    /**
+     * Drops the claims of a finished attempt and wakes the attempts parked on its resources.
+     */
+    void finished(Map<Resource, LockMode> lockModes) {
+        List<Claim> claims = claimsOf(lockModes);
+        wake(unclaim(claims, claims.size()));
+    }
+
+    /**
+     * Number of attempts currently parked on a busy resource.
+     */
+    long parkedCount() {
+        return parkedCount.sum();
+    }
+
+    @Override
+    public void close() {
+        lockGraphEngine.removeReleaseListener(onRelease);
+    }
+
+    /**
+     * Returns the resources whose claims were given back, which the caller must wake.
+     */
+    private List<Resource> tryDispatch(Parked<T> attempt, boolean fresh) {
+        List<Claim> claims = attempt.claims;
+        for (int i = 0; i < claims.size(); i++) {
+            if (!claimOrPark(claims.get(i), attempt, fresh)) {
+                return unclaim(claims, i);
+            }
+        }
+        if (executor.test(attempt.attempt)) {
+            return List.of();
+        }
+        return unclaim(claims, claims.size());
+    }
+
+    private boolean claimOrPark(Claim claim, Parked<T> attempt, boolean fresh) {
+        boolean[] claimed = new boolean[1];
+        slots.compute(claim.resource, (resource, slot) -> {
+            Slot<T> current = slot == null ? new Slot<>() : slot;
+            if ((!fresh || current.parked.isEmpty()) && current.admits(claim.mode)
+                    && lockGraphEngine.isAvailable(resource, claim.mode)) {
+                current.claimed[claim.mode.ordinal()]++;
+                claimed[0] = true;
+            } else {
+                attempt.blockedOn = claim.mode;
+                if (fresh) {
+                    current.parked.addLast(attempt);
+                } else {
+                    current.parked.addFirst(attempt);
+                }
+                parkedCount.increment();
+            }
+            return current;
+        });
+        return claimed[0];
+    }
+
+    private List<Resource> unclaim(List<Claim> claims, int count) {
+        List<Resource> resources = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Claim claim = claims.get(i);
+            slots.computeIfPresent(claim.resource, (resource, slot) -> {
+                slot.claimed[claim.mode.ordinal()]--;
+                return slot.isIdle() ? null : slot;
+            });
+            resources.add(claim.resource);
+        }
+        return resources;
+    }
+
+    /**
+     * Iterative rather than recursive, so a chain of rejections during shutdown cannot overflow the stack.
+     */
+    private void wake(List<Resource> resources) {
+        Deque<Resource> pending = new ArrayDeque<>(resources);
+        Resource resource;
+        while ((resource = pending.pollFirst()) != null) {
+            Parked<T> next;
+            while ((next = unparkHead(resource)) != null) {
+                pending.addAll(tryDispatch(next, false));
+            }
+        }
+    }
+
+    /**
+     * Called with the resource's lock held, so the wake-up is deferred to {@code wakeExecutor}.
+     */
+    private void released(Resource resource) {
+        released.add(resource);
+        if (wakeScheduled.compareAndSet(false, true)) {
+            try {
+                wakeExecutor.execute(this::wakeReleased);
+            } catch (RejectedExecutionException rejectedExecutionException) {
+                wakeScheduled.set(false);
+            }
+        }
+    }
+
+    private void wakeReleased() {
+        wakeScheduled.set(false);
+        Set<Resource> resources = new LinkedHashSet<>();
+        Resource resource;
+        while ((resource = released.poll()) != null) {
+            resources.add(resource);
+        }
+        wake(new ArrayList<>(resources));
+    }
+
+    private Parked<T> unparkHead(Resource resource) {
+        List<Parked<T>> head = new ArrayList<>(1);
+        slots.computeIfPresent(resource, (key, slot) -> {
+            Parked<T> first = slot.parked.peekFirst();
+            if (first != null && slot.admits(first.blockedOn) && lockGraphEngine.isAvailable(key, first.blockedOn)) {
+                head.add(slot.parked.pollFirst());
+                parkedCount.decrement();
+            }
+            return slot.isIdle() ? null : slot;
+        });
+        return head.isEmpty() ? null : head.get(0);
+    }
+
+    /**
+     * One claim per resource, ancestors included, in the natural order {@link LockRegistry} locks them in.
+     */
+    private static List<Claim> claimsOf(Map<Resource, LockMode> lockModes) {
+        Map<Resource, LockMode> merged = new TreeMap<>();
+        for (Map.Entry<Resource, LockMode> entry : lockModes.entrySet()) {
+            LockMode mode = entry.getValue();
+            merged.merge(entry.getKey(), mode, LockMode::combine);
+            for (Resource parent = entry.getKey().parent(); parent != null; parent = parent.parent()) {
+                merged.merge(parent, mode.intention(), LockMode::combine);
+            }
+        }
+        List<Claim> claims = new ArrayList<>(merged.size());
+        for (Map.Entry<Resource, LockMode> entry : merged.entrySet()) {
+            claims.add(new Claim(entry.getKey(), entry.getValue()));
+        }
+        return claims;
+    }
+
+    /**
+     * Only touched inside {@code compute} on its entry.
+     */
+    private static final class Slot<T> {
+        private final int[] claimed = new int[MODES.length];
+        private final Deque<Parked<T>> parked = new ArrayDeque<>();
+
+        private boolean admits(LockMode mode) {
+            for (LockMode held : MODES) {
+                if (claimed[held.ordinal()] > 0 && !held.isCompatibleWith(mode)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean isIdle() {
+            if (!parked.isEmpty()) {
+                return false;
+            }
+            for (int count : claimed) {
+                if (count > 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class Parked<T> {
+        private final T attempt;
+        private final List<Claim> claims;
+        private LockMode blockedOn;
+
+        private Parked(T attempt, List<Claim> claims) {
+            this.attempt = attempt;
+            this.claims = claims;
+        }
+    }
+
+    private static final class Claim {
+        private final Resource resource;
+        private final LockMode mode;
+
+        private Claim(Resource resource, LockMode mode) {
+            this.resource = resource;
+            this.mode = mode;
+        }
+    }
+}
@@ -1,161 +1,458 @@
 package com.core;
 
+import com.domain.LockMode;
 import com.domain.Resource;
 
-import java.util.HashMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.StringJoiner;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
+/**
+ * Tracks resource holders and waiters without a global lock.
+ * <p>
+ * Resources and jobs are interned into {@link ResourceNode}s and {@link JobNode}s that point at each
+ * other directly, so nothing on the lock path hashes strings. {@link LockRegistry} pins the nodes it uses;
+ * a node is dropped once it is idle and unpinned.
+ * <p>
+ * Job {@code a} waits for job {@code b} on a resource when {@code b} holds it in a mode incompatible with
+ * what {@code a} asked for, or is queued ahead of {@code a} in any mode, since {@link ResourceLock} grants
+ * strictly in queue order. Ancestors of hierarchical resources are ordinary nodes held in intention modes.
+ * <p>
+ * Each node is guarded by its own monitor, resource before job when both are needed. A change replaces the
+ * node's immutable {@link Holders} or queue, or the job's wait set, so a cycle whose edges all read the
+ * same twice existed at one instant. When churn keeps failing that check, the cycle is checked a few more
+ * times with the monitors of every node on it held.
+ */
 public class LockGraphEngine {
-    private final Map<Resource, String> owners = new ConcurrentHashMap<>();
-    private final Map<String, CopyOnWriteArraySet<Resource>> waiting = new ConcurrentHashMap<>();
-    private final ReentrantLock graphLock = new ReentrantLock();
+    private static final int OPTIMISTIC_CYCLE_VALIDATIONS = 64;
+    private static final int LOCKED_CYCLE_VALIDATIONS = 4;
+
+    private final int optimisticValidations;
+    private final Object lockedValidation = new Object();
+    private final Map<Resource, ResourceNode> resources = new ConcurrentHashMap<>();
+    private final Map<String, JobNode> jobs = new ConcurrentHashMap<>();
+    private final List<Consumer<Resource>> releaseListeners = new CopyOnWriteArrayList<>();
+
+    public LockGraphEngine() {
+        this(OPTIMISTIC_CYCLE_VALIDATIONS);
+    }
+
+    /**
+     * @param optimisticValidations cycles checked by a second read before a cycle is checked under its
+     *                              nodes' monitors
+     */
+    LockGraphEngine(int optimisticValidations) {
+        this.optimisticValidations = optimisticValidations;
+    }
 
     public void markWaiting(String jobId, Resource resource) {
-        graphLock.lock();
+        markWaiting(jobId, resource, LockMode.EXCLUSIVE);
+    }
+
+    public void markWaiting(String jobId, Resource resource, LockMode mode) {
+        JobNode job = pinJob(jobId);
+        ResourceNode node = pinResource(resource);
         try {
-            waiting.computeIfAbsent(jobId, ignored -> new CopyOnWriteArraySet<>()).add(resource);
+            markWaiting(job, node, mode);
         } finally {
-            graphLock.unlock();
+            unpin(node);
+            unpin(job);
         }
     }
 
+    public void cancelWaiting(String jobId, Resource resource) {
+        JobNode job = jobs.get(jobId);
+        ResourceNode node = resources.get(resource);
+        if (job != null && node != null) {
+            cancelWaiting(job, node);
+        }
+    }
+
+    /**
+     * Records {@code jobId} as the exclusive holder of {@code resource}, replacing any other holder.
+     */
     public void markAcquired(String jobId, Resource resource) {
-        graphLock.lock();
+        markAcquired(jobId, resource, LockMode.EXCLUSIVE);
+    }
+
+    /**
+     * Records {@code jobId} as a holder in {@code mode}; holders in incompatible modes are replaced.
+     */
+    public void markAcquired(String jobId, Resource resource, LockMode mode) {
+        JobNode job = pinJob(jobId);
+        ResourceNode node = pinResource(resource);
         try {
-            CopyOnWriteArraySet<Resource> set = waiting.computeIfAbsent(jobId, ignored -> new CopyOnWriteArraySet<>());
-            set.remove(resource);
-            if (set.isEmpty()) {
-                waiting.remove(jobId);
-            }
-            owners.put(resource, jobId);
+            markAcquired(job, node, mode);
         } finally {
-            graphLock.unlock();
+            unpin(node);
+            unpin(job);
         }
     }
 
     public void markReleased(String jobId, Resource resource) {
-        graphLock.lock();
-        try {
-            String owner = owners.get(resource);
-            if (jobId.equals(owner)) {
-                owners.remove(resource);
-            }
-        } finally {
-            graphLock.unlock();
+        JobNode job = jobs.get(jobId);
+        ResourceNode node = resources.get(resource);
+        if (job != null && node != null) {
+            markReleased(job, node);
         }
     }
 
+    /**
+     * The exclusive holder of {@code resource}, or one of its shared holders, or {@code null}.
+     */
     public String ownerOf(Resource resource) {
-        graphLock.lock();
-        try {
-            return owners.get(resource);
-        } finally {
-            graphLock.unlock();
+        ResourceNode node = resources.get(resource);
+        if (node == null) {
+            return null;
         }
+        Holders holders = node.holders;
+        return holders.jobs.length == 0 ? null : holders.jobs[0].id;
     }
 
-    public boolean hasDeadlock(String jobId) {
-        graphLock.lock();
-        try {
-            Map<String, Set<String>> waitFor = new HashMap<>();
-            for (Map.Entry<String, CopyOnWriteArraySet<Resource>> entry : waiting.entrySet()) {
-                String waitingJob = entry.getKey();
-                for (Resource resource : entry.getValue()) {
-                    String owner = owners.get(resource);
-                    if (owner != null && !owner.equals(waitingJob)) {
-                        waitFor.computeIfAbsent(waitingJob, ignored -> new HashSet<>()).add(owner);
-                    }
-                }
+    public Set<String> holdersOf(Resource resource) {
+        ResourceNode node = resources.get(resource);
+        if (node == null) {
+            return Set.of();
+        }
+        Set<String> result = new HashSet<>();
+        for (JobNode holder : node.holders.jobs) {
+            result.add(holder.id);
+        }
+        return Set.copyOf(result);
+    }
+
+    /**
+     * Whether a request for {@code resource} in {@code mode} would be granted right now: every holder's
+     * mode is compatible with it and nobody is queued. Reads without locking, so the answer can be stale
+     * by the time the caller acts on it.
+     */
+    public boolean isAvailable(Resource resource, LockMode mode) {
+        ResourceNode node = resources.get(resource);
+        if (node == null) {
+            return true;
+        }
+        if (node.queue.length != 0) {
+            return false;
+        }
+        for (LockMode held : node.holders.modes) {
+            if (!held.isCompatibleWith(mode)) {
+                return false;
             }
-            return detectCycle(jobId, waitFor, new HashSet<>(), new HashSet<>());
-        } finally {
-            graphLock.unlock();
         }
+        return true;
+    }
+
+    /**
+     * Calls {@code listener} with the resource every time a job gives up its hold on it. Listeners run on
+     * the releasing thread while the resource's lock is still held, so they must be short and must not
+     * acquire locks themselves.
+     */
+    public void addReleaseListener(Consumer<Resource> listener) {
+        releaseListeners.add(Objects.requireNonNull(listener, "listener"));
+    }
+
+    public void removeReleaseListener(Consumer<Resource> listener) {
+        releaseListeners.remove(listener);
+    }
+
+    /**
+     * Returns {@code true} when {@code jobId} is part of a wait-for cycle. Called right after a job starts
+     * waiting, this only has to follow the job's own new edges, so the cost is bounded by the part of the
+     * graph reachable from it rather than by the whole graph.
+     */
+    public boolean hasDeadlock(String jobId) {
+        JobNode job = jobs.get(jobId);
+        return job != null && hasDeadlock(job);
     }
 
     public Set<String> waitersOf(Resource resource) {
-        graphLock.lock();
-        try {
-            Set<String> result = new HashSet<>();
-            for (Map.Entry<String, CopyOnWriteArraySet<Resource>> entry : waiting.entrySet()) {
-                if (entry.getValue().contains(resource)) {
-                    result.add(entry.getKey());
-                }
-            }
-            return Set.copyOf(result);
-        } finally {
-            graphLock.unlock();
+        ResourceNode node = resources.get(resource);
+        if (node == null) {
+            return Set.of();
         }
+        Set<String> result = new HashSet<>();
+        for (Waiting waiting : node.queue) {
+            result.add(waiting.job.id);
+        }
+        return Set.copyOf(result);
     }
 
     public Set<Resource> waitingFor(String jobId) {
-        graphLock.lock();
-        try {
-            CopyOnWriteArraySet<Resource> resources = waiting.get(jobId);
-            if (resources == null) {
-                return Set.of();
-            }
-            return Set.copyOf(resources);
-        } finally {
-            graphLock.unlock();
+        JobNode job = jobs.get(jobId);
+        if (job == null) {
+            return Set.of();
+        }
+        Set<Resource> result = new HashSet<>();
+        for (ResourceNode node : job.waiting) {
+            result.add(node.resource);
         }
+        return Set.copyOf(result);
     }
 
     public Set<Resource> heldBy(String jobId) {
-        graphLock.lock();
-        try {
-            Set<Resource> result = new HashSet<>();
-            for (Map.Entry<Resource, String> entry : owners.entrySet()) {
-                if (jobId.equals(entry.getValue())) {
-                    result.add(entry.getKey());
-                }
+        JobNode job = jobs.get(jobId);
+        if (job == null) {
+            return Set.of();
+        }
+        Set<Resource> result = new HashSet<>();
+        synchronized (job) {
+            for (ResourceNode node : job.held) {
+                result.add(node.resource);
             }
-            return Set.copyOf(result);
-        } finally {
-            graphLock.unlock();
         }
+        return Set.copyOf(result);
     }
 
     public void clear(String jobId) {
-        graphLock.lock();
-        try {
-            waiting.remove(jobId);
-            owners.entrySet().removeIf(entry -> jobId.equals(entry.getValue()));
-        } finally {
-            graphLock.unlock();
+        JobNode job = jobs.get(jobId);
+        if (job == null) {
+            return;
+        }
+        for (ResourceNode node : job.waiting) {
+            cancelWaiting(job, node);
+        }
+        List<ResourceNode> held;
+        synchronized (job) {
+            held = new ArrayList<>(job.held);
+        }
+        for (ResourceNode node : held) {
+            markReleased(job, node);
         }
     }
 
+    /**
+     * Exclusive holders are written as a single job id, shared holders as an array of job ids.
+     */
     public String snapshotJson() {
-        graphLock.lock();
-        try {
-            StringBuilder builder = new StringBuilder();
-            builder.append("{\"owners\":{");
-            StringJoiner ownerJoiner = new StringJoiner(",");
-            for (Map.Entry<Resource, String> entry : owners.entrySet()) {
-                ownerJoiner.add("\"" + escape(entry.getKey().toString()) + "\":\"" + escape(entry.getValue()) + "\"");
-            }
-            builder.append(ownerJoiner);
-            builder.append("},\"waiting\":{");
-            StringJoiner waitingJoiner = new StringJoiner(",");
-            for (Map.Entry<String, CopyOnWriteArraySet<Resource>> entry : waiting.entrySet()) {
-                StringJoiner resources = new StringJoiner(",", "[", "]");
-                for (Resource resource : entry.getValue()) {
-                    resources.add("\"" + escape(resource.toString()) + "\"");
+        StringBuilder builder = new StringBuilder();
+        builder.append("{\"owners\":{");
+        StringJoiner ownerJoiner = new StringJoiner(",");
+        for (Map.Entry<Resource, ResourceNode> entry : resources.entrySet()) {
+            Holders holders = entry.getValue().holders;
+            if (holders.jobs.length == 0) {
+                continue;
+            }
+            String key = "\"" + escape(entry.getKey().toString()) + "\":";
+            if (holders.modes[0] == LockMode.EXCLUSIVE) {
+                ownerJoiner.add(key + "\"" + escape(holders.jobs[0].id) + "\"");
+            } else {
+                StringJoiner shared = new StringJoiner(",", "[", "]");
+                for (JobNode holder : holders.jobs) {
+                    shared.add("\"" + escape(holder.id) + "\"");
                 }
-                waitingJoiner.add("\"" + escape(entry.getKey()) + "\":" + resources);
+                ownerJoiner.add(key + shared);
             }
-            builder.append(waitingJoiner);
-            builder.append("}}");
-            return builder.toString();
-        } finally {
-            graphLock.unlock();
+        }
+        builder.append(ownerJoiner);
+        builder.append("},\"waiting\":{");
+        StringJoiner waitingJoiner = new StringJoiner(",");
+        for (Map.Entry<String, JobNode> entry : jobs.entrySet()) {
+            Set<ResourceNode> waitedOn = entry.getValue().waiting;
+            if (waitedOn.isEmpty()) {
+                continue;
+            }
+            StringJoiner resourceJoiner = new StringJoiner(",", "[", "]");
+            for (ResourceNode node : waitedOn) {
+                resourceJoiner.add("\"" + escape(node.resource.toString()) + "\"");
+            }
+            waitingJoiner.add("\"" + escape(entry.getKey()) + "\":" + resourceJoiner);
+        }
+        builder.append(waitingJoiner);
+        builder.append("}}");
+        return builder.toString();
+    }
+
+    JobNode pinJob(String jobId) {
+        while (true) {
+            JobNode job = jobs.get(jobId);
+            if (job == null) {
+                JobNode created = new JobNode(jobId);
+                job = jobs.putIfAbsent(jobId, created);
+                if (job == null) {
+                    job = created;
+                }
+            }
+            synchronized (job) {
+                if (!job.retired) {
+                    job.pins++;
+                    return job;
+                }
+            }
+        }
+    }
+
+    void unpin(JobNode job) {
+        synchronized (job) {
+            job.pins--;
+            retireIfIdle(job);
+        }
+    }
+
+    ResourceNode pinResource(Resource resource) {
+        while (true) {
+            ResourceNode node = resources.get(resource);
+            if (node == null) {
+                ResourceNode created = new ResourceNode(resource);
+                node = resources.putIfAbsent(resource, created);
+                if (node == null) {
+                    node = created;
+                }
+            }
+            synchronized (node) {
+                if (!node.retired) {
+                    node.pins++;
+                    return node;
+                }
+            }
+        }
+    }
+
+    void unpin(ResourceNode node) {
+        synchronized (node) {
+            node.pins--;
+            retireIfIdle(node);
+        }
+    }
+
+    /**
+     * Queues {@code job} on {@code node}. A job that already holds the resource is upgrading and goes to
+     * the front of the queue.
+     */
+    void markWaiting(JobNode job, ResourceNode node, LockMode mode) {
+        synchronized (node) {
+            if (indexOf(node.queue, job) >= 0) {
+                return;
+            }
+            Waiting[] current = node.queue;
+            Waiting[] queue = new Waiting[current.length + 1];
+            if (node.holders.indexOf(job) >= 0) {
+                queue[0] = new Waiting(job, mode);
+                System.arraycopy(current, 0, queue, 1, current.length);
+            } else {
+                System.arraycopy(current, 0, queue, 0, current.length);
+                queue[current.length] = new Waiting(job, mode);
+            }
+            node.queue = queue;
+        }
+        synchronized (job) {
+            job.waiting = with(job.waiting, node);
+        }
+    }
+
+    void cancelWaiting(JobNode job, ResourceNode node) {
+        synchronized (job) {
+            job.waiting = without(job.waiting, node);
+            retireIfIdle(job);
+        }
+        synchronized (node) {
+            node.queue = dequeue(node.queue, job);
+            retireIfIdle(node);
+        }
+    }
+
+    void markAcquired(JobNode job, ResourceNode node, LockMode mode) {
+        synchronized (node) {
+            node.queue = dequeue(node.queue, job);
+            Holders current = node.holders;
+            int index = current.indexOf(job);
+            LockMode granted = index >= 0 ? current.modes[index].combine(mode) : mode;
+            int kept = 0;
+            for (int i = 0; i < current.jobs.length; i++) {
+                if (current.jobs[i] != job && current.modes[i].isCompatibleWith(granted)) {
+                    kept++;
+                }
+            }
+            if (index < 0 || granted != current.modes[index] || kept + 1 != current.jobs.length) {
+                JobNode[] jobsAfter = new JobNode[kept + 1];
+                LockMode[] modesAfter = new LockMode[kept + 1];
+                int j = 0;
+                for (int i = 0; i < current.jobs.length; i++) {
+                    JobNode holder = current.jobs[i];
+                    if (holder == job) {
+                        continue;
+                    }
+                    if (current.modes[i].isCompatibleWith(granted)) {
+                        jobsAfter[j] = holder;
+                        modesAfter[j] = current.modes[i];
+                        j++;
+                    } else {
+                        synchronized (holder) {
+                            holder.held.remove(node);
+                            retireIfIdle(holder);
+                        }
+                    }
+                }
+                jobsAfter[j] = job;
+                modesAfter[j] = granted;
+                node.holders = new Holders(jobsAfter, modesAfter);
+            }
+            synchronized (job) {
+                job.waiting = without(job.waiting, node);
+                job.held.add(node);
+            }
+        }
+    }
+
+    void markReleased(JobNode job, ResourceNode node) {
+        boolean released = false;
+        synchronized (node) {
+            Holders current = node.holders;
+            int index = current.indexOf(job);
+            if (index >= 0) {
+                node.holders = current.without(index);
+                released = true;
+                synchronized (job) {
+                    job.held.remove(node);
+                    retireIfIdle(job);
+                }
+            }
+            retireIfIdle(node);
+        }
+        if (released) {
+            for (Consumer<Resource> listener : releaseListeners) {
+                listener.accept(node.resource);
+            }
+        }
+    }
+
+    /**
+     * Gives up with {@code false} when churn keeps any cycle from being confirmed within a few locked
+     * rounds; the waiter then falls back to its lock timeout.
+     */
+    boolean hasDeadlock(JobNode job) {
+        for (int round = 0; round < optimisticValidations + LOCKED_CYCLE_VALIDATIONS; round++) {
+            List<Edge> cycle = findCycle(job);
+            if (cycle == null) {
+                return false;
+            }
+            if (round < optimisticValidations ? stillHolds(cycle) : holdsWhileLocked(cycle)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void retireIfIdle(JobNode job) {
+        if (job.pins == 0 && job.held.isEmpty() && job.waiting.isEmpty()) {
+            job.retired = true;
+            jobs.remove(job.id, job);
+        }
+    }
+
+    private void retireIfIdle(ResourceNode node) {
+        if (node.pins == 0 && node.holders.jobs.length == 0 && node.queue.length == 0) {
+            node.retired = true;
+            resources.remove(node.resource, node);
         }
     }
 
@@ -163,21 +460,286 @@ public class LockGraphEngine {
         return value.replace("\\", "\\\\").replace("\"", "\\\"");
     }
 
-    private boolean detectCycle(String current, Map<String, Set<String>> graph, Set<String> visiting, Set<String> visited) {
-        if (visiting.contains(current)) {
+    /**
+     * Iterative, so long wait chains cannot overflow the stack. The edges returned are as observed during
+     * the walk and may be stale.
+     */
+    private List<Edge> findCycle(JobNode start) {
+        Map<JobNode, Edge> reachedBy = new IdentityHashMap<>();
+        Deque<JobNode> stack = new ArrayDeque<>();
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            JobNode current = stack.pop();
+            Set<ResourceNode> waitedOn = current.waiting;
+            for (ResourceNode node : waitedOn) {
+                Holders holders = node.holders;
+                Waiting[] queue = node.queue;
+                int position = indexOf(queue, current);
+                if (position < 0) {
+                    continue;
+                }
+                LockMode requested = queue[position].mode;
+                Edge edge = new Edge(current, waitedOn, node, holders, queue);
+                for (int i = 0; i < holders.jobs.length; i++) {
+                    if (!holders.modes[i].isCompatibleWith(requested)
+                            && visit(holders.jobs[i], current, start, edge, reachedBy, stack)) {
+                        return unwind(edge, reachedBy);
+                    }
+                }
+                for (int i = 0; i < position; i++) {
+                    if (visit(queue[i].job, current, start, edge, reachedBy, stack)) {
+                        return unwind(edge, reachedBy);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Follows one wait-for edge. Returns {@code true} when it leads back to {@code start}.
+     */
+    private boolean visit(JobNode target, JobNode current, JobNode start, Edge edge,
+                          Map<JobNode, Edge> reachedBy, Deque<JobNode> stack) {
+        if (target == current) {
+            return false;
+        }
+        if (target == start) {
             return true;
         }
-        if (visited.contains(current)) {
+        if (reachedBy.putIfAbsent(target, edge) == null) {
+            stack.push(target);
+        }
+        return false;
+    }
+
+    private List<Edge> unwind(Edge last, Map<JobNode, Edge> reachedBy) {
+        List<Edge> cycle = new ArrayList<>();
+        Edge edge = last;
+        while (edge != null) {
+            cycle.add(edge);
+            edge = reachedBy.get(edge.from);
+        }
+        return cycle;
+    }
+
+    private boolean stillHolds(List<Edge> cycle) {
+        for (Edge edge : cycle) {
+            if (edge.from.waiting != edge.waitedOn
+                    || edge.node.holders != edge.holders
+                    || edge.node.queue != edge.queue) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Takes the monitors of every resource and then every job on the cycle, in that order.
+     */
+    private boolean holdsWhileLocked(List<Edge> cycle) {
+        List<Object> monitors = new ArrayList<>(cycle.size() * 2);
+        for (Edge edge : cycle) {
+            monitors.add(edge.node);
+        }
+        for (Edge edge : cycle) {
+            monitors.add(edge.from);
+        }
+        synchronized (lockedValidation) {
+            return holdsWhileLocked(cycle, monitors, 0);
+        }
+    }
+
+    private boolean holdsWhileLocked(List<Edge> cycle, List<Object> monitors, int locked) {
+        if (locked < monitors.size()) {
+            synchronized (monitors.get(locked)) {
+                return holdsWhileLocked(cycle, monitors, locked + 1);
+            }
+        }
+        for (int i = 0; i < cycle.size(); i++) {
+            Edge edge = cycle.get(i);
+            JobNode target = cycle.get((i + cycle.size() - 1) % cycle.size()).from;
+            if (!waitsFor(edge.from, edge.node, target)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The edge rule of {@link #findCycle(JobNode)}, for one pair of jobs.
+     */
+    private static boolean waitsFor(JobNode job, ResourceNode node, JobNode target) {
+        if (job == target || !job.waiting.contains(node)) {
+            return false;
+        }
+        Waiting[] queue = node.queue;
+        int position = indexOf(queue, job);
+        if (position < 0) {
             return false;
         }
-        visiting.add(current);
-        for (String neighbor : graph.getOrDefault(current, Set.of())) {
-            if (detectCycle(neighbor, graph, visiting, visited)) {
+        LockMode requested = queue[position].mode;
+        Holders holders = node.holders;
+        for (int i = 0; i < holders.jobs.length; i++) {
+            if (holders.jobs[i] == target && !holders.modes[i].isCompatibleWith(requested)) {
+                return true;
+            }
+        }
+        for (int i = 0; i < position; i++) {
+            if (queue[i].job == target) {
                 return true;
             }
         }
-        visiting.remove(current);
-        visited.add(current);
         return false;
     }
+
+    private static int indexOf(Waiting[] queue, JobNode job) {
+        for (int i = 0; i < queue.length; i++) {
+            if (queue[i].job == job) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Waiting[] dequeue(Waiting[] queue, JobNode job) {
+        int index = indexOf(queue, job);
+        if (index < 0) {
+            return queue;
+        }
+        if (queue.length == 1) {
+            return NO_WAITERS;
+        }
+        Waiting[] remaining = new Waiting[queue.length - 1];
+        System.arraycopy(queue, 0, remaining, 0, index);
+        System.arraycopy(queue, index + 1, remaining, index, remaining.length - index);
+        return remaining;
+    }
+
+    /**
+     * Copy-on-write add. Wait sets are small, so copying keeps readers lock-free at little cost.
+     */
+    private static <T> Set<T> with(Set<T> values, T value) {
+        if (values.contains(value)) {
+            return values;
+        }
+        if (values.isEmpty()) {
+            return Set.of(value);
+        }
+        Set<T> copy = new HashSet<>(values);
+        copy.add(value);
+        return Set.copyOf(copy);
+    }
+
+    private static <T> Set<T> without(Set<T> values, T value) {
+        if (!values.contains(value)) {
+            return values;
+        }
+        if (values.size() == 1) {
+            return Set.of();
+        }
+        Set<T> copy = new HashSet<>(values);
+        copy.remove(value);
+        return Set.copyOf(copy);
+    }
+
+    private static final Waiting[] NO_WAITERS = new Waiting[0];
+
+    static final class JobNode {
+        private final String id;
+        private final Set<ResourceNode> held = new HashSet<>();
+        private volatile Set<ResourceNode> waiting = Set.of();
+        private int pins;
+        private boolean retired;
+
+        private JobNode(String id) {
+            this.id = id;
+        }
+
+        String id() {
+            return id;
+        }
+    }
+
+    static final class ResourceNode {
+        private final Resource resource;
+        private volatile Holders holders = Holders.NONE;
+        private volatile Waiting[] queue = NO_WAITERS;
+        private int pins;
+        private boolean retired;
+
+        private ResourceNode(Resource resource) {
+            this.resource = resource;
+        }
+
+        Resource resource() {
+            return resource;
+        }
+    }
+
+    /**
+     * Replaced, never mutated, on every holder change so its identity doubles as a version.
+     */
+    private static final class Holders {
+        private static final Holders NONE = new Holders(new JobNode[0], new LockMode[0]);
+
+        private final JobNode[] jobs;
+        private final LockMode[] modes;
+
+        private Holders(JobNode[] jobs, LockMode[] modes) {
+            this.jobs = jobs;
+            this.modes = modes;
+        }
+
+        private int indexOf(JobNode job) {
+            for (int i = 0; i < jobs.length; i++) {
+                if (jobs[i] == job) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private Holders without(int index) {
+            if (jobs.length == 1) {
+                return NONE;
+            }
+            JobNode[] remainingJobs = new JobNode[jobs.length - 1];
+            LockMode[] remainingModes = new LockMode[jobs.length - 1];
+            for (int i = 0, j = 0; i < jobs.length; i++) {
+                if (i != index) {
+                    remainingJobs[j] = jobs[i];
+                    remainingModes[j] = modes[i];
+                    j++;
+                }
+            }
+            return new Holders(remainingJobs, remainingModes);
+        }
+    }
+
+    private static final class Waiting {
+        private final JobNode job;
+        private final LockMode mode;
+
+        private Waiting(JobNode job, LockMode mode) {
+            this.job = job;
+            this.mode = mode;
+        }
+    }
+
+    private static final class Edge {
+        private final JobNode from;
+        private final Set<ResourceNode> waitedOn;
+        private final ResourceNode node;
+        private final Holders holders;
+        private final Waiting[] queue;
+
+        private Edge(JobNode from, Set<ResourceNode> waitedOn, ResourceNode node, Holders holders, Waiting[] queue) {
+            this.from = from;
+            this.waitedOn = waitedOn;
+            this.node = node;
+            this.holders = holders;
+            this.queue = queue;
+        }
+    }
 }
@@ -1,84 +1,205 @@
 package com.core;
 
+import com.domain.LockMode;
 import com.domain.Resource;
 import com.infra.AuditLogger;
 
 import java.time.Duration;
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
 
 public class LockRegistry {
-    private final Map<Resource, ReentrantLock> locks = new ConcurrentHashMap<>();
+    private final Map<Resource, ResourceLock> locks = new ConcurrentHashMap<>();
     private final LockGraphEngine lockGraphEngine;
     private final AuditLogger auditLogger;
+    private final SchedulerMetrics metrics;
+    private final BiFunction<Resource, ResourceLock, ResourceLock> retain = this::retain;
+    private final BiFunction<Resource, ResourceLock, ResourceLock> dereference = LockRegistry::dereference;
 
     public LockRegistry(LockGraphEngine lockGraphEngine, AuditLogger auditLogger) {
+        this(lockGraphEngine, auditLogger, new SchedulerMetrics());
+    }
+
+    /**
+     * @param metrics where lock waits, deadlocks and lock timeouts are recorded; the {@link JobRunner} and
+     *                {@link JobEngine} built on this registry record into it too
+     */
+    public LockRegistry(LockGraphEngine lockGraphEngine, AuditLogger auditLogger, SchedulerMetrics metrics) {
         this.lockGraphEngine = Objects.requireNonNull(lockGraphEngine, "lockGraphEngine");
         this.auditLogger = Objects.requireNonNull(auditLogger, "auditLogger");
+        this.metrics = Objects.requireNonNull(metrics, "metrics");
     }
 
+    /**
+     * Acquires all resources exclusively, see {@link #acquireLocks(String, Map, Duration)}.
+     */
     public LockHandle acquireLocks(String jobId, List<Resource> resources, Duration timeout)
             throws InterruptedException, DeadlockException, LockTimeoutException {
-        List<Resource> ordered = new ArrayList<>(resources);
-        ordered.sort(Comparator.naturalOrder());
-        List<Resource> acquired = new ArrayList<>();
+        return acquire(jobId, resources.toArray(new Resource[0]), null, timeout);
+    }
+
+    /**
+     * Acquires all resources in natural order, each in its requested mode. Hierarchical resources also
+     * take the matching intention lock on every ancestor, which sorts ahead of them, and a resource whose
+     * ancestor is requested {@link LockMode#SHARED} or {@link LockMode#EXCLUSIVE} is covered by that lock
+     * and skipped. A blocked job is queued on the
+     * resource and woken as soon as the lock is handed to it; the deadlock check runs once when the job
+     * starts waiting, which is the only point where a new wait-for edge appears. On failure every lock
+     * taken so far is released again.
+     */
+    public LockHandle acquireLocks(String jobId, Map<Resource, LockMode> lockModes, Duration timeout)
+            throws InterruptedException, DeadlockException, LockTimeoutException {
+        return acquire(jobId, lockModes.keySet().toArray(new Resource[0]), lockModes, timeout);
+    }
+
+    private LockHandle acquire(String jobId, Resource[] ordered, Map<Resource, LockMode> lockModes, Duration timeout)
+            throws InterruptedException, DeadlockException, LockTimeoutException {
+        if (hasHierarchy(ordered)) {
+            lockModes = withIntentions(ordered, lockModes);
+            ordered = lockModes.keySet().toArray(new Resource[0]);
+        } else if (ordered.length > 1) {
+            Arrays.sort(ordered);
+        }
+        LockHandle handle = new LockHandle(lockGraphEngine.pinJob(jobId), ordered.length);
         long deadline = System.nanoTime() + timeout.toNanos();
-        for (Resource resource : ordered) {
-            ReentrantLock lock = locks.computeIfAbsent(resource, ignored -> new ReentrantLock());
-            while (true) {
-                long remaining = deadline - System.nanoTime();
-                if (remaining <= 0) {
-                    throw new LockTimeoutException("Timeout while waiting for lock " + resource.id());
-                }
-                long waitMillis = Math.min(TimeUnit.NANOSECONDS.toMillis(remaining), 100);
-                if (lock.tryLock(waitMillis, TimeUnit.MILLISECONDS)) {
-                    lockGraphEngine.markAcquired(jobId, resource);
-                    auditLogger.lockAcquired(jobId, resource);
-                    acquired.add(resource);
-                    break;
-                }
-                String owner = lockGraphEngine.ownerOf(resource);
-                lockGraphEngine.markWaiting(jobId, resource);
-                auditLogger.lockWaiting(jobId, resource, owner);
-                if (lockGraphEngine.hasDeadlock(jobId)) {
-                    auditLogger.deadlockDetected(jobId, "cycle detected");
-                    throw new DeadlockException("Deadlock detected for job " + jobId);
+        boolean completed = false;
+        try {
+            for (Resource resource : ordered) {
+                LockMode mode = lockModes == null ? LockMode.EXCLUSIVE : lockModes.get(resource);
+                ResourceLock lock = locks.compute(resource, retain);
+                handle.retained[handle.count++] = lock;
+                ResourceLock.Waiter waiter = lock.acquireOrEnqueue(handle.job, mode);
+                if (waiter != null) {
+                    auditLogger.lockWaiting(jobId, resource, waiter.blockedBy());
+                    long waitStart = System.nanoTime();
+                    if (lockGraphEngine.hasDeadlock(handle.job) && lock.cancel(waiter)) {
+                        metrics.recordLockWait(resource, System.nanoTime() - waitStart);
+                        metrics.recordDeadlock();
+                        auditLogger.deadlockDetected(jobId, "cycle detected");
+                        throw new DeadlockException("Deadlock detected for job " + jobId);
+                    }
+                    boolean granted = lock.await(waiter, deadline);
+                    metrics.recordLockWait(resource, System.nanoTime() - waitStart);
+                    if (!granted) {
+                        metrics.recordLockTimeout();
+                        throw new LockTimeoutException("Timeout while waiting for lock " + resource.id());
+                    }
                 }
+                auditLogger.lockAcquired(jobId, resource);
+            }
+            completed = true;
+            return handle;
+        } finally {
+            if (!completed) {
+                handle.close();
             }
         }
-        return new LockHandle(jobId, acquired);
+    }
+
+    LockGraphEngine lockGraphEngine() {
+        return lockGraphEngine;
+    }
+
+    public SchedulerMetrics metrics() {
+        return metrics;
     }
 
     public void clearJob(String jobId) {
         lockGraphEngine.clear(jobId);
     }
 
+    /**
+     * Number of resources that currently have a lock entry. Entries exist only while some job holds or
+     * waits on the resource.
+     */
+    public int lockTableSize() {
+        return locks.size();
+    }
+
+    private static boolean hasHierarchy(Resource[] resources) {
+        for (Resource resource : resources) {
+            if (resource.hasParent()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds intention locks on all ancestors and drops resources covered by an ancestor's lock.
+     */
+    private static Map<Resource, LockMode> withIntentions(Resource[] resources, Map<Resource, LockMode> lockModes) {
+        TreeMap<Resource, LockMode> expanded = new TreeMap<>();
+        for (Resource resource : resources) {
+            LockMode mode = lockModes == null ? LockMode.EXCLUSIVE : lockModes.get(resource);
+            expanded.merge(resource, mode, LockMode::combine);
+            for (Resource parent = resource.parent(); parent != null; parent = parent.parent()) {
+                expanded.merge(parent, mode.intention(), LockMode::combine);
+            }
+        }
+        expanded.entrySet().removeIf(entry -> coveredByAncestor(expanded, entry.getKey(), entry.getValue()));
+        return expanded;
+    }
+
+    private static boolean coveredByAncestor(Map<Resource, LockMode> expanded, Resource resource, LockMode mode) {
+        for (Resource parent = resource.parent(); parent != null; parent = parent.parent()) {
+            LockMode parentMode = expanded.get(parent);
+            if (parentMode != null && parentMode.coversDescendants(mode)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Runs inside {@code locks.compute}: every job that holds, waits on or is about to lock a resource
+     * holds one reference, so an entry can only be evicted when nobody uses it and a resource never has
+     * two live lock instances.
+     */
+    private ResourceLock retain(Resource resource, ResourceLock lock) {
+        ResourceLock current = lock == null ? new ResourceLock(resource, lockGraphEngine) : lock;
+        current.references++;
+        return current;
+    }
+
+    private static ResourceLock dereference(Resource resource, ResourceLock lock) {
+        if (--lock.references > 0) {
+            return lock;
+        }
+        lock.retire();
+        return null;
+    }
+
     public final class LockHandle implements AutoCloseable {
-        private final String jobId;
-        private final List<Resource> acquired;
+        private final LockGraphEngine.JobNode job;
+        private final ResourceLock[] retained;
+        private int count;
+        private boolean closed;
 
-        private LockHandle(String jobId, List<Resource> acquired) {
-            this.jobId = jobId;
-            this.acquired = acquired;
+        private LockHandle(LockGraphEngine.JobNode job, int capacity) {
+            this.job = job;
+            this.retained = new ResourceLock[capacity];
         }
 
         @Override
         public void close() {
-            for (int i = acquired.size() - 1; i >= 0; i--) {
-                Resource resource = acquired.get(i);
-                ReentrantLock lock = locks.get(resource);
-                if (lock != null && lock.isHeldByCurrentThread()) {
-                    lock.unlock();
-                    lockGraphEngine.markReleased(jobId, resource);
-                    auditLogger.lockReleased(jobId, resource);
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (int i = count - 1; i >= 0; i--) {
+                ResourceLock lock = retained[i];
+                if (lock.release(job)) {
+                    auditLogger.lockReleased(job.id(), lock.resource());
                 }
+                locks.computeIfPresent(lock.resource(), dereference);
             }
+            lockGraphEngine.unpin(job);
         }
     }
 
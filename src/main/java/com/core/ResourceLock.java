@@ -0,0 +1,209 @@
+package com.core;
+
+import com.domain.LockMode;
+import com.domain.Resource;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Job-owned shared/exclusive lock for a single {@link Resource} with a FIFO wait queue.
+ * A request is granted straight away when it is compatible with every other holder and nobody is queued,
+ * so a queued exclusive request is not starved by a stream of shared ones. A holder asking to upgrade
+ * jumps to the front of the queue. Whenever a hold ends or a waiter gives up, the lock is handed to the
+ * queued jobs at the head that are compatible with the remaining holders, which lets a run of shared
+ * waiters in one go, and their threads are unparked, so waiters never poll. Holder changes are mirrored
+ * into the {@link LockGraphEngine} under the same mutex so the wait-for graph always matches the queue.
+ * The lock keeps its interned graph node pinned, and holders are compared by node identity.
+ */
+final class ResourceLock {
+    private final LockGraphEngine lockGraphEngine;
+    private final LockGraphEngine.ResourceNode node;
+    private final ReentrantLock mutex = new ReentrantLock();
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private final Map<LockGraphEngine.JobNode, Hold> holders = new LinkedHashMap<>();
+    /**
+     * Jobs using this entry of the lock table. Only read and written inside the table's {@code compute}.
+     */
+    int references;
+
+    ResourceLock(Resource resource, LockGraphEngine lockGraphEngine) {
+        this.lockGraphEngine = lockGraphEngine;
+        this.node = lockGraphEngine.pinResource(resource);
+    }
+
+    Resource resource() {
+        return node.resource();
+    }
+
+    /**
+     * Takes the lock in {@code mode} when that is possible right now, or when {@code job} already holds it
+     * in a mode that covers {@code mode}, and returns {@code null}. Otherwise queues the job and returns
+     * its {@link Waiter}.
+     */
+    Waiter acquireOrEnqueue(LockGraphEngine.JobNode job, LockMode mode) {
+        mutex.lock();
+        try {
+            Hold own = holders.get(job);
+            if (own != null && own.mode.covers(mode)) {
+                own.count++;
+                return null;
+            }
+            String blockedBy = conflictingHolder(job, mode);
+            if (blockedBy == null && (own != null || waiters.isEmpty())) {
+                grant(job, mode);
+                return null;
+            }
+            if (blockedBy == null) {
+                blockedBy = waiters.peekLast().job.id();
+            }
+            Waiter waiter = new Waiter(job, mode, blockedBy, Thread.currentThread());
+            if (own != null) {
+                waiters.addFirst(waiter);
+            } else {
+                waiters.addLast(waiter);
+            }
+            lockGraphEngine.markWaiting(job, node, mode);
+            return waiter;
+        } finally {
+            mutex.unlock();
+        }
+    }
+
+    /**
+     * Parks until the lock is handed to {@code waiter} or the deadline passes.
+     * Returns {@code false} when the wait timed out and the waiter was removed from the queue.
+     */
+    boolean await(Waiter waiter, long deadlineNanos) throws InterruptedException {
+        while (!waiter.granted) {
+            long remaining = deadlineNanos - System.nanoTime();
+            if (remaining <= 0) {
+                return !cancel(waiter);
+            }
+            LockSupport.parkNanos(this, remaining);
+            if (Thread.interrupted()) {
+                if (!cancel(waiter)) {
+                    release(waiter.job);
+                }
+                throw new InterruptedException("Interrupted while waiting for lock " + resource().id());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes a queued waiter. Returns {@code false} when the lock had already been handed to it.
+     */
+    boolean cancel(Waiter waiter) {
+        mutex.lock();
+        try {
+            if (waiter.granted) {
+                return false;
+            }
+            waiters.remove(waiter);
+            lockGraphEngine.cancelWaiting(waiter.job, node);
+            grantWaiters();
+            return true;
+        } finally {
+            mutex.unlock();
+        }
+    }
+
+    /**
+     * Releases one hold of {@code job}. Returns {@code false} when the job did not hold the lock.
+     */
+    boolean release(LockGraphEngine.JobNode job) {
+        mutex.lock();
+        try {
+            Hold hold = holders.get(job);
+            if (hold == null) {
+                return false;
+            }
+            if (--hold.count > 0) {
+                return true;
+            }
+            holders.remove(job);
+            lockGraphEngine.markReleased(job, node);
+            grantWaiters();
+            return true;
+        } finally {
+            mutex.unlock();
+        }
+    }
+
+    /**
+     * Called once the entry has been removed from the lock table; releases the pinned graph node.
+     */
+    void retire() {
+        lockGraphEngine.unpin(node);
+    }
+
+    private void grantWaiters() {
+        Waiter next = waiters.peekFirst();
+        while (next != null && conflictingHolder(next.job, next.mode) == null) {
+            waiters.pollFirst();
+            grant(next.job, next.mode);
+            next.granted = true;
+            LockSupport.unpark(next.thread);
+            next = waiters.peekFirst();
+        }
+    }
+
+    /**
+     * The first holder other than {@code job} whose mode is incompatible with {@code mode}, or {@code null}.
+     */
+    private String conflictingHolder(LockGraphEngine.JobNode job, LockMode mode) {
+        for (Map.Entry<LockGraphEngine.JobNode, Hold> entry : holders.entrySet()) {
+            if (entry.getKey() != job && !entry.getValue().mode.isCompatibleWith(mode)) {
+                return entry.getKey().id();
+            }
+        }
+        return null;
+    }
+
+    private void grant(LockGraphEngine.JobNode job, LockMode mode) {
+        Hold hold = holders.get(job);
+        if (hold == null) {
+            holders.put(job, new Hold(mode));
+        } else {
+            hold.mode = hold.mode.combine(mode);
+            hold.count++;
+        }
+        lockGraphEngine.markAcquired(job, node, mode);
+    }
+
+    private static final class Hold {
+        private LockMode mode;
+        private int count = 1;
+
+        private Hold(LockMode mode) {
+            this.mode = mode;
+        }
+    }
+
+    static final class Waiter {
+        private final LockGraphEngine.JobNode job;
+        private final LockMode mode;
+        private final String blockedBy;
+        private final Thread thread;
+        private volatile boolean granted;
+
+        private Waiter(LockGraphEngine.JobNode job, LockMode mode, String blockedBy, Thread thread) {
+            this.job = job;
+            this.mode = mode;
+            this.blockedBy = blockedBy;
+            this.thread = thread;
+        }
+
+        /**
+         * A conflicting holder, or the job queued ahead, at the time the job was queued.
+         */
+        String blockedBy() {
+            return blockedBy;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.core;
+
+import com.domain.JobExecutionContext;
+
+/**
+ * An execution context that {@link CachingExecutionContextFactory} may hand to another attempt after this
+ * one returns it, instead of closing it.
+ */
+public interface ReusableExecutionContext extends JobExecutionContext {
+    /**
+     * Whether the context can still serve an attempt, checked before a cached context is leased again.
+     */
+    boolean isHealthy();
+
+    /**
+     * Discards whatever the last attempt left behind, so the next one starts as if on a new context. A
+     * context whose reset throws is closed instead of cached.
+     */
+    void reset() throws Exception;
+}
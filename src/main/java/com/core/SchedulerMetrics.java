@@ -0,0 +1,233 @@
+package com.core;
+
+import com.domain.Resource;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process metrics of one scheduler: latency histograms for queue wait, lock wait per {@link Resource}
+ * and execution time, a histogram of attempts per job, and counters for deadlocks, timeouts, retries and
+ * outcomes. Every event is a {@link LongAdder} increment or one {@link LatencyHistogram} update, both of
+ * which spread their counts over per-thread stripes once threads collide, and recording needs nothing
+ * outside the JVM. {@code SchedulerMetricsBenchmark} measures the cost alone and from several threads.
+ *
+ * <p>
+ * A {@link LockRegistry} owns the metrics; the {@link JobRunner} and {@link JobEngine} built on it record
+ * into the same instance. Read them with {@link #snapshot()}, or export them with
+ * {@link com.infra.PrometheusExporter}.
+ */
+public final class SchedulerMetrics {
+    private static final int DEFAULT_MAX_TRACKED_RESOURCES = 1024;
+
+    private final int maxTrackedResources;
+    private final Map<JobPriority, LatencyHistogram> queueWait = new EnumMap<>(JobPriority.class);
+    private final ConcurrentHashMap<Resource, LatencyHistogram> lockWait = new ConcurrentHashMap<>();
+    private final AtomicInteger trackedResources = new AtomicInteger();
+    private final LatencyHistogram otherLockWait = new LatencyHistogram();
+    private final LatencyHistogram executionTime = new LatencyHistogram();
+    private final LatencyHistogram attemptsPerJob = new LatencyHistogram();
+    private final LongAdder deadlocks = new LongAdder();
+    private final LongAdder lockTimeouts = new LongAdder();
+    private final LongAdder executionTimeouts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final Map<JobState, LongAdder> outcomes = new EnumMap<>(JobState.class);
+
+    public SchedulerMetrics() {
+        this(DEFAULT_MAX_TRACKED_RESOURCES);
+    }
+
+    /**
+     * @param maxTrackedResources most resources that get their own lock-wait histogram; waits on further
+     *                            resources are recorded together, so the resource label cannot grow without
+     *                            bound
+     */
+    public SchedulerMetrics(int maxTrackedResources) {
+        if (maxTrackedResources < 0) {
+            throw new IllegalArgumentException("maxTrackedResources must not be negative");
+        }
+        this.maxTrackedResources = maxTrackedResources;
+        for (JobPriority priority : JobPriority.values()) {
+            queueWait.put(priority, new LatencyHistogram());
+        }
+        for (JobState state : JobState.values()) {
+            outcomes.put(state, new LongAdder());
+        }
+    }
+
+    /**
+     * Time an attempt of {@code priority} spent queued before it started.
+     */
+    public void recordQueueWait(JobPriority priority, long nanos) {
+        queueWait.get(priority).record(nanos);
+    }
+
+    /**
+     * Time a job spent blocked on {@code resource}, whether it got the lock or gave up. Uncontended
+     * acquisitions record nothing.
+     */
+    public void recordLockWait(Resource resource, long nanos) {
+        LatencyHistogram histogram = lockWait.get(resource);
+        if (histogram == null && trackedResources.get() < maxTrackedResources) {
+            histogram = lockWait.computeIfAbsent(resource, ignored -> reserveTrackedResource() ? new LatencyHistogram() : null);
+        }
+        (histogram == null ? otherLockWait : histogram).record(nanos);
+    }
+
+    /**
+     * Takes one of the {@code maxTrackedResources} slots. Counted apart from the map, so concurrent first
+     * waits on different resources cannot both pass a size check and exceed the cap.
+     */
+    private boolean reserveTrackedResource() {
+        return trackedResources.getAndUpdate(tracked -> tracked < maxTrackedResources ? tracked + 1 : tracked)
+                < maxTrackedResources;
+    }
+
+    /**
+     * Time one attempt spent running its job, including opening its execution context and committing.
+     */
+    public void recordExecutionTime(long nanos) {
+        executionTime.record(nanos);
+    }
+
+    /**
+     * Records a job reaching its final outcome after {@code attempts} attempts.
+     */
+    public void recordOutcome(JobState state, int attempts) {
+        outcomes.get(state).increment();
+        attemptsPerJob.record(attempts);
+    }
+
+    public void recordDeadlock() {
+        deadlocks.increment();
+    }
+
+    public void recordLockTimeout() {
+        lockTimeouts.increment();
+    }
+
+    public void recordExecutionTimeout() {
+        executionTimeouts.increment();
+    }
+
+    public void recordRetry() {
+        retries.increment();
+    }
+
+    LatencyHistogram queueWait(JobPriority priority) {
+        return queueWait.get(priority);
+    }
+
+    public Snapshot snapshot() {
+        Map<JobPriority, LatencyHistogram.Snapshot> queueWaitCopy = new EnumMap<>(JobPriority.class);
+        queueWait.forEach((priority, histogram) -> queueWaitCopy.put(priority, histogram.snapshot()));
+        Map<Resource, LatencyHistogram.Snapshot> lockWaitCopy = new HashMap<>();
+        lockWait.forEach((resource, histogram) -> lockWaitCopy.put(resource, histogram.snapshot()));
+        Map<JobState, Long> outcomesCopy = new EnumMap<>(JobState.class);
+        outcomes.forEach((state, count) -> outcomesCopy.put(state, count.sum()));
+        return new Snapshot(queueWaitCopy, lockWaitCopy, otherLockWait.snapshot(), executionTime.snapshot(),
+                attemptsPerJob.snapshot(), deadlocks.sum(), lockTimeouts.sum(), executionTimeouts.sum(),
+                retries.sum(), outcomesCopy);
+    }
+
+    /**
+     * Point-in-time copy of the metrics. Each value is read on its own, so values recorded while the
+     * snapshot is taken may show up in some of them and not yet in others.
+     */
+    public static final class Snapshot {
+        private final Map<JobPriority, LatencyHistogram.Snapshot> queueWait;
+        private final Map<Resource, LatencyHistogram.Snapshot> lockWait;
+        private final LatencyHistogram.Snapshot otherLockWait;
+        private final LatencyHistogram.Snapshot executionTime;
+        private final LatencyHistogram.Snapshot attemptsPerJob;
+        private final long deadlocks;
+        private final long lockTimeouts;
+        private final long executionTimeouts;
+        private final long retries;
+        private final Map<JobState, Long> outcomes;
+
+        private Snapshot(Map<JobPriority, LatencyHistogram.Snapshot> queueWait,
+                         Map<Resource, LatencyHistogram.Snapshot> lockWait,
+                         LatencyHistogram.Snapshot otherLockWait,
+                         LatencyHistogram.Snapshot executionTime,
+                         LatencyHistogram.Snapshot attemptsPerJob,
+                         long deadlocks,
+                         long lockTimeouts,
+                         long executionTimeouts,
+                         long retries,
+                         Map<JobState, Long> outcomes) {
+            this.queueWait = Collections.unmodifiableMap(queueWait);
+            this.lockWait = Collections.unmodifiableMap(lockWait);
+            this.otherLockWait = otherLockWait;
+            this.executionTime = executionTime;
+            this.attemptsPerJob = attemptsPerJob;
+            this.deadlocks = deadlocks;
+            this.lockTimeouts = lockTimeouts;
+            this.executionTimeouts = executionTimeouts;
+            this.retries = retries;
+            this.outcomes = Collections.unmodifiableMap(outcomes);
+        }
+
+        public Map<JobPriority, LatencyHistogram.Snapshot> queueWait() {
+            return queueWait;
+        }
+
+        public LatencyHistogram.Snapshot queueWait(JobPriority priority) {
+            return queueWait.get(priority);
+        }
+
+        /**
+         * Lock waits of the resources that have their own histogram.
+         */
+        public Map<Resource, LatencyHistogram.Snapshot> lockWait() {
+            return lockWait;
+        }
+
+        /**
+         * Lock waits on resources beyond the tracked ones.
+         */
+        public LatencyHistogram.Snapshot otherLockWait() {
+            return otherLockWait;
+        }
+
+        public LatencyHistogram.Snapshot executionTime() {
+            return executionTime;
+        }
+
+        /**
+         * Attempts each finished job took; values are counts, not nanoseconds.
+         */
+        public LatencyHistogram.Snapshot attemptsPerJob() {
+            return attemptsPerJob;
+        }
+
+        public long deadlocks() {
+            return deadlocks;
+        }
+
+        public long lockTimeouts() {
+            return lockTimeouts;
+        }
+
+        public long executionTimeouts() {
+            return executionTimeouts;
+        }
+
+        public long retries() {
+            return retries;
+        }
+
+        public Map<JobState, Long> outcomes() {
+            return outcomes;
+        }
+
+        public long outcomes(JobState state) {
+            return outcomes.get(state);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.core;
+
+import com.domain.JobContext;
+import com.domain.LockMode;
+import com.domain.Resource;
+import com.domain.RetryPolicy;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * What a {@link JobStore} keeps about a job: enough to rebuild its {@link JobContext}, plus the last
+ * recorded state and attempt. The job itself and its {@link RetryPolicy} are code, so they are identified
+ * by {@link #jobType()} and supplied again by a {@link JobResolver} on recovery.
+ */
+public final class StoredJob {
+    private final String jobId;
+    private final String jobType;
+    private final Duration timeout;
+    private final Map<Resource, LockMode> lockModes;
+    private final JobState state;
+    private final int attempt;
+
+    public StoredJob(String jobId, String jobType, Duration timeout, Map<Resource, LockMode> lockModes,
+                     JobState state, int attempt) {
+        this.jobId = Objects.requireNonNull(jobId, "jobId");
+        this.jobType = Objects.requireNonNull(jobType, "jobType");
+        this.timeout = Objects.requireNonNull(timeout, "timeout");
+        this.lockModes = Collections.unmodifiableMap(new LinkedHashMap<>(Objects.requireNonNull(lockModes, "lockModes")));
+        this.state = Objects.requireNonNull(state, "state");
+        this.attempt = attempt;
+    }
+
+    public String jobId() {
+        return jobId;
+    }
+
+    public String jobType() {
+        return jobType;
+    }
+
+    public Duration timeout() {
+        return timeout;
+    }
+
+    public Map<Resource, LockMode> lockModes() {
+        return lockModes;
+    }
+
+    public JobState state() {
+        return state;
+    }
+
+    /**
+     * The last attempt that was started, or {@code 0} when the job never ran.
+     */
+    public int attempt() {
+        return attempt;
+    }
+
+    public StoredJob withState(JobState state, int attempt) {
+        return new StoredJob(jobId, jobType, timeout, lockModes, state, attempt);
+    }
+
+    public JobContext toContext(RetryPolicy retryPolicy) {
+        return new JobContext(jobId, timeout, retryPolicy, lockModes);
+    }
+}
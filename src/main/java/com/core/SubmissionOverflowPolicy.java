@@ -0,0 +1,17 @@
+package com.core;
+
+/**
+ * What {@link JobEngine#submit} does when the engine already holds its maximum of queued jobs, or as many
+ * unfinished jobs as its {@link AimdLimit} allows.
+ */
+public enum SubmissionOverflowPolicy {
+    /**
+     * Throw a {@link JobEngine.SaturatedException} and count the rejection.
+     */
+    REJECT,
+    /**
+     * Wait until a queued job starts or an unfinished one finishes. The producer stalls instead of the
+     * heap growing.
+     */
+    BLOCK
+}
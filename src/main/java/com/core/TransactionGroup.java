@@ -0,0 +1,195 @@
+package com.core;
+
+import com.domain.Job;
+import com.domain.JobContext;
+import com.domain.JobExecutionContext;
+
+import java.sql.Connection;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs the bodies of concurrent attempts in one shared transaction and commits once for all of them,
+ * leader/follower style like the job store's group commit. Attempts join while holding their locks, so
+ * the members of a group never conflict on resources.
+ * <p>
+ * When a body fails, its rollback runs, the failed attempt gets its exception and the rest of the group
+ * runs again in a fresh transaction, so bodies must be idempotent. A failure to open the context or to
+ * commit, or an {@link Error}, fails every attempt left in the group.
+ * <p>
+ * An attempt waits for a group to take it for at most its job's timeout, and can be interrupted until
+ * then. Once taken, it waits for the group's outcome and keeps the interrupt for later.
+ */
+final class TransactionGroup {
+    private final ExecutionContextFactory executionContextFactory;
+    private final AttemptExecutor attemptExecutor;
+    private final int maxGroupSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition finished = lock.newCondition();
+    private final Deque<Member> waiting = new ArrayDeque<>();
+    private boolean running;
+
+    TransactionGroup(ExecutionContextFactory executionContextFactory, AttemptExecutor attemptExecutor, int maxGroupSize) {
+        this.executionContextFactory = executionContextFactory;
+        this.attemptExecutor = attemptExecutor;
+        this.maxGroupSize = maxGroupSize;
+    }
+
+    /**
+     * Blocks until the body of {@code job} has run and been committed with its group, or throws what the
+     * body, the execution context or the commit threw.
+     */
+    void execute(Job job, JobContext context) throws Exception {
+        Member member = new Member(job, context);
+        long deadlineNanos = System.nanoTime() + context.timeout().toNanos();
+        boolean interrupted = false;
+        lock.lock();
+        try {
+            waiting.add(member);
+            while (!member.done) {
+                if (running && member.taken) {
+                    try {
+                        finished.await();
+                    } catch (InterruptedException interruptedException) {
+                        interrupted = true;
+                    }
+                    continue;
+                }
+                if (running) {
+                    long remaining = deadlineNanos - System.nanoTime();
+                    if (remaining <= 0) {
+                        waiting.remove(member);
+                        throw new JobRunner.TimeoutException("Job timed out after " + context.timeout().toMillis()
+                                + "ms waiting for its commit group");
+                    }
+                    try {
+                        finished.awaitNanos(remaining);
+                    } catch (InterruptedException interruptedException) {
+                        waiting.remove(member);
+                        throw interruptedException;
+                    }
+                    continue;
+                }
+                running = true;
+                List<Member> group = new ArrayList<>(Math.min(waiting.size(), maxGroupSize));
+                while (group.size() < maxGroupSize && !waiting.isEmpty()) {
+                    Member next = waiting.poll();
+                    next.taken = true;
+                    group.add(next);
+                }
+                lock.unlock();
+                try {
+                    run(group);
+                } finally {
+                    lock.lock();
+                    running = false;
+                    finished.signalAll();
+                }
+            }
+        } finally {
+            lock.unlock();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        Throwable failure = member.failure;
+        if (failure instanceof Error error) {
+            throw error;
+        }
+        if (failure != null) {
+            throw (Exception) failure;
+        }
+    }
+
+    /**
+     * Runs {@code group} until every member has an outcome, dropping one failed member per round.
+     */
+    private void run(List<Member> group) {
+        List<Member> remaining = new ArrayList<>(group);
+        while (!remaining.isEmpty()) {
+            boolean committed = false;
+            try (JobExecutionContext executionContext = executionContextFactory.create()) {
+                Connection connection = executionContext.get(ExecutionContextKeys.CONNECTION);
+                if (connection != null) {
+                    connection.setAutoCommit(false);
+                }
+                Iterator<Member> members = remaining.iterator();
+                Member failed = null;
+                while (members.hasNext()) {
+                    Member member = members.next();
+                    if (!runBody(member, executionContext)) {
+                        members.remove();
+                        member.done = true;
+                        if (connection != null) {
+                            failed = member;
+                            break;
+                        }
+                    }
+                }
+                if (failed != null) {
+                    connection.rollback();
+                    continue;
+                }
+                if (connection != null) {
+                    connection.commit();
+                }
+                committed = true;
+                finish(remaining, null);
+                return;
+            } catch (Throwable failure) {
+                if (!committed) {
+                    finish(remaining, failure);
+                }
+                return;
+            }
+        }
+    }
+
+    private boolean runBody(Member member, JobExecutionContext executionContext) {
+        try {
+            attemptExecutor.execute(() -> {
+                member.job.prepare(member.context, executionContext);
+                member.job.execute(member.context, executionContext);
+                return null;
+            }, member.context.timeout());
+            return true;
+        } catch (Exception exception) {
+            try {
+                member.job.rollback(member.context, executionContext, exception);
+            } catch (Exception rollbackFailure) {
+                exception.addSuppressed(rollbackFailure);
+            }
+            member.failure = exception;
+            return false;
+        }
+    }
+
+    private static void finish(List<Member> members, Throwable failure) {
+        for (Member member : members) {
+            member.failure = failure;
+            member.done = true;
+        }
+    }
+
+    /**
+     * {@code done} and {@code failure} are written by the leader before it takes the lock again, and read
+     * under the lock.
+     */
+    private static final class Member {
+        private final Job job;
+        private final JobContext context;
+        private boolean taken;
+        private boolean done;
+        private Throwable failure;
+
+        private Member(Job job, JobContext context) {
+            this.job = job;
+            this.context = context;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.core;
+
+import com.domain.JobContext;
+
+import java.util.List;
+
+/**
+ * Keeps nothing. Used by {@link JobEngine} when no durable {@link JobStore} is configured.
+ */
+final class TransientJobStore implements JobStore {
+    static final TransientJobStore INSTANCE = new TransientJobStore();
+
+    private TransientJobStore() {
+    }
+
+    @Override
+    public void submitted(String jobType, JobContext context) {
+    }
+
+    @Override
+    public void submittedAll(List<JobSubmission> submissions) {
+    }
+
+    @Override
+    public void transitioned(String jobId, JobState state, int attempt) {
+    }
+
+    @Override
+    public List<StoredJob> unfinished() {
+        return List.of();
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,44 @@
+package com.core;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Looks up the virtual thread executor reflectively so the project still builds and runs on Java 17.
+ */
+final class VirtualThreads {
+    private static final MethodHandle NEW_PER_TASK_EXECUTOR = findPerTaskExecutor();
+
+    private VirtualThreads() {
+    }
+
+    static boolean isSupported() {
+        return NEW_PER_TASK_EXECUTOR != null;
+    }
+
+    static ExecutorService newPerTaskExecutor() {
+        if (NEW_PER_TASK_EXECUTOR == null) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or newer, running on "
+                    + Runtime.version());
+        }
+        try {
+            return (ExecutorService) NEW_PER_TASK_EXECUTOR.invokeExact();
+        } catch (RuntimeException | Error exception) {
+            throw exception;
+        } catch (Throwable throwable) {
+            throw new IllegalStateException("Unable to create virtual thread executor", throwable);
+        }
+    }
+
+    private static MethodHandle findPerTaskExecutor() {
+        try {
+            return MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class));
+        } catch (NoSuchMethodException | IllegalAccessException exception) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.core;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A fixed set of platform workers, each with its own priority queue, for {@link WorkerMode#WORK_STEALING}.
+ * Tasks are routed by a hash the caller picks; a worker serves its own queue first and steals from the
+ * others, starting at a random one, before it parks.
+ * <p>
+ * A worker sets the volatile {@code idle} flag and scans again before it parks, while a submitter queues
+ * first and checks the flag after, so one of them always sees the other. A busy owner keeps a single
+ * queued task for itself to preserve routing affinity; an idle worker is only woken to steal once two or
+ * more tasks are queued. A task that throws is reported to the worker thread's
+ * {@link Thread.UncaughtExceptionHandler}.
+ */
+final class WorkStealingExecutor<T extends Runnable & Comparable<? super T>> {
+    private final Worker<T>[] workers;
+    private final LongAdder stolen = new LongAdder();
+    private volatile boolean shutdown;
+
+    WorkStealingExecutor(int workerCount, String namePrefix) {
+        this.workers = newWorkers(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Worker<>(i);
+        }
+        for (Worker<T> worker : workers) {
+            worker.thread = new Thread(() -> runWorker(worker), namePrefix + worker.index);
+            worker.thread.setDaemon(true);
+            worker.thread.start();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Runnable & Comparable<? super T>> Worker<T>[] newWorkers(int count) {
+        return (Worker<T>[]) new Worker<?>[count];
+    }
+
+    /**
+     * Queues {@code task} on the worker {@code routingHash} maps to.
+     *
+     * @throws RejectedExecutionException after {@link #shutdownNow()}
+     */
+    void execute(T task, int routingHash) {
+        if (shutdown) {
+            throw new RejectedExecutionException("Executor shut down");
+        }
+        Worker<T> owner = workers[Math.floorMod(spread(routingHash), workers.length)];
+        int queued = owner.push(task);
+        if (owner.idle) {
+            LockSupport.unpark(owner.thread);
+        } else if (queued > 1) {
+            wakeIdle(owner);
+        }
+    }
+
+    /**
+     * Queues {@code task} on the calling worker, or on a random one when called from outside the pool.
+     */
+    void execute(T task) {
+        Thread current = Thread.currentThread();
+        for (Worker<T> worker : workers) {
+            if (worker.thread == current) {
+                execute(task, worker.index);
+                return;
+            }
+        }
+        execute(task, ThreadLocalRandom.current().nextInt());
+    }
+
+    /**
+     * Tasks a worker took from another worker's queue.
+     */
+    long stolenCount() {
+        return stolen.sum();
+    }
+
+    /**
+     * Stops every worker; queued tasks are dropped and running ones interrupted.
+     */
+    void shutdownNow() {
+        shutdown = true;
+        for (Worker<T> worker : workers) {
+            worker.thread.interrupt();
+        }
+    }
+
+    /**
+     * Mixes the high bits in, as {@link java.util.HashMap} does.
+     */
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private void runWorker(Worker<T> worker) {
+        while (!shutdown) {
+            T task = next(worker);
+            if (task == null) {
+                worker.idle = true;
+                task = next(worker);
+                if (task == null && !shutdown) {
+                    LockSupport.park(this);
+                }
+                worker.idle = false;
+                if (task == null) {
+                    continue;
+                }
+            }
+            if (worker.source.queued() > 1 || worker.queued() > 1) {
+                wakeIdle(worker);
+            }
+            Thread.interrupted();
+            try {
+                task.run();
+            } catch (Throwable failure) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, failure);
+            }
+        }
+    }
+
+    private T next(Worker<T> worker) {
+        T task = worker.poll();
+        if (task != null) {
+            worker.source = worker;
+            return task;
+        }
+        int start = ThreadLocalRandom.current().nextInt(workers.length);
+        for (int i = 0; i < workers.length; i++) {
+            Worker<T> victim = workers[(start + i) % workers.length];
+            if (victim != worker && (task = victim.poll()) != null) {
+                worker.source = victim;
+                stolen.increment();
+                return task;
+            }
+        }
+        return null;
+    }
+
+    private void wakeIdle(Worker<T> except) {
+        for (Worker<T> worker : workers) {
+            if (worker != except && worker.idle) {
+                LockSupport.unpark(worker.thread);
+                return;
+            }
+        }
+    }
+
+    private static final class Worker<T extends Comparable<? super T>> {
+        private final int index;
+        private final PriorityQueue<T> queue = new PriorityQueue<>();
+        private Thread thread;
+        private volatile boolean idle;
+        /**
+         * Only touched by this worker's thread.
+         */
+        private Worker<T> source;
+
+        private Worker(int index) {
+            this.index = index;
+        }
+
+        private synchronized int push(T task) {
+            queue.add(task);
+            return queue.size();
+        }
+
+        private synchronized T poll() {
+            return queue.poll();
+        }
+
+        private synchronized int queued() {
+            return queue.size();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.core;
+
+public enum WorkerMode {
+    /**
+     * A fixed pool of {@code workerCount} platform threads.
+     */
+    PLATFORM_POOL,
+    /**
+     * {@code workerCount} platform threads, each with its own queue, stealing from the others when theirs
+     * runs dry. Jobs are routed by their first resource, so jobs on the same resource tend to run on the
+     * same worker.
+     */
+    WORK_STEALING,
+    /**
+     * One virtual thread per job. Requires Java 21 or newer at runtime.
+     */
+    VIRTUAL_PER_JOB
+}
@@ -0,0 +1,87 @@
+package com.domain;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A typed key for {@link JobExecutionContext#get(ContextKey)}. Every key gets a small, dense slot index
+ * when it is created, so a context can keep its values in an array and look one up with a single load,
+ * without boxing the result in an {@link Optional} or comparing strings. Keys are interned by name: asking
+ * for the same name twice returns the same key, which is what lets the string lookups of
+ * {@link JobExecutionContext#find(String, Class)} map onto slots through {@link #find}.
+ */
+public final class ContextKey<T> {
+    private static final AtomicInteger NEXT_INDEX = new AtomicInteger();
+    private static final ConcurrentMap<String, ContextKey<?>> BY_NAME = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final Class<T> type;
+    private final int index;
+
+    private ContextKey(String name, Class<T> type, int index) {
+        this.name = name;
+        this.type = type;
+        this.index = index;
+    }
+
+    /**
+     * The key called {@code name}, created on first use.
+     *
+     * @throws IllegalArgumentException when a key of that name already exists for another type
+     */
+    public static <T> ContextKey<T> of(String name, Class<T> type) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(type, "type");
+        ContextKey<?> key = BY_NAME.computeIfAbsent(name, ignored -> new ContextKey<>(name, type, NEXT_INDEX.getAndIncrement()));
+        if (key.type != type) {
+            throw new IllegalArgumentException("Context key " + name + " already exists for " + key.type.getName());
+        }
+        @SuppressWarnings("unchecked")
+        ContextKey<T> typed = (ContextKey<T>) key;
+        return typed;
+    }
+
+    /**
+     * The key called {@code name}, if one was ever created.
+     */
+    public static Optional<ContextKey<?>> named(String name) {
+        return Optional.ofNullable(BY_NAME.get(name));
+    }
+
+    /**
+     * String lookup on top of {@link JobExecutionContext#get(ContextKey)}, for contexts that store their
+     * values by key: finds the key of that name and checks the value against {@code type}.
+     */
+    public static <T> Optional<T> find(JobExecutionContext context, String name, Class<T> type) {
+        ContextKey<?> key = BY_NAME.get(name);
+        Object value = key == null ? null : context.get(key);
+        return type.isInstance(value) ? Optional.of(type.cast(value)) : Optional.empty();
+    }
+
+    /**
+     * Number of slot indexes handed out so far; an array of this size holds a slot for every existing key.
+     */
+    public static int count() {
+        return NEXT_INDEX.get();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public Class<T> type() {
+        return type;
+    }
+
+    public int index() {
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return "ContextKey[" + name + ": " + type.getSimpleName() + "]";
+    }
+}
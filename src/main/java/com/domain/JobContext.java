@@ -2,7 +2,9 @@ package com.domain;
 
 import java.time.Duration;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 public final class JobContext {
@@ -10,12 +12,26 @@ public final class JobContext {
     private final Duration timeout;
     private final RetryPolicy retryPolicy;
     private final List<Resource> resources;
+    private final Map<Resource, LockMode> lockModes;
 
+    /**
+     * Locks every resource in {@link LockMode#EXCLUSIVE} mode.
+     */
     public JobContext(String id, Duration timeout, RetryPolicy retryPolicy, List<Resource> resources) {
+        this(id, timeout, retryPolicy, exclusive(Objects.requireNonNull(resources, "resources")));
+    }
+
+    public JobContext(String id, Duration timeout, RetryPolicy retryPolicy, Map<Resource, LockMode> lockModes) {
         this.id = Objects.requireNonNull(id, "id");
         this.timeout = Objects.requireNonNull(timeout, "timeout");
         this.retryPolicy = Objects.requireNonNull(retryPolicy, "retryPolicy");
-        this.resources = List.copyOf(Objects.requireNonNull(resources, "resources"));
+        Map<Resource, LockMode> copy = new LinkedHashMap<>(Objects.requireNonNull(lockModes, "lockModes"));
+        copy.forEach((resource, mode) -> {
+            Objects.requireNonNull(resource, "resource");
+            Objects.requireNonNull(mode, "mode");
+        });
+        this.lockModes = Collections.unmodifiableMap(copy);
+        this.resources = List.copyOf(copy.keySet());
     }
 
     public String id() {
@@ -33,4 +49,23 @@ public final class JobContext {
     public List<Resource> resources() {
         return resources;
     }
+
+    /**
+     * Resources in declaration order with the mode each one is locked in.
+     */
+    public Map<Resource, LockMode> lockModes() {
+        return lockModes;
+    }
+
+    public LockMode lockMode(Resource resource) {
+        return lockModes.getOrDefault(resource, LockMode.EXCLUSIVE);
+    }
+
+    private static Map<Resource, LockMode> exclusive(List<Resource> resources) {
+        Map<Resource, LockMode> lockModes = new LinkedHashMap<>();
+        for (Resource resource : resources) {
+            lockModes.put(resource, LockMode.EXCLUSIVE);
+        }
+        return lockModes;
+    }
 }
@@ -5,6 +5,15 @@ import java.util.Optional;
 public interface JobExecutionContext extends AutoCloseable {
     <T> Optional<T> find(String key, Class<T> type);
 
+    /**
+     * The value stored under {@code key}, or {@code null} when there is none. Unlike
+     * {@link #find(String, Class)} this allocates nothing once a context overrides it with a slot lookup;
+     * the default goes through {@link #find(String, Class)} so existing contexts keep working.
+     */
+    default <T> T get(ContextKey<T> key) {
+        return find(key.name(), key.type()).orElse(null);
+    }
+
     @Override
     void close() throws Exception;
 }
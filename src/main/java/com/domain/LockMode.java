@@ -0,0 +1,69 @@
+package com.domain;
+
+/**
+ * Lock modes for hierarchical resources. {@link #INTENTION_SHARED} and {@link #INTENTION_EXCLUSIVE} are
+ * taken on every ancestor of a resource locked {@link #SHARED} or {@link #EXCLUSIVE}, so a lock on a parent
+ * conflicts with locks on its children without visiting them.
+ */
+public enum LockMode {
+    SHARED,
+    EXCLUSIVE,
+    INTENTION_SHARED,
+    INTENTION_EXCLUSIVE;
+
+    /**
+     * Whether two different jobs may hold a resource in these modes at the same time.
+     */
+    public boolean isCompatibleWith(LockMode other) {
+        switch (this) {
+            case INTENTION_SHARED:
+                return other != EXCLUSIVE;
+            case INTENTION_EXCLUSIVE:
+                return other == INTENTION_SHARED || other == INTENTION_EXCLUSIVE;
+            case SHARED:
+                return other == INTENTION_SHARED || other == SHARED;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Whether holding a resource in this mode already satisfies a request for {@code requested}.
+     */
+    public boolean covers(LockMode requested) {
+        switch (this) {
+            case EXCLUSIVE:
+                return true;
+            case SHARED:
+            case INTENTION_EXCLUSIVE:
+                return requested == this || requested == INTENTION_SHARED;
+            default:
+                return requested == INTENTION_SHARED;
+        }
+    }
+
+    /**
+     * The weakest mode that covers both this mode and {@code other}. Shared plus intention-exclusive has no
+     * dedicated mode here and becomes {@link #EXCLUSIVE}.
+     */
+    public LockMode combine(LockMode other) {
+        if (covers(other)) {
+            return this;
+        }
+        return other.covers(this) ? other : EXCLUSIVE;
+    }
+
+    /**
+     * The mode to take on the ancestors of a resource locked in this mode.
+     */
+    public LockMode intention() {
+        return this == SHARED || this == INTENTION_SHARED ? INTENTION_SHARED : INTENTION_EXCLUSIVE;
+    }
+
+    /**
+     * Whether holding an ancestor in this mode implicitly grants {@code requested} on all of its descendants.
+     */
+    public boolean coversDescendants(LockMode requested) {
+        return (this == SHARED || this == EXCLUSIVE) && covers(requested);
+    }
+}
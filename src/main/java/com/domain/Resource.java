@@ -2,7 +2,13 @@ package com.domain;
 
 import java.util.Objects;
 
+/**
+ * A lockable resource. Ids may form a hierarchy separated by {@code '/'}, such as {@code tenant/42/orders/7};
+ * locking a resource implies intention locks on each of its ancestors.
+ */
 public final class Resource implements Comparable<Resource> {
+    public static final char SEPARATOR = '/';
+
     private final String id;
 
     public Resource(String id) {
@@ -13,6 +19,28 @@ public final class Resource implements Comparable<Resource> {
         return id;
     }
 
+    /**
+     * The enclosing resource, or {@code null} for a top-level resource.
+     */
+    public Resource parent() {
+        int index = id.lastIndexOf(SEPARATOR);
+        return index <= 0 ? null : new Resource(id.substring(0, index));
+    }
+
+    public boolean hasParent() {
+        return id.lastIndexOf(SEPARATOR) > 0;
+    }
+
+    public boolean isAncestorOf(Resource other) {
+        return other.id.length() > id.length()
+                && other.id.startsWith(id)
+                && other.id.charAt(id.length()) == SEPARATOR;
+    }
+
+    /**
+     * Ids compare lexicographically, so an ancestor always sorts before its descendants and locks taken in
+     * natural order follow the hierarchy from the root down.
+     */
     @Override
     public int compareTo(Resource other) {
         return this.id.compareTo(other.id);
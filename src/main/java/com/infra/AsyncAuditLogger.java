@@ -0,0 +1,381 @@
+package com.infra;
+
+import com.core.JobState;
+import com.domain.Resource;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Decorates an {@link AuditLogger} so callers only copy the event fields into a preallocated slot of a
+ * lock-free ring buffer. A single background thread drains the buffer in batches and replays the events
+ * to the delegate, which therefore never sees concurrent calls. What happens when the buffer is full is
+ * set by {@link AuditOverflowPolicy}. {@link #close()} drains everything that was accepted.
+ * <p>
+ * The buffer is a bounded multi-producer queue in which every slot carries a sequence number: producers
+ * claim a position with a CAS on {@code tail} and publish the slot by advancing its sequence, the writer
+ * frees it by advancing the sequence one lap further. On close, once it has caught up, the writer seals
+ * {@code tail} by setting its sign bit, so a producer that passed the {@code closed} check before the close
+ * either claims its slot before the seal, and the writer drains it, or fails its CAS and drops the event.
+ */
+public class AsyncAuditLogger implements AuditLogger, AutoCloseable {
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SEALED = Long.MIN_VALUE;
+
+    private final AuditLogger delegate;
+    private final Slot[] slots;
+    private final int mask;
+    private final int batchSize;
+    private final AuditOverflowPolicy overflowPolicy;
+    private final int sampleRate;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong overflowed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private long head;
+    private volatile boolean closed;
+
+    public AsyncAuditLogger(AuditLogger delegate) {
+        this(builder(delegate));
+    }
+
+    private AsyncAuditLogger(Builder builder) {
+        this.delegate = builder.delegate;
+        this.slots = new Slot[builder.capacity];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new Slot(i);
+        }
+        this.mask = builder.capacity - 1;
+        this.batchSize = builder.batchSize;
+        this.overflowPolicy = builder.overflowPolicy;
+        this.sampleRate = builder.sampleRate;
+        this.writer = new Thread(this::drainLoop, "audit-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public static Builder builder(AuditLogger delegate) {
+        return new Builder(delegate);
+    }
+
+    @Override
+    public void jobStateChanged(String jobId, JobState state, String message) {
+        Slot slot = claim();
+        if (slot != null) {
+            slot.type = AuditEventType.JOB_STATE_CHANGED;
+            slot.jobId = jobId;
+            slot.state = state;
+            slot.text = message;
+            publish(slot);
+        }
+    }
+
+    /**
+     * Claims a run of slots with a single CAS when enough are free, and falls back to one claim per event
+     * when the buffer is contended or nearly full.
+     */
+    @Override
+    public void jobStatesChanged(List<String> jobIds, JobState state, String message) {
+        int next = 0;
+        while (next < jobIds.size()) {
+            int run = Math.min(jobIds.size() - next, slots.length);
+            long position = claimRun(run);
+            if (position < 0) {
+                jobStateChanged(jobIds.get(next++), state, message);
+                continue;
+            }
+            for (int i = 0; i < run; i++) {
+                Slot slot = slots[(int) (position + i) & mask];
+                slot.type = AuditEventType.JOB_STATE_CHANGED;
+                slot.jobId = jobIds.get(next + i);
+                slot.state = state;
+                slot.text = message;
+                publish(slot);
+            }
+            next += run;
+        }
+    }
+
+    @Override
+    public void lockWaiting(String jobId, Resource resource, String owner) {
+        Slot slot = claim();
+        if (slot != null) {
+            slot.type = AuditEventType.LOCK_WAITING;
+            slot.jobId = jobId;
+            slot.resource = resource;
+            slot.text = owner;
+            publish(slot);
+        }
+    }
+
+    @Override
+    public void lockAcquired(String jobId, Resource resource) {
+        Slot slot = claim();
+        if (slot != null) {
+            slot.type = AuditEventType.LOCK_ACQUIRED;
+            slot.jobId = jobId;
+            slot.resource = resource;
+            publish(slot);
+        }
+    }
+
+    @Override
+    public void lockReleased(String jobId, Resource resource) {
+        Slot slot = claim();
+        if (slot != null) {
+            slot.type = AuditEventType.LOCK_RELEASED;
+            slot.jobId = jobId;
+            slot.resource = resource;
+            publish(slot);
+        }
+    }
+
+    @Override
+    public void retryScheduled(String jobId, int attempt, long delayMillis, Exception cause) {
+        Slot slot = claim();
+        if (slot != null) {
+            slot.type = AuditEventType.RETRY_SCHEDULED;
+            slot.jobId = jobId;
+            slot.attempt = attempt;
+            slot.delayMillis = delayMillis;
+            slot.cause = cause;
+            publish(slot);
+        }
+    }
+
+    @Override
+    public void deadlockDetected(String jobId, String details) {
+        Slot slot = claim();
+        if (slot != null) {
+            slot.type = AuditEventType.DEADLOCK_DETECTED;
+            slot.jobId = jobId;
+            slot.text = details;
+            publish(slot);
+        }
+    }
+
+    /**
+     * Events discarded because the buffer was full.
+     */
+    public long droppedEvents() {
+        return dropped.get();
+    }
+
+    /**
+     * Stops accepting events, waits for the writer to replay everything already accepted and stops it.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(writer);
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException interruptedException) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns a free slot for the caller to fill, or {@code null} when the event is discarded.
+     */
+    private Slot claim() {
+        if (closed) {
+            dropped.incrementAndGet();
+            return null;
+        }
+        boolean sampled = false;
+        while (true) {
+            long position = tail.get();
+            if ((position & SEALED) != 0) {
+                dropped.incrementAndGet();
+                return null;
+            }
+            Slot slot = slots[(int) position & mask];
+            long sequence = slot.sequence;
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    return slot;
+                }
+            } else if (sequence < position) {
+                if (closed || !sampled && !admitWhenFull()) {
+                    dropped.incrementAndGet();
+                    return null;
+                }
+                sampled = true;
+                Thread.onSpinWait();
+                LockSupport.unpark(writer);
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * Claims {@code count} consecutive positions, or returns {@code -1} without claiming anything. The
+     * writer frees slots in order, so when the last slot of the run is free all slots before it are too.
+     */
+    private long claimRun(int count) {
+        if (closed) {
+            return -1;
+        }
+        long position = tail.get();
+        if ((position & SEALED) != 0) {
+            return -1;
+        }
+        long last = position + count - 1;
+        if (slots[(int) last & mask].sequence == last && tail.compareAndSet(position, position + count)) {
+            return position;
+        }
+        return -1;
+    }
+
+    private boolean admitWhenFull() {
+        switch (overflowPolicy) {
+            case BLOCK:
+                return true;
+            case SAMPLE:
+                return overflowed.getAndIncrement() % sampleRate == 0;
+            default:
+                return false;
+        }
+    }
+
+    private void publish(Slot slot) {
+        slot.sequence = slot.sequence + 1;
+    }
+
+    private void drainLoop() {
+        while (true) {
+            int drained = drainBatch();
+            if (drained == 0) {
+                if (closed && tail.compareAndSet(head, head | SEALED)) {
+                    return;
+                }
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private int drainBatch() {
+        int drained = 0;
+        while (drained < batchSize) {
+            Slot slot = slots[(int) head & mask];
+            if (slot.sequence != head + 1) {
+                break;
+            }
+            replay(slot);
+            slot.clear();
+            slot.sequence = head + slots.length;
+            head++;
+            drained++;
+        }
+        return drained;
+    }
+
+    private void replay(Slot slot) {
+        try {
+            switch (slot.type) {
+                case JOB_STATE_CHANGED -> delegate.jobStateChanged(slot.jobId, slot.state, slot.text);
+                case LOCK_WAITING -> delegate.lockWaiting(slot.jobId, slot.resource, slot.text);
+                case LOCK_ACQUIRED -> delegate.lockAcquired(slot.jobId, slot.resource);
+                case LOCK_RELEASED -> delegate.lockReleased(slot.jobId, slot.resource);
+                case RETRY_SCHEDULED -> delegate.retryScheduled(slot.jobId, slot.attempt, slot.delayMillis, slot.cause);
+                case DEADLOCK_DETECTED -> delegate.deadlockDetected(slot.jobId, slot.text);
+            }
+        } catch (Throwable failure) {
+            // A failing delegate, even one throwing an Error, must not stop the writer: producers blocked
+            // on a full buffer would wait for it forever. The event is lost like a dropped one.
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * One preallocated event. The fields are written by the producer that claimed the slot and published
+     * to the writer by the volatile write of {@code sequence}.
+     */
+    private static final class Slot {
+        private volatile long sequence;
+        private AuditEventType type;
+        private String jobId;
+        private Resource resource;
+        private String text;
+        private JobState state;
+        private int attempt;
+        private long delayMillis;
+        private Exception cause;
+
+        private Slot(long sequence) {
+            this.sequence = sequence;
+        }
+
+        private void clear() {
+            jobId = null;
+            resource = null;
+            text = null;
+            state = null;
+            cause = null;
+        }
+    }
+
+    public static final class Builder {
+        private final AuditLogger delegate;
+        private int capacity = 8192;
+        private int batchSize = 256;
+        private AuditOverflowPolicy overflowPolicy = AuditOverflowPolicy.BLOCK;
+        private int sampleRate = 100;
+
+        private Builder(AuditLogger delegate) {
+            this.delegate = Objects.requireNonNull(delegate, "delegate");
+        }
+
+        /**
+         * Number of slots in the ring buffer; must be a power of two.
+         */
+        public Builder capacity(int capacity) {
+            if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+                throw new IllegalArgumentException("capacity must be a positive power of two");
+            }
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * Maximum number of events the writer replays before checking for shutdown again.
+         */
+        public Builder batchSize(int batchSize) {
+            if (batchSize <= 0) {
+                throw new IllegalArgumentException("batchSize must be positive");
+            }
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public Builder overflowPolicy(AuditOverflowPolicy overflowPolicy) {
+            this.overflowPolicy = Objects.requireNonNull(overflowPolicy, "overflowPolicy");
+            return this;
+        }
+
+        /**
+         * For {@link AuditOverflowPolicy#SAMPLE}: keep one in this many events while the buffer is full.
+         */
+        public Builder sampleRate(int sampleRate) {
+            if (sampleRate <= 0) {
+                throw new IllegalArgumentException("sampleRate must be positive");
+            }
+            this.sampleRate = sampleRate;
+            return this;
+        }
+
+        public AsyncAuditLogger build() {
+            return new AsyncAuditLogger(this);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.infra;
+
+/**
+ * The kinds of {@link AuditLogger} events. Ordinals are written to {@link BinaryAuditJournal} segments, so
+ * new types must only be appended.
+ */
+public enum AuditEventType {
+    JOB_STATE_CHANGED,
+    LOCK_WAITING,
+    LOCK_ACQUIRED,
+    LOCK_RELEASED,
+    RETRY_SCHEDULED,
+    DEADLOCK_DETECTED
+}
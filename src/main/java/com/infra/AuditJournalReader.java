@@ -0,0 +1,107 @@
+package com.infra;
+
+import com.core.JobState;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Streams the records of a {@link BinaryAuditJournal} directory in write order, one segment mapped at a
+ * time. Each segment ends at the first record whose length is zero, which also skips a record torn by a
+ * crash.
+ */
+public class AuditJournalReader implements Iterator<AuditRecord> {
+    private static final AuditEventType[] TYPES = AuditEventType.values();
+    private static final JobState[] STATES = JobState.values();
+
+    private final Iterator<Path> segments;
+    private MappedByteBuffer segment;
+
+    public AuditJournalReader(Path directory) {
+        try {
+            List<Path> paths = BinaryAuditJournal.segments(directory);
+            this.segments = paths.iterator();
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (segment == null || !hasRecord()) {
+            if (!segments.hasNext()) {
+                return false;
+            }
+            segment = map(segments.next());
+        }
+        return true;
+    }
+
+    @Override
+    public AuditRecord next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        int start = segment.position();
+        int length = segment.getInt();
+        AuditEventType type = TYPES[segment.get()];
+        long epochMillis = segment.getLong();
+        String jobId = getString();
+        JobState state = null;
+        String resourceId = null;
+        String text = null;
+        int attempt = 0;
+        long delayMillis = 0;
+        String causeType = null;
+        switch (type) {
+            case JOB_STATE_CHANGED -> {
+                state = STATES[segment.get()];
+                text = getString();
+            }
+            case LOCK_WAITING -> {
+                resourceId = getString();
+                text = getString();
+            }
+            case LOCK_ACQUIRED, LOCK_RELEASED -> resourceId = getString();
+            case RETRY_SCHEDULED -> {
+                attempt = segment.getInt();
+                delayMillis = segment.getLong();
+                causeType = getString();
+                text = getString();
+            }
+            case DEADLOCK_DETECTED -> text = getString();
+        }
+        segment.position(start + length);
+        return new AuditRecord(type, epochMillis, jobId, state, resourceId, text, attempt, delayMillis, causeType);
+    }
+
+    private boolean hasRecord() {
+        return segment.remaining() >= Integer.BYTES && segment.getInt(segment.position()) > 0;
+    }
+
+    private String getString() {
+        int length = segment.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        segment.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static MappedByteBuffer map(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+    }
+}
@@ -3,9 +3,20 @@ package com.infra;
 import com.core.JobState;
 import com.domain.Resource;
 
+import java.util.List;
+
 public interface AuditLogger {
     void jobStateChanged(String jobId, JobState state, String message);
 
+    /**
+     * The same state change for several jobs at once, e.g. a batch being queued.
+     */
+    default void jobStatesChanged(List<String> jobIds, JobState state, String message) {
+        for (String jobId : jobIds) {
+            jobStateChanged(jobId, state, message);
+        }
+    }
+
     void lockWaiting(String jobId, Resource resource, String owner);
 
     void lockAcquired(String jobId, Resource resource);
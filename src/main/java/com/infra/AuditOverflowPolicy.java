@@ -0,0 +1,19 @@
+package com.infra;
+
+/**
+ * What {@link AsyncAuditLogger} does with an event when its ring buffer is full.
+ */
+public enum AuditOverflowPolicy {
+    /**
+     * Wait for the writer to free a slot. No event is lost, but the caller stalls.
+     */
+    BLOCK,
+    /**
+     * Discard the event and count it.
+     */
+    DROP,
+    /**
+     * Keep one event in every {@code sampleRate} and wait for room for it; discard and count the rest.
+     */
+    SAMPLE
+}
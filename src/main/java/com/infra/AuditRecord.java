@@ -0,0 +1,78 @@
+package com.infra;
+
+import com.core.JobState;
+
+/**
+ * One event read back from a {@link BinaryAuditJournal}. Fields that do not apply to the event's
+ * {@link #type()} are {@code null} or zero.
+ */
+public final class AuditRecord {
+    private final AuditEventType type;
+    private final long epochMillis;
+    private final String jobId;
+    private final JobState state;
+    private final String resourceId;
+    private final String text;
+    private final int attempt;
+    private final long delayMillis;
+    private final String causeType;
+
+    AuditRecord(AuditEventType type, long epochMillis, String jobId, JobState state, String resourceId,
+                String text, int attempt, long delayMillis, String causeType) {
+        this.type = type;
+        this.epochMillis = epochMillis;
+        this.jobId = jobId;
+        this.state = state;
+        this.resourceId = resourceId;
+        this.text = text;
+        this.attempt = attempt;
+        this.delayMillis = delayMillis;
+        this.causeType = causeType;
+    }
+
+    public AuditEventType type() {
+        return type;
+    }
+
+    public long epochMillis() {
+        return epochMillis;
+    }
+
+    public String jobId() {
+        return jobId;
+    }
+
+    public JobState state() {
+        return state;
+    }
+
+    public String resourceId() {
+        return resourceId;
+    }
+
+    /**
+     * The state change message, the lock owner waited on, the deadlock details or the retry cause message.
+     */
+    public String text() {
+        return text;
+    }
+
+    public int attempt() {
+        return attempt;
+    }
+
+    public long delayMillis() {
+        return delayMillis;
+    }
+
+    public String causeType() {
+        return causeType;
+    }
+
+    @Override
+    public String toString() {
+        return "AuditRecord{" + "type=" + type + ", epochMillis=" + epochMillis + ", jobId='" + jobId + '\''
+                + ", state=" + state + ", resourceId='" + resourceId + '\'' + ", text='" + text + '\''
+                + ", attempt=" + attempt + ", delayMillis=" + delayMillis + ", causeType='" + causeType + '\'' + '}';
+    }
+}
@@ -0,0 +1,257 @@
+package com.infra;
+
+import com.core.JobState;
+import com.domain.Resource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Writes every audit event as a compact binary record into fixed-size, memory-mapped segment files,
+ * rolling over to a new segment when the current one is full. Strings are UTF-8 encoded straight into the
+ * mapping, so appending an event allocates nothing. Read the journal back with {@link AuditJournalReader}.
+ * <p>
+ * Record layout: {@code int length, byte type, long epochMillis, string jobId}, followed by the
+ * type-specific fields. A string is an {@code int} byte count ({@code -1} for {@code null}) and its UTF-8
+ * bytes, truncated to {@value #MAX_STRING_CHARS} characters. The length is written last, so a record torn
+ * by a crash reads as the end of the segment.
+ * <p>
+ * Appends are serialized by the journal's monitor. To keep that off the hot path, wrap the journal in an
+ * {@link AsyncAuditLogger} so a single thread writes it.
+ */
+public class BinaryAuditJournal implements AuditLogger, AutoCloseable {
+    public static final int DEFAULT_SEGMENT_BYTES = 64 * 1024 * 1024;
+    static final int MIN_SEGMENT_BYTES = 64 * 1024;
+    static final int MAX_STRING_CHARS = 4096;
+    static final String SEGMENT_PREFIX = "audit-";
+    static final String SEGMENT_SUFFIX = ".seg";
+    static final Pattern SEGMENT_NAME = Pattern.compile("audit-\\d{10}\\.seg");
+
+    private static final int HEADER_BYTES = Integer.BYTES + Byte.BYTES + Long.BYTES;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private MappedByteBuffer segment;
+    private long segmentIndex;
+    private boolean closed;
+
+    public BinaryAuditJournal(Path directory) {
+        this(directory, DEFAULT_SEGMENT_BYTES);
+    }
+
+    /**
+     * Starts a new segment after any segments already in {@code directory}; existing segments are never
+     * appended to.
+     */
+    public BinaryAuditJournal(Path directory, int segmentBytes) {
+        if (segmentBytes < MIN_SEGMENT_BYTES) {
+            throw new IllegalArgumentException("segmentBytes must be at least " + MIN_SEGMENT_BYTES);
+        }
+        this.directory = Objects.requireNonNull(directory, "directory");
+        this.segmentBytes = segmentBytes;
+        try {
+            Files.createDirectories(directory);
+            List<Path> existing = segments(directory);
+            this.segmentIndex = existing.isEmpty() ? 0 : indexOf(existing.get(existing.size() - 1));
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+        roll();
+    }
+
+    @Override
+    public synchronized void jobStateChanged(String jobId, JobState state, String message) {
+        if (begin(AuditEventType.JOB_STATE_CHANGED, jobId, Byte.BYTES + stringBytes(message))) {
+            segment.put((byte) state.ordinal());
+            putString(message);
+            end();
+        }
+    }
+
+    /**
+     * Appends all events under one acquisition of the journal's monitor.
+     */
+    @Override
+    public synchronized void jobStatesChanged(List<String> jobIds, JobState state, String message) {
+        for (String jobId : jobIds) {
+            jobStateChanged(jobId, state, message);
+        }
+    }
+
+    @Override
+    public synchronized void lockWaiting(String jobId, Resource resource, String owner) {
+        if (begin(AuditEventType.LOCK_WAITING, jobId, stringBytes(resource.id()) + stringBytes(owner))) {
+            putString(resource.id());
+            putString(owner);
+            end();
+        }
+    }
+
+    @Override
+    public synchronized void lockAcquired(String jobId, Resource resource) {
+        if (begin(AuditEventType.LOCK_ACQUIRED, jobId, stringBytes(resource.id()))) {
+            putString(resource.id());
+            end();
+        }
+    }
+
+    @Override
+    public synchronized void lockReleased(String jobId, Resource resource) {
+        if (begin(AuditEventType.LOCK_RELEASED, jobId, stringBytes(resource.id()))) {
+            putString(resource.id());
+            end();
+        }
+    }
+
+    @Override
+    public synchronized void retryScheduled(String jobId, int attempt, long delayMillis, Exception cause) {
+        String causeType = cause == null ? null : cause.getClass().getName();
+        String causeMessage = cause == null ? null : cause.getMessage();
+        int payload = Integer.BYTES + Long.BYTES + stringBytes(causeType) + stringBytes(causeMessage);
+        if (begin(AuditEventType.RETRY_SCHEDULED, jobId, payload)) {
+            segment.putInt(attempt);
+            segment.putLong(delayMillis);
+            putString(causeType);
+            putString(causeMessage);
+            end();
+        }
+    }
+
+    @Override
+    public synchronized void deadlockDetected(String jobId, String details) {
+        if (begin(AuditEventType.DEADLOCK_DETECTED, jobId, stringBytes(details))) {
+            putString(details);
+            end();
+        }
+    }
+
+    /**
+     * Flushes the current segment to disk. Events written after {@link #close()} are ignored.
+     */
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            segment.force();
+            segment = null;
+        }
+    }
+
+    static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> SEGMENT_NAME.matcher(path.getFileName().toString()).matches())
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static long indexOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Reserves room for a record and writes its header except the length. Returns {@code false} once the
+     * journal is closed.
+     */
+    private boolean begin(AuditEventType type, String jobId, int payloadBytes) {
+        if (closed) {
+            return false;
+        }
+        int recordBytes = HEADER_BYTES + stringBytes(jobId) + payloadBytes;
+        if (segment.remaining() < recordBytes) {
+            segment.force();
+            roll();
+        }
+        segment.mark();
+        segment.position(segment.position() + Integer.BYTES);
+        segment.put((byte) type.ordinal());
+        segment.putLong(System.currentTimeMillis());
+        putString(jobId);
+        return true;
+    }
+
+    /**
+     * Publishes the record by writing its length at the start.
+     */
+    private void end() {
+        int next = segment.position();
+        segment.reset();
+        int start = segment.position();
+        segment.putInt(start, next - start);
+        segment.position(next);
+    }
+
+    private void roll() {
+        segmentIndex++;
+        Path path = directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, segmentIndex, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+    }
+
+    private static int stringBytes(String value) {
+        if (value == null) {
+            return Integer.BYTES;
+        }
+        int length = Math.min(value.length(), MAX_STRING_CHARS);
+        int bytes = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return Integer.BYTES + bytes;
+    }
+
+    private void putString(String value) {
+        if (value == null) {
+            segment.putInt(-1);
+            return;
+        }
+        int lengthAt = segment.position();
+        segment.position(lengthAt + Integer.BYTES);
+        int length = Math.min(value.length(), MAX_STRING_CHARS);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                segment.put((byte) c);
+            } else if (c < 0x800) {
+                segment.put((byte) (0xC0 | c >> 6));
+                segment.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                segment.put((byte) (0xF0 | codePoint >> 18));
+                segment.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                segment.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                segment.put((byte) (0x80 | codePoint & 0x3F));
+            } else {
+                segment.put((byte) (0xE0 | c >> 12));
+                segment.put((byte) (0x80 | c >> 6 & 0x3F));
+                segment.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+        segment.putInt(lengthAt, segment.position() - lengthAt - Integer.BYTES);
+    }
+}
@@ -0,0 +1,322 @@
+package com.infra;
+
+import com.core.JobState;
+import com.core.JobStore;
+import com.core.JobSubmission;
+import com.core.StoredJob;
+import com.domain.JobContext;
+import com.domain.LockMode;
+import com.domain.Resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * {@link JobStore} backed by a local write-ahead log, {@code jobs.wal}. Each entry is framed as
+ * {@code int length, int crc32, payload}; a group of entries is written with one {@code write} and made
+ * durable with one {@code force}. On open the log is replayed up to the first torn or corrupt entry, and
+ * then compacted to just the unfinished jobs so it does not grow without bound across restarts. While
+ * the store is open, a flush that takes the log past its compaction threshold compacts it again, so a
+ * long-running engine's log stays proportional to its unfinished jobs. The threshold is
+ * {@code compactionThresholdBytes}, or twice the size the last compaction left, whichever is larger.
+ * A group that fails to write is cut off the log again, so later groups never land behind a torn entry; if
+ * even that fails, the store refuses further writes.
+ */
+public class FileJobStore implements JobStore {
+    static final String LOG_FILE = "jobs.wal";
+    static final long DEFAULT_COMPACTION_THRESHOLD_BYTES = 64L * 1024 * 1024;
+
+    private static final byte SUBMITTED = 1;
+    private static final byte TRANSITIONED = 2;
+    private static final JobState[] STATES = JobState.values();
+    private static final LockMode[] MODES = LockMode.values();
+
+    private final Path log;
+    private final long compactionThresholdBytes;
+    private final List<StoredJob> unfinished;
+    /**
+     * Replaced when the log is compacted, which only happens inside a flush.
+     */
+    private volatile FileChannel channel;
+    private long compactAtBytes;
+    private boolean renameSynced = true;
+    private IOException damaged;
+    private final GroupCommit<byte[]> groupCommit = new GroupCommit<>() {
+        @Override
+        protected void flush(List<byte[]> batch) throws IOException {
+            if (damaged != null) {
+                throw new IOException("Job log could not be repaired after a failed write", damaged);
+            }
+            int size = 0;
+            for (byte[] entry : batch) {
+                size += entry.length;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            for (byte[] entry : batch) {
+                buffer.put(entry);
+            }
+            buffer.flip();
+            long start = channel.size();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+                if (!renameSynced) {
+                    syncDirectory(log.getParent());
+                    renameSynced = true;
+                }
+            } catch (IOException writeFailure) {
+                try {
+                    channel.truncate(start);
+                    channel.force(false);
+                } catch (IOException truncateFailure) {
+                    writeFailure.addSuppressed(truncateFailure);
+                    damaged = writeFailure;
+                }
+                throw writeFailure;
+            }
+            if (channel.size() >= compactAtBytes) {
+                compactOpenLog();
+            }
+        }
+    };
+
+    public FileJobStore(Path directory) {
+        this(directory, DEFAULT_COMPACTION_THRESHOLD_BYTES);
+    }
+
+    /**
+     * @param compactionThresholdBytes log size at which an open store compacts its log
+     */
+    public FileJobStore(Path directory, long compactionThresholdBytes) {
+        if (compactionThresholdBytes <= 0) {
+            throw new IllegalArgumentException("compactionThresholdBytes must be positive");
+        }
+        this.compactionThresholdBytes = compactionThresholdBytes;
+        this.log = directory.resolve(LOG_FILE);
+        try {
+            Files.createDirectories(directory);
+            this.unfinished = List.copyOf(replay(log));
+            Files.move(writeCompacted(log, unfinished), log, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory(directory);
+            this.channel = FileChannel.open(log, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            this.compactAtBytes = nextCompaction(channel.size());
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+    }
+
+    @Override
+    public void submitted(String jobType, JobContext context) {
+        groupCommit.commit(frame(submission(new StoredJob(
+                context.id(), jobType, context.timeout(), context.lockModes(), JobState.PENDING, 0))));
+    }
+
+    @Override
+    public void submittedAll(List<JobSubmission> submissions) {
+        List<byte[]> frames = new ArrayList<>(submissions.size());
+        for (JobSubmission submission : submissions) {
+            JobContext context = submission.context();
+            frames.add(frame(submission(new StoredJob(
+                    context.id(), submission.jobType(), context.timeout(), context.lockModes(), JobState.PENDING, 0))));
+        }
+        groupCommit.commitAll(frames);
+    }
+
+    @Override
+    public void transitioned(String jobId, JobState state, int attempt) {
+        groupCommit.commit(frame(out -> {
+            out.writeByte(TRANSITIONED);
+            out.writeUTF(jobId);
+            out.writeByte(state.ordinal());
+            out.writeInt(attempt);
+        }));
+    }
+
+    /**
+     * The jobs that were unfinished when the store was opened.
+     */
+    @Override
+    public List<StoredJob> unfinished() {
+        return unfinished;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+    }
+
+    private static List<StoredJob> replay(Path log) throws IOException {
+        Map<String, StoredJob> jobs = new LinkedHashMap<>();
+        if (!Files.exists(log)) {
+            return List.of();
+        }
+        byte[] data = Files.readAllBytes(log);
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        CRC32 crc = new CRC32();
+        while (buffer.remaining() >= 2 * Integer.BYTES) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                break;
+            }
+            crc.reset();
+            crc.update(data, buffer.position(), length);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            apply(jobs, new DataInputStream(new ByteArrayInputStream(data, buffer.position(), length)));
+            buffer.position(buffer.position() + length);
+        }
+        List<StoredJob> unfinished = new ArrayList<>();
+        for (StoredJob job : jobs.values()) {
+            if (!job.state().isTerminal()) {
+                unfinished.add(job);
+            }
+        }
+        return unfinished;
+    }
+
+    private static void apply(Map<String, StoredJob> jobs, DataInputStream in) throws IOException {
+        byte kind = in.readByte();
+        String jobId = in.readUTF();
+        if (kind == SUBMITTED) {
+            String jobType = in.readUTF();
+            Duration timeout = Duration.ofMillis(in.readLong());
+            int count = in.readInt();
+            Map<Resource, LockMode> lockModes = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                LockMode mode = MODES[in.readByte()];
+                lockModes.put(new Resource(in.readUTF()), mode);
+            }
+            JobState state = STATES[in.readByte()];
+            jobs.put(jobId, new StoredJob(jobId, jobType, timeout, lockModes, state, in.readInt()));
+        } else if (kind == TRANSITIONED) {
+            JobState state = STATES[in.readByte()];
+            int attempt = in.readInt();
+            StoredJob job = jobs.get(jobId);
+            if (job != null) {
+                jobs.put(jobId, job.withState(state, attempt));
+            }
+        }
+    }
+
+    /**
+     * Runs inside a flush. The new channel is opened before the rename, so appends never go to a replaced
+     * file; on failure the current log stays in use. A failed directory sync is retried by the next flush.
+     */
+    private void compactOpenLog() throws IOException {
+        FileChannel compactedChannel;
+        try {
+            Path compacted = writeCompacted(log, replay(log));
+            compactedChannel = FileChannel.open(compacted, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            try {
+                Files.move(compacted, log, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException moveFailure) {
+                compactedChannel.close();
+                throw moveFailure;
+            }
+        } catch (IOException ioException) {
+            compactAtBytes = channel.size() + compactionThresholdBytes;
+            return;
+        }
+        FileChannel previous = channel;
+        channel = compactedChannel;
+        previous.close();
+        compactAtBytes = nextCompaction(compactedChannel.size());
+        renameSynced = false;
+        try {
+            syncDirectory(log.getParent());
+            renameSynced = true;
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static void syncDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    private long nextCompaction(long compactedBytes) {
+        return Math.max(compactionThresholdBytes, 2 * compactedBytes);
+    }
+
+    /**
+     * Writes one entry per unfinished job to a file next to the log and returns it, durable.
+     */
+    private static Path writeCompacted(Path log, List<StoredJob> unfinished) throws IOException {
+        Path compacted = log.resolveSibling(LOG_FILE + ".tmp");
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (StoredJob job : unfinished) {
+                ByteBuffer entry = ByteBuffer.wrap(frame(submission(job)));
+                while (entry.hasRemaining()) {
+                    out.write(entry);
+                }
+            }
+            out.force(true);
+        }
+        return compacted;
+    }
+
+    private static EntryWriter submission(StoredJob job) {
+        return out -> {
+            out.writeByte(SUBMITTED);
+            out.writeUTF(job.jobId());
+            out.writeUTF(job.jobType());
+            out.writeLong(job.timeout().toMillis());
+            out.writeInt(job.lockModes().size());
+            for (Map.Entry<Resource, LockMode> entry : job.lockModes().entrySet()) {
+                out.writeByte(entry.getValue().ordinal());
+                out.writeUTF(entry.getKey().id());
+            }
+            out.writeByte(job.state().ordinal());
+            out.writeInt(job.attempt());
+        };
+    }
+
+    private static byte[] frame(EntryWriter writer) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(0);
+            writer.write(out);
+            ByteBuffer entry = ByteBuffer.wrap(bytes.toByteArray());
+            int length = entry.capacity() - 2 * Integer.BYTES;
+            CRC32 crc = new CRC32();
+            crc.update(entry.slice(2 * Integer.BYTES, length));
+            entry.putInt(0, length);
+            entry.putInt(Integer.BYTES, (int) crc.getValue());
+            return entry.array();
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+    }
+
+    private interface EntryWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
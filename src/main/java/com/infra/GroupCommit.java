@@ -0,0 +1,92 @@
+package com.infra;
+
+import com.core.JobStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Leader/follower group commit. A caller adds its entry to the open batch and waits until a flush covers
+ * it. Whoever finds no flush running becomes the leader: it closes the open batch, flushes it without
+ * holding the lock and wakes the batch's callers. Callers arriving meanwhile fill the next batch, so under
+ * load one flush serves many callers and no background thread is needed. Whatever a flush throws, an
+ * {@link Error} included, fails that batch and never leaves the next leader waiting.
+ */
+abstract class GroupCommit<T> {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+    private Batch<T> open = new Batch<>();
+    private boolean flushing;
+
+    /**
+     * Blocks until {@code entry} is durable. Every caller in a failed batch gets a {@link JobStore.StoreException}.
+     */
+    void commit(T entry) {
+        lock.lock();
+        try {
+            Batch<T> batch = open;
+            batch.entries.add(entry);
+            awaitFlushed(batch);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Like {@link #commit(Object)} for several entries, which end up in the same flush.
+     */
+    void commitAll(List<? extends T> entries) {
+        lock.lock();
+        try {
+            Batch<T> batch = open;
+            batch.entries.addAll(entries);
+            awaitFlushed(batch);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits, or leads flushes, until {@code batch} is done. Called and returns with {@link #lock} held.
+     */
+    private void awaitFlushed(Batch<T> batch) {
+        while (!batch.done) {
+            if (flushing) {
+                flushed.awaitUninterruptibly();
+                continue;
+            }
+            flushing = true;
+            Batch<T> leading = open;
+            open = new Batch<>();
+            lock.unlock();
+            Throwable failure = null;
+            try {
+                flush(leading.entries);
+            } catch (Throwable throwable) {
+                failure = throwable;
+            } finally {
+                lock.lock();
+                leading.failure = failure;
+                leading.done = true;
+                flushing = false;
+                flushed.signalAll();
+            }
+        }
+        if (batch.failure != null) {
+            throw new JobStore.StoreException("Failed to persist job store entry", batch.failure);
+        }
+    }
+
+    /**
+     * Makes {@code batch} durable as one unit, in order.
+     */
+    protected abstract void flush(List<T> batch) throws Exception;
+
+    private static final class Batch<T> {
+        private final List<T> entries = new ArrayList<>();
+        private boolean done;
+        private Throwable failure;
+    }
+}
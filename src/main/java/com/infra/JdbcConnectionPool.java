@@ -0,0 +1,405 @@
+package com.infra;
+
+import com.core.ExecutionContextFactory;
+import com.core.LatencyHistogram;
+import com.domain.JobExecutionContext;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link ExecutionContextFactory} that leases connections from a bounded pool instead of opening one per
+ * attempt. Closing the execution context returns its connection to the pool.
+ * <p>
+ * An idle connection is validated with {@link Connection#isValid(int)} when it is leased. On return, an
+ * open transaction is rolled back, and autocommit and the isolation level go back to what the connection
+ * had when it was opened; a connection that fails this is closed. When all {@code maxSize} connections are
+ * leased, a lease waits up to {@code acquireTimeout} and then fails with {@link SQLTimeoutException}.
+ */
+public class JdbcConnectionPool implements ExecutionContextFactory, AutoCloseable {
+    private final JdbcExecutionContextFactory.ConnectionProvider connectionProvider;
+    private final int maxSize;
+    private final long acquireTimeoutNanos;
+    private final int validationTimeoutSeconds;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final LatencyHistogram leaseWaits = new LatencyHistogram();
+    private final LongAdder leases = new LongAdder();
+    private final LongAdder leaseTimeouts = new LongAdder();
+    private final LongAdder createdConnections = new LongAdder();
+    private final LongAdder discardedConnections = new LongAdder();
+    private int totalConnections;
+    private int waitingLeases;
+    private boolean closed;
+
+    public JdbcConnectionPool(JdbcExecutionContextFactory.ConnectionProvider connectionProvider) {
+        this(builder(connectionProvider));
+    }
+
+    private JdbcConnectionPool(Builder builder) {
+        this.connectionProvider = builder.connectionProvider;
+        this.maxSize = builder.maxSize;
+        this.acquireTimeoutNanos = builder.acquireTimeout.toNanos();
+        this.validationTimeoutSeconds = (int) Math.max(1, builder.validationTimeout.toSeconds());
+    }
+
+    public static Builder builder(JdbcExecutionContextFactory.ConnectionProvider connectionProvider) {
+        return new Builder(connectionProvider);
+    }
+
+    /**
+     * Leases a connection and wraps it in an execution context that returns it on close.
+     *
+     * @throws SQLTimeoutException when no connection frees up within the acquire timeout
+     */
+    @Override
+    public JobExecutionContext create() throws SQLException {
+        PooledConnection pooled = lease();
+        return new PooledContext(pooled);
+    }
+
+    /**
+     * The pool's {@code maxSize}.
+     */
+    @Override
+    public int maxContexts() {
+        return maxSize;
+    }
+
+    /**
+     * Connections open right now, leased or idle.
+     */
+    public int totalConnections() {
+        lock.lock();
+        try {
+            return totalConnections;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int idleConnections() {
+        lock.lock();
+        try {
+            return idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int activeConnections() {
+        lock.lock();
+        try {
+            return totalConnections - idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Callers currently waiting for a connection to be returned.
+     */
+    public int waitingLeases() {
+        lock.lock();
+        try {
+            return waitingLeases;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long leaseCount() {
+        return leases.sum();
+    }
+
+    public long leaseTimeoutCount() {
+        return leaseTimeouts.sum();
+    }
+
+    public long createdConnectionCount() {
+        return createdConnections.sum();
+    }
+
+    /**
+     * Connections closed because they failed validation on lease or the reset on return.
+     */
+    public long discardedConnectionCount() {
+        return discardedConnections.sum();
+    }
+
+    /**
+     * Time callers spent in {@link #create()}, including validation and opening new connections.
+     */
+    public LatencyHistogram.Snapshot leaseWaitTime() {
+        return leaseWaits.snapshot();
+    }
+
+    /**
+     * Closes the idle connections; leased ones are closed as they come back. Later leases fail.
+     */
+    @Override
+    public void close() {
+        Deque<PooledConnection> toClose;
+        lock.lock();
+        try {
+            closed = true;
+            toClose = new ArrayDeque<>(idle);
+            totalConnections -= idle.size();
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (PooledConnection pooled : toClose) {
+            closeQuietly(pooled.connection);
+        }
+    }
+
+    private PooledConnection lease() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + acquireTimeoutNanos;
+        while (true) {
+            PooledConnection pooled;
+            lock.lock();
+            try {
+                pooled = takeIdleOrReserve(deadline);
+            } finally {
+                lock.unlock();
+            }
+            if (pooled == null) {
+                pooled = open();
+            } else if (!isValid(pooled.connection)) {
+                discard(pooled.connection);
+                continue;
+            }
+            leases.increment();
+            leaseWaits.record(System.nanoTime() - start);
+            return pooled;
+        }
+    }
+
+    /**
+     * Returns an idle connection, or {@code null} after reserving room for a new one. Called with the lock
+     * held.
+     */
+    private PooledConnection takeIdleOrReserve(long deadline) throws SQLException {
+        while (true) {
+            if (closed) {
+                throw new SQLException("Connection pool is closed");
+            }
+            PooledConnection pooled = idle.pollFirst();
+            if (pooled != null) {
+                return pooled;
+            }
+            if (totalConnections < maxSize) {
+                totalConnections++;
+                return null;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                leaseTimeouts.increment();
+                throw new SQLTimeoutException("No connection available within "
+                        + TimeUnit.NANOSECONDS.toMillis(acquireTimeoutNanos) + " ms, all " + maxSize + " in use");
+            }
+            waitingLeases++;
+            try {
+                available.awaitNanos(remaining);
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a connection", interruptedException);
+            } finally {
+                waitingLeases--;
+            }
+        }
+    }
+
+    private PooledConnection open() throws SQLException {
+        Connection connection = null;
+        try {
+            connection = connectionProvider.getConnection();
+            createdConnections.increment();
+            return new PooledConnection(connection, connection.getAutoCommit(), connection.getTransactionIsolation());
+        } catch (SQLException | RuntimeException exception) {
+            if (connection != null) {
+                closeQuietly(connection);
+            }
+            forget();
+            throw exception;
+        }
+    }
+
+    private boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(validationTimeoutSeconds);
+        } catch (SQLException sqlException) {
+            return false;
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        if (!reset(pooled)) {
+            discard(pooled.connection);
+            return;
+        }
+        lock.lock();
+        try {
+            if (!closed) {
+                idle.addFirst(pooled);
+                available.signal();
+                return;
+            }
+            totalConnections--;
+        } finally {
+            lock.unlock();
+        }
+        closeQuietly(pooled.connection);
+    }
+
+    /**
+     * Rolls back whatever the job left open before restoring autocommit, since switching autocommit back on
+     * would commit it.
+     */
+    private static boolean reset(PooledConnection pooled) {
+        Connection connection = pooled.connection;
+        try {
+            if (connection.isClosed()) {
+                return false;
+            }
+            if (connection.getAutoCommit() != pooled.autoCommit) {
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                }
+                connection.setAutoCommit(pooled.autoCommit);
+            } else if (!pooled.autoCommit) {
+                connection.rollback();
+            }
+            if (connection.getTransactionIsolation() != pooled.isolation) {
+                connection.setTransactionIsolation(pooled.isolation);
+            }
+            connection.clearWarnings();
+            return true;
+        } catch (SQLException sqlException) {
+            return false;
+        }
+    }
+
+    private void discard(Connection connection) {
+        discardedConnections.increment();
+        closeQuietly(connection);
+        forget();
+    }
+
+    /**
+     * Frees the room of a connection that is gone, so a waiting lease can open a new one.
+     */
+    private void forget() {
+        lock.lock();
+        try {
+            totalConnections--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // the connection is dropped either way
+        }
+    }
+
+    private static final class PooledConnection {
+        private final Connection connection;
+        private final boolean autoCommit;
+        private final int isolation;
+
+        private PooledConnection(Connection connection, boolean autoCommit, int isolation) {
+            this.connection = connection;
+            this.autoCommit = autoCommit;
+            this.isolation = isolation;
+        }
+    }
+
+    /**
+     * Hands the connection back instead of closing it. Closing twice returns it once.
+     */
+    private final class PooledContext extends JdbcExecutionContext {
+        private PooledConnection pooled;
+
+        private PooledContext(PooledConnection pooled) {
+            super(pooled.connection);
+            this.pooled = pooled;
+        }
+
+        @Override
+        public void close() {
+            PooledConnection returned = pooled;
+            pooled = null;
+            if (returned != null) {
+                release(returned);
+            }
+        }
+    }
+
+    public static final class Builder {
+        private final JdbcExecutionContextFactory.ConnectionProvider connectionProvider;
+        private int maxSize = 10;
+        private Duration acquireTimeout = Duration.ofSeconds(30);
+        private Duration validationTimeout = Duration.ofSeconds(5);
+
+        private Builder(JdbcExecutionContextFactory.ConnectionProvider connectionProvider) {
+            this.connectionProvider = Objects.requireNonNull(connectionProvider, "connectionProvider");
+        }
+
+        /**
+         * Most connections open at once, leased or idle.
+         */
+        public Builder maxSize(int maxSize) {
+            if (maxSize <= 0) {
+                throw new IllegalArgumentException("maxSize must be positive");
+            }
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        /**
+         * How long a lease waits for a connection to be returned when the pool is exhausted.
+         */
+        public Builder acquireTimeout(Duration acquireTimeout) {
+            Objects.requireNonNull(acquireTimeout, "acquireTimeout");
+            if (acquireTimeout.isNegative()) {
+                throw new IllegalArgumentException("acquireTimeout must not be negative");
+            }
+            this.acquireTimeout = acquireTimeout;
+            return this;
+        }
+
+        /**
+         * Timeout passed to {@link Connection#isValid(int)} on lease, rounded to whole seconds, at least one.
+         */
+        public Builder validationTimeout(Duration validationTimeout) {
+            Objects.requireNonNull(validationTimeout, "validationTimeout");
+            if (validationTimeout.isNegative()) {
+                throw new IllegalArgumentException("validationTimeout must not be negative");
+            }
+            this.validationTimeout = validationTimeout;
+            return this;
+        }
+
+        public JdbcConnectionPool build() {
+            return new JdbcConnectionPool(this);
+        }
+    }
+}
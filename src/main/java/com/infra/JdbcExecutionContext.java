@@ -1,16 +1,26 @@
 package com.infra;
 
 import com.core.ExecutionContextKeys;
-import com.domain.JobExecutionContext;
+import com.core.ReusableExecutionContext;
+import com.domain.ContextKey;
 
 import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.Optional;
 
-public class JdbcExecutionContext implements JobExecutionContext {
+public class JdbcExecutionContext implements ReusableExecutionContext {
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
     private final Connection connection;
+    /**
+     * Values by {@link ContextKey#index()}; only the connection's slot is filled.
+     */
+    private final Object[] slots;
 
     public JdbcExecutionContext(Connection connection) {
         this.connection = connection;
+        this.slots = new Object[ExecutionContextKeys.CONNECTION.index() + 1];
+        this.slots[ExecutionContextKeys.CONNECTION.index()] = connection;
     }
 
     @Override
@@ -21,6 +31,38 @@ public class JdbcExecutionContext implements JobExecutionContext {
         return Optional.empty();
     }
 
+    /**
+     * Slots are only ever filled with values of their key's type, so the unchecked cast is safe.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(ContextKey<T> key) {
+        int index = key.index();
+        return index < slots.length ? (T) slots[index] : null;
+    }
+
+    @Override
+    public boolean isHealthy() {
+        try {
+            return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException sqlException) {
+            return false;
+        }
+    }
+
+    /**
+     * Rolls back any open transaction and turns autocommit back on. The isolation level is left alone;
+     * {@link JdbcConnectionPool} restores it when the connection is returned.
+     */
+    @Override
+    public void reset() throws SQLException {
+        if (!connection.getAutoCommit()) {
+            connection.rollback();
+            connection.setAutoCommit(true);
+        }
+        connection.clearWarnings();
+    }
+
     @Override
     public void close() throws Exception {
         connection.close();
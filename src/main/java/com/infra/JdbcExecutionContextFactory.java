@@ -6,6 +6,10 @@ import com.domain.JobExecutionContext;
 import java.sql.Connection;
 import java.sql.SQLException;
 
+/**
+ * Opens a new connection for every attempt and closes it afterwards. {@link JdbcConnectionPool} reuses
+ * connections instead.
+ */
 public class JdbcExecutionContextFactory implements ExecutionContextFactory {
     private final ConnectionProvider connectionProvider;
 
@@ -0,0 +1,233 @@
+package com.infra;
+
+import com.core.JobState;
+import com.core.JobStore;
+import com.core.JobSubmission;
+import com.core.StoredJob;
+import com.domain.JobContext;
+import com.domain.LockMode;
+import com.domain.Resource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * {@link JobStore} backed by a {@code job_store} table. Concurrent submissions and transitions are
+ * group-committed: each group becomes one delete, one insert and one update batch in a single
+ * transaction. Lock modes are stored as text, one {@code MODE resource-id} line per resource.
+ * <p>
+ * Submitting an id that is already stored replaces its row, as {@link FileJobStore} replaces the entry,
+ * instead of failing the whole group on the primary key. A job's row is deleted once it reaches a
+ * terminal state, so the table only holds unfinished jobs.
+ */
+public class JdbcJobStore implements JobStore {
+    private static final String INSERT = "insert into job_store"
+            + "(job_id, job_type, timeout_millis, lock_modes, state, attempt, submitted_at) values (?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE = "update job_store set state = ?, attempt = ? where job_id = ?";
+    private static final String DELETE = "delete from job_store where job_id = ?";
+    private static final String SELECT_UNFINISHED = "select job_id, job_type, timeout_millis, lock_modes, state, attempt"
+            + " from job_store where state in ('PENDING', 'RUNNING') order by submitted_at, job_id";
+
+    private final JdbcExecutionContextFactory.ConnectionProvider connectionProvider;
+    private final GroupCommit<Object> groupCommit = new GroupCommit<>() {
+        @Override
+        protected void flush(List<Object> batch) throws SQLException {
+            write(batch);
+        }
+    };
+
+    public JdbcJobStore(JdbcExecutionContextFactory.ConnectionProvider connectionProvider) {
+        this.connectionProvider = Objects.requireNonNull(connectionProvider, "connectionProvider");
+    }
+
+    public void createSchema() {
+        try (Connection connection = connectionProvider.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table if not exists job_store("
+                    + "job_id varchar(255) primary key, "
+                    + "job_type varchar(1024) not null, "
+                    + "timeout_millis bigint not null, "
+                    + "lock_modes varchar(65535) not null, "
+                    + "state varchar(16) not null, "
+                    + "attempt int not null, "
+                    + "submitted_at bigint not null)");
+        } catch (SQLException sqlException) {
+            throw new StoreException("Failed to create job_store table", sqlException);
+        }
+    }
+
+    @Override
+    public void submitted(String jobType, JobContext context) {
+        groupCommit.commit(new StoredJob(context.id(), jobType, context.timeout(), context.lockModes(), JobState.PENDING, 0));
+    }
+
+    @Override
+    public void submittedAll(List<JobSubmission> submissions) {
+        List<StoredJob> jobs = new ArrayList<>(submissions.size());
+        for (JobSubmission submission : submissions) {
+            JobContext context = submission.context();
+            jobs.add(new StoredJob(context.id(), submission.jobType(), context.timeout(), context.lockModes(),
+                    JobState.PENDING, 0));
+        }
+        groupCommit.commitAll(jobs);
+    }
+
+    @Override
+    public void transitioned(String jobId, JobState state, int attempt) {
+        groupCommit.commit(new Transition(jobId, state, attempt));
+    }
+
+    @Override
+    public List<StoredJob> unfinished() {
+        List<StoredJob> unfinished = new ArrayList<>();
+        try (Connection connection = connectionProvider.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SELECT_UNFINISHED);
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                unfinished.add(new StoredJob(
+                        resultSet.getString("job_id"),
+                        resultSet.getString("job_type"),
+                        Duration.ofMillis(resultSet.getLong("timeout_millis")),
+                        decode(resultSet.getString("lock_modes")),
+                        JobState.valueOf(resultSet.getString("state")),
+                        resultSet.getInt("attempt")));
+            }
+        } catch (SQLException sqlException) {
+            throw new StoreException("Failed to load unfinished jobs", sqlException);
+        }
+        return unfinished;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Deletes run first, then inserts, then updates. A job's transitions always come after its submission
+     * returned, so a transition in the same group as a submission of its id belongs to an earlier job of
+     * that id. Such transitions are dropped, because the new row replaces that job's row anyway. Every
+     * other job has at most its submission or its transitions in the group, so each keeps its own order.
+     */
+    private void write(List<Object> batch) throws SQLException {
+        long submittedAt = System.currentTimeMillis();
+        Map<String, StoredJob> submissions = new LinkedHashMap<>();
+        for (Object entry : batch) {
+            if (entry instanceof StoredJob job) {
+                submissions.put(job.jobId(), job);
+            }
+        }
+        try (Connection connection = connectionProvider.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement delete = connection.prepareStatement(DELETE);
+                 PreparedStatement insert = connection.prepareStatement(INSERT);
+                 PreparedStatement update = connection.prepareStatement(UPDATE)) {
+                boolean deletes = false;
+                boolean updates = false;
+                for (StoredJob job : submissions.values()) {
+                    delete.setString(1, job.jobId());
+                    delete.addBatch();
+                    deletes = true;
+                    insert.setString(1, job.jobId());
+                    insert.setString(2, job.jobType());
+                    insert.setLong(3, job.timeout().toMillis());
+                    insert.setString(4, encode(job.lockModes()));
+                    insert.setString(5, job.state().name());
+                    insert.setInt(6, job.attempt());
+                    insert.setLong(7, submittedAt);
+                    insert.addBatch();
+                }
+                for (Object entry : batch) {
+                    if (!(entry instanceof Transition transition) || submissions.containsKey(transition.jobId)) {
+                        continue;
+                    }
+                    if (transition.state.isTerminal()) {
+                        delete.setString(1, transition.jobId);
+                        delete.addBatch();
+                        deletes = true;
+                    } else {
+                        update.setString(1, transition.state.name());
+                        update.setInt(2, transition.attempt);
+                        update.setString(3, transition.jobId);
+                        update.addBatch();
+                        updates = true;
+                    }
+                }
+                if (deletes) {
+                    delete.executeBatch();
+                }
+                if (!submissions.isEmpty()) {
+                    insert.executeBatch();
+                }
+                if (updates) {
+                    update.executeBatch();
+                }
+                connection.commit();
+            } catch (SQLException sqlException) {
+                connection.rollback();
+                throw sqlException;
+            }
+        }
+    }
+
+    private static String encode(Map<Resource, LockMode> lockModes) {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<Resource, LockMode> entry : lockModes.entrySet()) {
+            builder.append(entry.getValue().name()).append(' ').append(escape(entry.getKey().id())).append('\n');
+        }
+        return builder.toString();
+    }
+
+    private static Map<Resource, LockMode> decode(String encoded) {
+        Map<Resource, LockMode> lockModes = new LinkedHashMap<>();
+        for (String line : encoded.split("\n")) {
+            if (!line.isEmpty()) {
+                int space = line.indexOf(' ');
+                lockModes.put(new Resource(unescape(line.substring(space + 1))), LockMode.valueOf(line.substring(0, space)));
+            }
+        }
+        return lockModes;
+    }
+
+    /**
+     * Resource ids are stored one per line, so backslashes and line breaks in them are escaped.
+     */
+    private static String escape(String id) {
+        return id.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    private static String unescape(String escaped) {
+        if (escaped.indexOf('\\') < 0) {
+            return escaped;
+        }
+        StringBuilder id = new StringBuilder(escaped.length());
+        for (int i = 0; i < escaped.length(); i++) {
+            char c = escaped.charAt(i);
+            if (c == '\\' && i + 1 < escaped.length()) {
+                c = escaped.charAt(++i) == 'n' ? '\n' : escaped.charAt(i);
+            }
+            id.append(c);
+        }
+        return id.toString();
+    }
+
+    private static final class Transition {
+        private final String jobId;
+        private final JobState state;
+        private final int attempt;
+
+        private Transition(String jobId, JobState state, int attempt) {
+            this.jobId = jobId;
+            this.state = state;
+            this.attempt = attempt;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.infra;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Serves a {@link PrometheusExporter} at {@code /metrics} over plain HTTP, using the JDK's built-in
+ * server on a single thread. Scrapes are rare and cheap, so the server needs nothing beyond the JVM.
+ */
+public final class MetricsHttpServer implements AutoCloseable {
+    public static final String PATH = "/metrics";
+
+    private final HttpServer server;
+    private final PrometheusExporter exporter;
+
+    private MetricsHttpServer(HttpServer server, PrometheusExporter exporter) {
+        this.server = server;
+        this.exporter = exporter;
+    }
+
+    /**
+     * Starts serving on {@code port} of the loopback interface; {@code 0} picks a free port.
+     */
+    public static MetricsHttpServer start(int port, PrometheusExporter exporter) throws IOException {
+        return start(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), exporter);
+    }
+
+    public static MetricsHttpServer start(InetSocketAddress address, PrometheusExporter exporter) throws IOException {
+        Objects.requireNonNull(exporter, "exporter");
+        HttpServer server = HttpServer.create(address, 0);
+        MetricsHttpServer metricsServer = new MetricsHttpServer(server, exporter);
+        server.createContext(PATH, metricsServer::handle);
+        server.start();
+        return metricsServer;
+    }
+
+    public InetSocketAddress address() {
+        return server.getAddress();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("HEAD")) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = exporter.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", PrometheusExporter.CONTENT_TYPE);
+            if (method.equals("HEAD")) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
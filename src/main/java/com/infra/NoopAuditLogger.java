@@ -0,0 +1,39 @@
+package com.infra;
+
+import com.core.JobState;
+import com.domain.Resource;
+
+import java.util.List;
+
+/**
+ * Discards every event. Useful when auditing is not wanted, e.g. in benchmarks and soak tests.
+ */
+public class NoopAuditLogger implements AuditLogger {
+    @Override
+    public void jobStateChanged(String jobId, JobState state, String message) {
+    }
+
+    @Override
+    public void jobStatesChanged(List<String> jobIds, JobState state, String message) {
+    }
+
+    @Override
+    public void lockWaiting(String jobId, Resource resource, String owner) {
+    }
+
+    @Override
+    public void lockAcquired(String jobId, Resource resource) {
+    }
+
+    @Override
+    public void lockReleased(String jobId, Resource resource) {
+    }
+
+    @Override
+    public void retryScheduled(String jobId, int attempt, long delayMillis, Exception cause) {
+    }
+
+    @Override
+    public void deadlockDetected(String jobId, String details) {
+    }
+}
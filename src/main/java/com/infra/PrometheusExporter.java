@@ -0,0 +1,234 @@
+package com.infra;
+
+import com.core.JobEngine;
+import com.core.JobPriority;
+import com.core.JobState;
+import com.core.LatencyHistogram;
+import com.core.SchedulerMetrics;
+import com.domain.Resource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.DoubleSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * Writes {@link SchedulerMetrics} in the Prometheus text exposition format, together with the gauges and
+ * counters of a {@link JobEngine}, a {@link JdbcConnectionPool} or any other source registered on the
+ * {@link Builder}. Histograms are written as summaries with the 50th, 90th, 99th and 99.9th percentile;
+ * latencies are in seconds. Every scrape reads the metrics afresh, so an exporter can be created once and
+ * served with {@link MetricsHttpServer}.
+ */
+public final class PrometheusExporter {
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+    private static final Pattern METRIC_NAME = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+    private static final String OTHER_RESOURCES = "_other";
+
+    private final SchedulerMetrics metrics;
+    private final List<Sampled> sampled;
+
+    private PrometheusExporter(Builder builder) {
+        this.metrics = builder.metrics;
+        this.sampled = List.copyOf(builder.sampled);
+    }
+
+    public static Builder builder(SchedulerMetrics metrics) {
+        return new Builder(metrics);
+    }
+
+    public String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        try {
+            writeTo(out);
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+        return out.toString();
+    }
+
+    public void writeTo(Appendable out) throws IOException {
+        SchedulerMetrics.Snapshot snapshot = metrics.snapshot();
+
+        header(out, "scheduler_queue_wait_seconds", "Time attempts spent queued before they started.", "summary");
+        for (Map.Entry<JobPriority, LatencyHistogram.Snapshot> entry : snapshot.queueWait().entrySet()) {
+            summary(out, "scheduler_queue_wait_seconds", "priority", label(entry.getKey()), entry.getValue(), NANOS_PER_SECOND);
+        }
+
+        header(out, "scheduler_lock_wait_seconds", "Time jobs spent blocked on a resource lock.", "summary");
+        Map<String, LatencyHistogram.Snapshot> byResource = new TreeMap<>();
+        for (Map.Entry<Resource, LatencyHistogram.Snapshot> entry : snapshot.lockWait().entrySet()) {
+            byResource.put(entry.getKey().id(), entry.getValue());
+        }
+        for (Map.Entry<String, LatencyHistogram.Snapshot> entry : byResource.entrySet()) {
+            summary(out, "scheduler_lock_wait_seconds", "resource", entry.getKey(), entry.getValue(), NANOS_PER_SECOND);
+        }
+        if (snapshot.otherLockWait().count() > 0) {
+            summary(out, "scheduler_lock_wait_seconds", "resource", OTHER_RESOURCES, snapshot.otherLockWait(), NANOS_PER_SECOND);
+        }
+
+        header(out, "scheduler_execution_seconds", "Time attempts spent running their job.", "summary");
+        summary(out, "scheduler_execution_seconds", null, null, snapshot.executionTime(), NANOS_PER_SECOND);
+
+        header(out, "scheduler_attempts_per_job", "Attempts each finished job took.", "summary");
+        summary(out, "scheduler_attempts_per_job", null, null, snapshot.attemptsPerJob(), 1);
+
+        header(out, "scheduler_deadlocks_total", "Lock requests refused because they would deadlock.", "counter");
+        sample(out, "scheduler_deadlocks_total", null, null, snapshot.deadlocks());
+
+        header(out, "scheduler_timeouts_total", "Attempts that timed out waiting for a lock or running.", "counter");
+        sample(out, "scheduler_timeouts_total", "kind", "lock", snapshot.lockTimeouts());
+        sample(out, "scheduler_timeouts_total", "kind", "execution", snapshot.executionTimeouts());
+
+        header(out, "scheduler_retries_total", "Failed attempts that were scheduled to run again.", "counter");
+        sample(out, "scheduler_retries_total", null, null, snapshot.retries());
+
+        header(out, "scheduler_jobs_finished_total", "Jobs that reached a final outcome.", "counter");
+        for (Map.Entry<JobState, Long> entry : snapshot.outcomes().entrySet()) {
+            if (entry.getKey().isTerminal()) {
+                sample(out, "scheduler_jobs_finished_total", "state", label(entry.getKey()), entry.getValue());
+            }
+        }
+
+        for (Sampled metric : sampled) {
+            header(out, metric.name, metric.help, metric.type);
+            sample(out, metric.name, null, null, metric.value.getAsDouble());
+        }
+    }
+
+    private static void header(Appendable out, String name, String help, String type) throws IOException {
+        out.append("# HELP ").append(name).append(' ').append(help.replace("\\", "\\\\").replace("\n", "\\n")).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void summary(Appendable out, String name, String labelName, String labelValue,
+                                LatencyHistogram.Snapshot snapshot, double unit) throws IOException {
+        for (double quantile : QUANTILES) {
+            out.append(name).append('{');
+            if (labelName != null) {
+                out.append(labelName).append("=\"").append(escape(labelValue)).append("\",");
+            }
+            out.append("quantile=\"").append(Double.toString(quantile)).append("\"} ")
+                    .append(format(snapshot.valueAtPercentile(quantile * 100) / unit)).append('\n');
+        }
+        sample(out, name + "_sum", labelName, labelValue, snapshot.sum() / unit);
+        sample(out, name + "_count", labelName, labelValue, snapshot.count());
+    }
+
+    private static void sample(Appendable out, String name, String labelName, String labelValue, double value)
+            throws IOException {
+        out.append(name);
+        if (labelName != null) {
+            out.append('{').append(labelName).append("=\"").append(escape(labelValue)).append("\"}");
+        }
+        out.append(' ').append(format(value)).append('\n');
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    private static String label(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static String escape(String labelValue) {
+        return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static final class Sampled {
+        private final String name;
+        private final String help;
+        private final String type;
+        private final DoubleSupplier value;
+
+        private Sampled(String name, String help, String type, DoubleSupplier value) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+            this.value = value;
+        }
+    }
+
+    public static final class Builder {
+        private final SchedulerMetrics metrics;
+        private final List<Sampled> sampled = new ArrayList<>();
+
+        private Builder(SchedulerMetrics metrics) {
+            this.metrics = Objects.requireNonNull(metrics, "metrics");
+        }
+
+        /**
+         * Adds the engine's queue, admission and worker metrics.
+         */
+        public Builder engine(JobEngine engine) {
+            Objects.requireNonNull(engine, "engine");
+            gauge("scheduler_queued_jobs", "Admitted jobs whose first attempt has not started.", engine::queuedJobCount);
+            gauge("scheduler_unfinished_jobs", "Admitted jobs that have not reached their final outcome.", engine::unfinishedJobCount);
+            gauge("scheduler_parked_jobs", "Attempts held back by lock-aware dispatch.", engine::parkedJobCount);
+            gauge("scheduler_tracked_jobs", "Job states held in full in the state table.", engine::trackedJobCount);
+            counter("scheduler_rejected_jobs_total", "Submissions rejected because the engine was saturated.", engine::rejectedJobCount);
+            counter("scheduler_shed_jobs_total", "Jobs dropped because their deadline passed while queued.", engine::shedJobCount);
+            counter("scheduler_stolen_jobs_total", "Attempts a work-stealing worker took from another worker.", engine::stolenJobCount);
+            return this;
+        }
+
+        /**
+         * Adds the pool's connection counts and lease metrics.
+         */
+        public Builder connectionPool(JdbcConnectionPool pool) {
+            Objects.requireNonNull(pool, "pool");
+            gauge("jdbc_pool_connections", "Open connections, idle or leased.", pool::totalConnections);
+            gauge("jdbc_pool_idle_connections", "Connections waiting in the pool.", pool::idleConnections);
+            gauge("jdbc_pool_active_connections", "Connections currently leased.", pool::activeConnections);
+            gauge("jdbc_pool_waiting_leases", "Leases waiting for a connection.", pool::waitingLeases);
+            counter("jdbc_pool_leases_total", "Connections leased.", pool::leaseCount);
+            counter("jdbc_pool_lease_timeouts_total", "Leases that gave up waiting for a connection.", pool::leaseTimeoutCount);
+            counter("jdbc_pool_created_connections_total", "Physical connections opened.", pool::createdConnectionCount);
+            counter("jdbc_pool_discarded_connections_total", "Connections closed after failing validation or reset.", pool::discardedConnectionCount);
+            return this;
+        }
+
+        /**
+         * Adds a value that can go up and down, read on every scrape.
+         */
+        public Builder gauge(String name, String help, DoubleSupplier value) {
+            return add(name, help, "gauge", value);
+        }
+
+        /**
+         * Adds a value that only grows, read on every scrape; by convention its name ends in {@code _total}.
+         */
+        public Builder counter(String name, String help, DoubleSupplier value) {
+            return add(name, help, "counter", value);
+        }
+
+        private Builder add(String name, String help, String type, DoubleSupplier value) {
+            if (!METRIC_NAME.matcher(name).matches()) {
+                throw new IllegalArgumentException("Invalid metric name " + name);
+            }
+            for (Sampled metric : sampled) {
+                if (metric.name.equals(name)) {
+                    throw new IllegalArgumentException("Metric " + name + " is already registered");
+                }
+            }
+            sampled.add(new Sampled(name, Objects.requireNonNull(help, "help"), type, Objects.requireNonNull(value, "value")));
+            return this;
+        }
+
+        public PrometheusExporter build() {
+            return new PrometheusExporter(this);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AimdLimitTest {
+    private static final long FAST = Duration.ofMillis(5).toNanos();
+    private static final long SLOW = Duration.ofMillis(50).toNanos();
+
+    @Test
+    void growsAdditivelyWhileBusyAndBacksOffMultiplicatively() {
+        AimdLimit limit = AimdLimit.builder(Duration.ofMillis(10)).initialLimit(10).minLimit(2).maxLimit(12).build();
+
+        limit.onSample(FAST, false, 2);
+        assertThat(limit.limit()).isEqualTo(10);
+        limit.onSample(FAST, false, 9);
+        limit.onSample(FAST, false, 9);
+        limit.onSample(FAST, false, 9);
+        assertThat(limit.limit()).isEqualTo(12);
+
+        limit.onSample(SLOW, false, 9);
+        assertThat(limit.limit()).isEqualTo(10);
+        limit.onSample(FAST, true, 9);
+        assertThat(limit.limit()).isEqualTo(9);
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(SLOW, false, 1);
+        }
+        assertThat(limit.limit()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,187 @@
+package com.core;
+
+import com.domain.Job;
+import com.domain.JobContext;
+import com.domain.JobExecutionContext;
+import com.domain.Resource;
+import com.domain.RetryPolicies;
+import com.infra.AuditLogger;
+import com.infra.JdbcConnectionPool;
+import org.junit.jupiter.api.Test;
+
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class CachingExecutionContextFactoryTest {
+    @Test
+    void reusesContextsForJobsOnTheSameResources() throws Exception {
+        List<TrackedContext> created = new ArrayList<>();
+        CachingExecutionContextFactory cache = new CachingExecutionContextFactory(() -> track(created));
+
+        JobExecutionContext first = cache.create(newContext("job-1", "a", "b"));
+        first.close();
+        JobExecutionContext second = cache.create(newContext("job-2", "b", "a"));
+        JobExecutionContext other = cache.create(newContext("job-3", "c"));
+        second.close();
+        other.close();
+
+        assertThat(created).hasSize(2);
+        assertThat(created.get(0).resets).isEqualTo(2);
+        assertThat(created.get(0).closed).isFalse();
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.missCount()).isEqualTo(2);
+        assertThat(cache.hitRate()).isEqualTo(1.0 / 3);
+        assertThat(cache.idleCount()).isEqualTo(2);
+
+        cache.close();
+        assertThat(created).allMatch(context -> context.closed);
+    }
+
+    @Test
+    void evictsTheLeastRecentlyReturnedContextsAndStaleOnes() throws Exception {
+        List<TrackedContext> created = new ArrayList<>();
+        CachingExecutionContextFactory cache = CachingExecutionContextFactory.builder(() -> track(created))
+                .maxIdle(2)
+                .maxIdleTime(Duration.ofMillis(50))
+                .build();
+
+        JobExecutionContext a = cache.create(newContext("job-a", "a"));
+        JobExecutionContext b = cache.create(newContext("job-b", "b"));
+        JobExecutionContext c = cache.create(newContext("job-c", "c"));
+        a.close();
+        b.close();
+        c.close();
+
+        assertThat(created.get(0).closed).isTrue();
+        assertThat(cache.evictionCount()).isEqualTo(1);
+        assertThat(cache.idleCount()).isEqualTo(2);
+
+        Thread.sleep(100);
+        cache.create(newContext("job-d", "d")).close();
+
+        assertThat(created).allMatch(context -> context.closed || context == created.get(3));
+        assertThat(cache.evictionCount()).isEqualTo(3);
+        assertThat(cache.idleCount()).isEqualTo(1);
+    }
+
+    @Test
+    void replacesContextsThatFailTheirHealthCheck() throws Exception {
+        List<TrackedContext> created = new ArrayList<>();
+        CachingExecutionContextFactory cache = CachingExecutionContextFactory.builder(() -> track(created))
+                .healthCheckAfterIdle(Duration.ZERO)
+                .build();
+
+        cache.create(newContext("job-1", "a")).close();
+        created.get(0).healthy = false;
+        Thread.sleep(1);
+        cache.create(newContext("job-2", "a")).close();
+
+        assertThat(created).hasSize(2);
+        assertThat(created.get(0).closed).isTrue();
+        assertThat(cache.failedHealthCheckCount()).isEqualTo(1);
+    }
+
+    @Test
+    void evictsAnotherKeysContextInsteadOfWaitingOnAFullPool() throws Exception {
+        try (JdbcConnectionPool pool = JdbcConnectionPool.builder(() -> DriverManager.getConnection("jdbc:h2:mem:cache-pool"))
+                .maxSize(2)
+                .acquireTimeout(Duration.ofSeconds(5))
+                .build();
+             CachingExecutionContextFactory cache = new CachingExecutionContextFactory(pool)) {
+            cache.create(newContext("job-a", "a")).close();
+            cache.create(newContext("job-b", "b")).close();
+
+            long started = System.nanoTime();
+            cache.create(newContext("job-c", "c")).close();
+
+            assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(1));
+            assertThat(cache.maxContexts()).isEqualTo(2);
+            assertThat(cache.evictionCount()).isEqualTo(1);
+            assertThat(cache.idleCount()).isEqualTo(2);
+            assertThat(pool.totalConnections()).isEqualTo(2);
+            assertThat(pool.leaseTimeoutCount()).isZero();
+
+            JobExecutionContext b = cache.create(newContext("job-b2", "b"));
+            JobExecutionContext d = cache.create(newContext("job-d", "d"));
+            assertThat(cache.hitCount()).isEqualTo(1);
+            assertThat(pool.activeConnections()).isEqualTo(2);
+            b.close();
+            d.close();
+        }
+    }
+
+    @Test
+    void jobRunnerReturnsContextsToTheCacheInsteadOfClosingThem() {
+        List<TrackedContext> created = new ArrayList<>();
+        CachingExecutionContextFactory cache = new CachingExecutionContextFactory(() -> track(created));
+        AuditLogger auditLogger = mock(AuditLogger.class);
+        JobRunner runner = new JobRunner(new LockRegistry(new LockGraphEngine(), auditLogger), auditLogger, cache);
+        Job job = new Job() {
+            @Override
+            public void prepare(JobContext context, JobExecutionContext executionContext) {
+            }
+
+            @Override
+            public void execute(JobContext context, JobExecutionContext executionContext) {
+            }
+
+            @Override
+            public void rollback(JobContext context, JobExecutionContext executionContext, Exception cause) {
+            }
+        };
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(runner.run(job, newContext("job-" + i, "orders"))).isEqualTo(JobState.SUCCESS);
+        }
+
+        assertThat(created).hasSize(1);
+        assertThat(created.get(0).closed).isFalse();
+        assertThat(cache.hitRate()).isEqualTo(0.9);
+    }
+
+    private static TrackedContext track(List<TrackedContext> created) {
+        TrackedContext context = new TrackedContext();
+        created.add(context);
+        return context;
+    }
+
+    private static JobContext newContext(String id, String... resources) {
+        List<Resource> locked = new ArrayList<>();
+        for (String resource : resources) {
+            locked.add(new Resource(resource));
+        }
+        return new JobContext(id, Duration.ofSeconds(1), RetryPolicies.fixedDelay(1, 0), locked);
+    }
+
+    private static final class TrackedContext implements ReusableExecutionContext {
+        private volatile boolean healthy = true;
+        private volatile boolean closed;
+        private int resets;
+
+        @Override
+        public <T> Optional<T> find(String key, Class<T> type) {
+            return Optional.empty();
+        }
+
+        @Override
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        @Override
+        public void reset() {
+            resets++;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
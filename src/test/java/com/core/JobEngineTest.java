@@ -0,0 +1,673 @@
+package com.core;
+
+import com.domain.Job;
+import com.domain.JobContext;
+import com.domain.JobExecutionContext;
+import com.domain.LockMode;
+import com.domain.Resource;
+import com.domain.RetryPolicies;
+import com.domain.RetryPolicy;
+import com.infra.AuditLogger;
+import com.infra.FileJobStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class JobEngineTest {
+    @Test
+    void runsJobsOnVirtualThreadsWhenSelected() throws Exception {
+        assumeTrue(VirtualThreads.isSupported(), "virtual threads need Java 21+");
+        AuditLogger auditLogger = mock(AuditLogger.class);
+        AtomicBoolean virtual = new AtomicBoolean(false);
+        Job job = new Job() {
+            @Override
+            public void prepare(JobContext context, JobExecutionContext executionContext) {
+            }
+
+            @Override
+            public void execute(JobContext context, JobExecutionContext executionContext) throws Exception {
+                virtual.set((Boolean) Thread.class.getMethod("isVirtual").invoke(Thread.currentThread()));
+            }
+
+            @Override
+            public void rollback(JobContext context, JobExecutionContext executionContext, Exception cause) {
+            }
+        };
+
+        try (JobEngine engine = JobEngine.builder(newRunner(auditLogger), auditLogger)
+                .workerMode(WorkerMode.VIRTUAL_PER_JOB)
+                .build()) {
+            engine.submit(job, newContext("job-virtual")).get(1, TimeUnit.SECONDS);
+
+            assertThat(engine.stateOf("job-virtual")).isEqualTo(JobState.SUCCESS);
+            assertThat(virtual).isTrue();
+        }
+    }
+
+    @Test
+    void retryBackoffDoesNotHoldTheWorker() throws Exception {
+        AuditLogger auditLogger = mock(AuditLogger.class);
+        AtomicInteger flakyAttempts = new AtomicInteger();
+        Job flaky = new Job() {
+            @Override
+            public void prepare(JobContext context, JobExecutionContext executionContext) {
+            }
+
+            @Override
+            public void execute(JobContext context, JobExecutionContext executionContext) {
+                if (flakyAttempts.incrementAndGet() == 1) {
+                    throw new IllegalStateException("flaky");
+                }
+            }
+
+            @Override
+            public void rollback(JobContext context, JobExecutionContext executionContext, Exception cause) {
+            }
+        };
+        Job quick = new Job() {
+            @Override
+            public void prepare(JobContext context, JobExecutionContext executionContext) {
+            }
+
+            @Override
+            public void execute(JobContext context, JobExecutionContext executionContext) {
+            }
+
+            @Override
+            public void rollback(JobContext context, JobExecutionContext executionContext, Exception cause) {
+            }
+        };
+
+        try (JobEngine engine = new JobEngine(1, newRunner(auditLogger), auditLogger)) {
+            CompletableFuture<Void> flakyDone = engine.submit(flaky, new JobContext(
+                    "job-flaky",
+                    Duration.ofSeconds(1),
+                    RetryPolicies.fixedDelay(2, 500),
+                    List.of()
+            ));
+            verify(auditLogger, timeout(1000)).retryScheduled(eq("job-flaky"), eq(1), eq(500L), any(Exception.class));
+
+            engine.submit(quick, newContext("job-quick")).get(200, TimeUnit.MILLISECONDS);
+
+            assertThat(flakyDone).isNotDone();
+            assertThat(engine.stateOf("job-flaky")).isEqualTo(JobState.RUNNING);
+            flakyDone.get(2, TimeUnit.SECONDS);
+            assertThat(engine.stateOf("job-flaky")).isEqualTo(JobState.SUCCESS);
+            assertThat(flakyAttempts).hasValue(2);
+        }
+    }
+
+    @Test
+    void recoversUnfinishedJobsFromTheJobStore(@TempDir Path directory) throws Exception {
+        AuditLogger auditLogger = mock(AuditLogger.class);
+        JobContext interrupted = new JobContext("job-interrupted", Duration.ofSeconds(1), RetryPolicies.fixedDelay(3, 0),
+                Map.of(new Resource("tenant/42"), LockMode.SHARED));
+        try (FileJobStore jobStore = new FileJobStore(directory)) {
+            jobStore.submitted("report", interrupted);
+            jobStore.transitioned("job-interrupted", JobState.RUNNING, 1);
+            jobStore.submitted("report", newContext("job-queued"));
+            jobStore.submitted("report", newContext("job-done"));
+            jobStore.transitioned("job-done", JobState.SUCCESS, 1);
+        }
+        List<String> executed = new CopyOnWriteArrayList<>();
+        JobResolver resolver = new JobResolver() {
+            @Override
+            public Job job(StoredJob storedJob) {
+                assertThat(storedJob.jobType()).isEqualTo("report");
+                return new Job() {
+                    @Override
+                    public void prepare(JobContext context, JobExecutionContext executionContext) {
+                    }
+
+                    @Override
+                    public void execute(JobContext context, JobExecutionContext executionContext) {
+                        executed.add(context.id() + "@" + context.lockModes());
+                    }
+
+                    @Override
+                    public void rollback(JobContext context, JobExecutionContext executionContext, Exception cause) {
+                    }
+                };
+            }
+
+            @Override
+            public RetryPolicy retryPolicy(StoredJob storedJob) {
+                return RetryPolicies.fixedDelay(3, 0);
+            }
+        };
+
+        try (FileJobStore jobStore = new FileJobStore(directory);
+             JobEngine engine = JobEngine.builder(newRunner(auditLogger), auditLogger).jobStore(jobStore).build()) {
+            Map<String, CompletableFuture<Void>> recovered = engine.recover(resolver);
+            assertThat(recovered).containsOnlyKeys("job-interrupted", "job-queued");
+            CompletableFuture.allOf(recovered.values().toArray(new CompletableFuture[0])).get(1, TimeUnit.SECONDS);
+
+            verify(auditLogger).retryScheduled(eq("job-interrupted"), eq(1), eq(0L),
+                    any(JobEngine.InterruptedAttemptException.class));
+            assertThat(engine.stateOf("job-interrupted")).isEqualTo(JobState.SUCCESS);
+            assertThat(executed).containsExactlyInAnyOrder(
+                    "job-interrupted@{Resource{id='tenant/42'}=SHARED}",
+                    "job-queued@{}");
+        }
+        try (FileJobStore jobStore = new FileJobStore(directory)) {
+            assertThat(jobStore.unfinished()).isEmpty();
+        }
+    }
+
+    @Test
+    void evictsFinishedStatesToTheArchiveAndTellsUnknownIdsApart() throws Exception {
+        AuditLogger auditLogger = mock(AuditLogger.class);
+        Job quick = new Job() {
+            @Override
+            public void prepare(JobContext context, JobExecutionContext executionContext) {
+            }
+
+            @Override
+            public void execute(JobContext context, JobExecutionContext executionContext) {
+            }
+
+            @Override
+            public void rollback(JobContext context, JobExecutionContext executionContext, Exception cause) {
+            }
+        };
+
+        try (JobEngine engine = JobEngine.builder(newRunner(auditLogger), auditLogger)
+                .workerCount(1)
+                .maxTerminalStates(2)
+                .build()) {
+            for (int i = 0; i < 5; i++) {
+                engine.submit(quick, newContext("job-" + i)).get(1, TimeUnit.SECONDS);
+            }
+
+            assertThat(engine.trackedJobCount()).isEqualTo(2);
+            assertThat(engine.archivedJobCount()).isEqualTo(3);
+            assertThat(engine.statusOf("job-0").source()).isEqualTo(JobStatus.Source.EVICTED);
+            assertThat(engine.stateOf("job-0")).isEqualTo(JobState.SUCCESS);
+            assertThat(engine.statusOf("job-4").source()).isEqualTo(JobStatus.Source.TRACKED);
+            assertThat(engine.statusOf("job-missing").isKnown()).isFalse();
+            assertThat(engine.stateOf("job-missing")).isEqualTo(JobState.PENDING);
+        }
+
+        try (JobEngine engine = JobEngine.builder(newRunner(auditLogger), auditLogger)
+                .terminalStateTtl(Duration.ZERO)
+                .archiveEvictedStates(false)
+                .build()) {
+            engine.submit(quick, newContext("job-expired")).get(1, TimeUnit.SECONDS);
+
+            assertThat(engine.statusOf("job-expired").source()).isEqualTo(JobStatus.Source.UNKNOWN);
+            assertThat(engine.archivedJobCount()).isZero();
+            assertThat(engine.trackedJobCount()).isZero();
+        }
+
+        try (JobEngine engine = JobEngine.builder(newRunner(auditLogger), auditLogger).build()) {
+            engine.submit(quick, newContext("job-kept")).get(1, TimeUnit.SECONDS);
+
+            assertThat(engine.statusOf("job-kept").source()).isEqualTo(JobStatus.Source.TRACKED);
+            assertThat(engine.stateOf("job-kept")).isEqualTo(JobState.SUCCESS);
+        }
+    }
+
+    @Test
+    void runsQueuedJobsByPriorityAndShedsExpiredOnes() throws Exception {
+        AuditLogger auditLogger = mock(AuditLogger.class);
+        CountDownLatch blockerStarted = new CountDownLatch(1);
+        CountDownLatch releaseBlocker = new CountDownLatch(1);
+        List<String> executed = new CopyOnWriteArrayList<>();
+        Job blocker = new Job() {
+            @Override
+            public void prepare(JobContext context, JobExecutionContext executionContext) {
+            }
+
+            @Override
+            public void execute(JobContext context, JobExecutionContext executionContext) throws Exception {
+                blockerStarted.countDown();
+                releaseBlocker.await();
+            }
+
+            @Override
+            public void rollback(JobContext context, JobExecutionContext executionContext, Exception cause) {
+            }
+        };
+        Job recording = new Job() {
+            @Override
+            public void prepare(JobContext context, JobExecutionContext executionContext) {
+            }
+
+            @Override
+            public void execute(JobContext context, JobExecutionContext executionContext) {
+                executed.add(context.id());
+            }
+
+            @Override
+            public void rollback(JobContext context, JobExecutionContext executionContext, Exception cause) {
+            }
+        };
+
+        try (JobEngine engine = JobEngine.builder(newRunner(auditLogger), auditLogger)
+                .workerCount(1)
+                .agingStep(Duration.ofHours(1))
+                .build()) {
+            CompletableFuture<Void> blocked = engine.submit(blocker, newContext("job-blocker"));
+            assertThat(blockerStarted.await(1, TimeUnit.SECONDS)).isTrue();
+            CompletableFuture<?>[] queued = {
+                    engine.submit(recording, newContext("job-bulk"), JobPriority.BULK, null),
+                    engine.submit(recording, newContext("job-normal")),
+                    engine.submit(recording, newContext("job-expired"), JobPriority.CRITICAL, Instant.now().minusSeconds(1)),
+                    engine.submit(recording, newContext("job-critical"), JobPriority.CRITICAL, null),
+                    engine.submit(recording, newContext("job-high"), JobPriority.HIGH, null)
+            };
+            releaseBlocker.countDown();
+            blocked.get(1, TimeUnit.SECONDS);
+            CompletableFuture.allOf(queued).get(1, TimeUnit.SECONDS);
+
+            assertThat(executed).containsExactly("job-critical", "job-high", "job-normal", "job-bulk");
+            assertThat(engine.stateOf("job-expired")).isEqualTo(JobState.CANCELLED);
+            assertThat(engine.shedJobCount()).isEqualTo(1);
+            verify(auditLogger).jobStateChanged("job-expired", JobState.CANCELLED, "deadline passed before execution");
+            assertThat(engine.queueDelay(JobPriority.NORMAL).count()).isEqualTo(2);
+            assertThat(engine.queueDelay(JobPriority.BULK).valueAtPercentile(99))
+                    .isGreaterThanOrEqualTo(engine.queueDelay(JobPriority.CRITICAL).valueAtPercentile(99));
+        }
+    }
+
+    @Test
+    void agingLetsLongQueuedBulkJobsOvertakeNewCriticalOnes() throws Exception {
+        AuditLogger auditLogger = mock(AuditLogger.class);
+        CountDownLatch releaseBlocker = new CountDownLatch(1);
+        List<String> executed = new CopyOnWriteArrayList<>();
+        Job blocker = new Job() {
+            @Override
+            public void prepare(JobContext context, JobExecutionContext executionContext) {
+            }
+
+            @Override
+            public void execute(JobContext context, JobExecutionContext executionContext) throws Exception {
+                releaseBlocker.await();
+            }
+
+            @Override
+            public void rollback(JobContext context, JobExecutionContext executionContext, Exception cause) {
+            }
+        };
+        Job recording = new Job() {
+            @Override
+            public void prepare(JobContext context, JobExecutionContext executionContext) {
+            }
+
+            @Override
+            public void execute(JobContext context, JobExecutionContext executionContext) {
+                executed.add(context.id());
+            }
+
+            @Override
+            public void rollback(JobContext context, JobExecutionContext executionContext, Exception cause) {
+            }
+        };
+
+        try (JobEngine engine = JobEngine.builder(newRunner(auditLogger), auditLogger)
+                .workerCount(1)
+                .agingStep(Duration.ofMillis(10))
+                .build()) {
+            CompletableFuture<Void> blocked = engine.submit(blocker, newContext("job-blocker"));
+            CompletableFuture<Void> bulk = engine.submit(recording, newContext("job-bulk"), JobPriority.BULK, null);
+            Thread.sleep(100);
+            CompletableFuture<Void> critical = engine.submit(recording, newContext("job-critical"),
+                    JobPriority.CRITICAL, null);
+            releaseBlocker.countDown();
+            CompletableFuture.allOf(blocked, bulk, critical).get(1, TimeUnit.SECONDS);
+
+            assertThat(executed).containsExactly("job-bulk", "job-critical");
+        }
+    }
+
+    @Test
+    void parksJobsOnBusyResourcesInsteadOfBlockingWorkers() throws Exception {
+        AuditLogger auditLogger = mock(AuditLogger.class);
+        CountDownLatch holderStarted = new CountDownLatch(1);
+        CountDownLatch releaseHolder = new CountDownLatch(1);
+        List<String> executed = new CopyOnWriteArrayList<>();
+        Job holder = new Job() {
+            @Override
+            public void prepare(JobContext context, JobExecutionContext executionContext) {
+            }
+
+            @Override
+            public void execute(JobContext context, JobExecutionContext executionContext) throws Exception {
+                holderStarted.countDown();
+                releaseHolder.await();
+            }
+
+            @Override
+            public void rollback(JobContext context, JobExecutionContext executionContext, Exception cause) {
+            }
+        };
+        Job recording = new Job() {
+            @Override
+            public void prepare(JobContext context, JobExecutionContext executionContext) {
+            }
+
+            @Override
+            public void execute(JobContext context, JobExecutionContext executionContext) {
+                executed.add(context.id());
+            }
+
+            @Override
+            public void rollback(JobContext context, JobExecutionContext executionContext, Exception cause) {
+            }
+        };
+
+        try (JobEngine engine = JobEngine.builder(newRunner(auditLogger), auditLogger)
+                .workerCount(2)
+                .lockAwareDispatch(true)
+                .build()) {
+            CompletableFuture<Void> held = engine.submit(holder, newContext("job-holder", "hot"));
+            assertThat(holderStarted.await(1, TimeUnit.SECONDS)).isTrue();
+            CompletableFuture<Void> first = engine.submit(recording, newContext("job-hot-1", "hot"));
+            CompletableFuture<Void> second = engine.submit(recording, newContext("job-hot-2", "hot"));
+
+            engine.submit(recording, newContext("job-cold", "cold")).get(1, TimeUnit.SECONDS);
+            assertThat(engine.parkedJobCount()).isEqualTo(2);
+            assertThat(executed).containsExactly("job-cold");
+
+            releaseHolder.countDown();
+            CompletableFuture.allOf(held, first, second).get(1, TimeUnit.SECONDS);
+            assertThat(executed).containsExactly("job-cold", "job-hot-1", "job-hot-2");
+            assertThat(engine.parkedJobCount()).isZero();
+        }
+    }
+
+    @Test
+    void submitsABatchAndReportsEachJobsResult(@TempDir Path directory) throws Exception {
+        AuditLogger auditLogger = mock(AuditLogger.class);
+        Job flaky = new Job() {
+            @Override
+            public void prepare(JobContext context, JobExecutionContext executionContext) {
+            }
+
+            @Override
+            public void execute(JobContext context, JobExecutionContext executionContext) {
+                if (context.id().equals("job-2")) {
+                    throw new IllegalStateException("broken");
+                }
+            }
+
+            @Override
+            public void rollback(JobContext context, JobExecutionContext executionContext, Exception cause) {
+            }
+        };
+        List<JobSubmission> submissions = List.of(
+                new JobSubmission(flaky, newContext("job-1")),
+                new JobSubmission(flaky, newContext("job-2")),
+                new JobSubmission(flaky, newContext("job-3"), JobPriority.BULK, Instant.now().minusSeconds(1)));
+
+        try (FileJobStore jobStore = new FileJobStore(directory);
+             JobEngine engine = JobEngine.builder(newRunner(auditLogger), auditLogger).jobStore(jobStore).build()) {
+            JobBatch batch = engine.submitAll(submissions);
+            batch.completion().get(1, TimeUnit.SECONDS);
+
+            assertThat(batch.jobIds()).containsExactly("job-1", "job-2", "job-3");
+            assertThat(batch.finishedCount()).isEqualTo(3);
+            assertThat(batch.result("job-1")).contains(JobState.SUCCESS);
+            assertThat(batch.result(1)).contains(JobState.FAILED);
+            assertThat(batch.result("job-3")).contains(JobState.CANCELLED);
+            assertThat(batch.failure(0)).isEmpty();
+            assertThatThrownBy(() -> batch.result("job-missing")).isInstanceOf(NoSuchElementException.class);
+            verify(auditLogger).jobStatesChanged(List.of("job-1", "job-2", "job-3"), JobState.PENDING, "queued");
+        }
+        try (FileJobStore jobStore = new FileJobStore(directory)) {
+            assertThat(jobStore.unfinished()).isEmpty();
+        }
+    }
+
+    @Test
+    void boundsTheQueueAndPushesBackOnProducers() throws Exception {
+        AuditLogger auditLogger = mock(AuditLogger.class);
+        CountDownLatch blockerStarted = new CountDownLatch(1);
+        CountDownLatch releaseBlocker = new CountDownLatch(1);
+        Job blocker = new Job() {
+            @Override
+            public void prepare(JobContext context, JobExecutionContext executionContext) {
+            }
+
+            @Override
+            public void execute(JobContext context, JobExecutionContext executionContext) throws Exception {
+                blockerStarted.countDown();
+                releaseBlocker.await();
+            }
+
+            @Override
+            public void rollback(JobContext context, JobExecutionContext executionContext, Exception cause) {
+            }
+        };
+        Job quick = new Job() {
+            @Override
+            public void prepare(JobContext context, JobExecutionContext executionContext) {
+            }
+
+            @Override
+            public void execute(JobContext context, JobExecutionContext executionContext) {
+            }
+
+            @Override
+            public void rollback(JobContext context, JobExecutionContext executionContext, Exception cause) {
+            }
+        };
+
+        try (JobEngine engine = JobEngine.builder(newRunner(auditLogger), auditLogger)
+                .workerCount(1)
+                .maxQueuedJobs(2)
+                .build()) {
+            CompletableFuture<Void> blocked = engine.submit(blocker, newContext("job-blocker"));
+            assertThat(blockerStarted.await(1, TimeUnit.SECONDS)).isTrue();
+            CompletableFuture<Void> first = engine.submit(quick, newContext("job-1"));
+            CompletableFuture<Void> second = engine.trySubmit(quick, newContext("job-2")).orElseThrow();
+
+            assertThat(engine.trySubmit(quick, newContext("job-3"))).isEmpty();
+            assertThatThrownBy(() -> engine.submit(quick, newContext("job-4")))
+                    .isInstanceOf(JobEngine.SaturatedException.class);
+            assertThat(engine.queuedJobCount()).isEqualTo(2);
+            assertThat(engine.unfinishedJobCount()).isEqualTo(3);
+            assertThat(engine.rejectedJobCount()).isEqualTo(2);
+            assertThat(engine.statusOf("job-4").isKnown()).isFalse();
+
+            releaseBlocker.countDown();
+            CompletableFuture.allOf(blocked, first, second).get(1, TimeUnit.SECONDS);
+            assertThat(engine.queuedJobCount()).isZero();
+            assertThat(engine.unfinishedJobCount()).isZero();
+        }
+    }
+
+    @Test
+    void releasesAdmissionWhenTheStoreFailsToRecordASubmission() throws Exception {
+        AuditLogger auditLogger = mock(AuditLogger.class);
+        JobStore jobStore = mock(JobStore.class);
+        doThrow(new JobStore.StoreException("disk full", null)).when(jobStore).submitted(any(), any());
+        doThrow(new JobStore.StoreException("disk full", null)).when(jobStore).submittedAll(any());
+        Job quick = new Job() {
+            @Override
+            public void prepare(JobContext context, JobExecutionContext executionContext) {
+            }
+
+            @Override
+            public void execute(JobContext context, JobExecutionContext executionContext) {
+            }
+
+            @Override
+            public void rollback(JobContext context, JobExecutionContext executionContext, Exception cause) {
+            }
+        };
+
+        try (JobEngine engine = JobEngine.builder(newRunner(auditLogger), auditLogger)
+                .workerCount(1)
+                .maxQueuedJobs(1)
+                .jobStore(jobStore)
+                .build()) {
+            for (int i = 0; i < 3; i++) {
+                String id = "job-" + i;
+                assertThatThrownBy(() -> engine.submit(quick, newContext(id))).isInstanceOf(JobStore.StoreException.class);
+            }
+            assertThatThrownBy(() -> engine.submitAll(List.of(new JobSubmission(quick, newContext("job-batch")))))
+                    .isInstanceOf(JobStore.StoreException.class);
+
+            assertThat(engine.queuedJobCount()).isZero();
+            assertThat(engine.unfinishedJobCount()).isZero();
+            assertThat(engine.rejectedJobCount()).isZero();
+
+            doNothing().when(jobStore).submitted(any(), any());
+            engine.submit(quick, newContext("job-after")).get(1, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void blockingPolicyStallsTheProducerUntilThereIsRoom() throws Exception {
+        AuditLogger auditLogger = mock(AuditLogger.class);
+        CountDownLatch releaseBlocker = new CountDownLatch(1);
+        Job blocker = new Job() {
+            @Override
+            public void prepare(JobContext context, JobExecutionContext executionContext) {
+            }
+
+            @Override
+            public void execute(JobContext context, JobExecutionContext executionContext) throws Exception {
+                releaseBlocker.await();
+            }
+
+            @Override
+            public void rollback(JobContext context, JobExecutionContext executionContext, Exception cause) {
+            }
+        };
+
+        try (JobEngine engine = JobEngine.builder(newRunner(auditLogger), auditLogger)
+                .workerCount(1)
+                .maxQueuedJobs(1)
+                .overflowPolicy(SubmissionOverflowPolicy.BLOCK)
+                .build()) {
+            engine.submit(blocker, newContext("job-running"));
+            engine.submit(blocker, newContext("job-queued"));
+            CompletableFuture<CompletableFuture<Void>> producer = CompletableFuture.supplyAsync(
+                    () -> engine.submit(blocker, newContext("job-waiting")));
+
+            Thread.sleep(100);
+            assertThat(producer).isNotDone();
+            assertThat(engine.queuedJobCount()).isEqualTo(1);
+
+            releaseBlocker.countDown();
+            producer.get(1, TimeUnit.SECONDS).get(1, TimeUnit.SECONDS);
+            assertThat(engine.rejectedJobCount()).isZero();
+        }
+    }
+
+    @Test
+    void workStealingWorkersTakeJobsQueuedBehindABusyWorker() throws Exception {
+        AuditLogger auditLogger = mock(AuditLogger.class);
+        CountDownLatch holderStarted = new CountDownLatch(1);
+        CountDownLatch releaseHolder = new CountDownLatch(1);
+        Map<String, String> threads = new ConcurrentHashMap<>();
+        Job holder = new Job() {
+            @Override
+            public void prepare(JobContext context, JobExecutionContext executionContext) {
+            }
+
+            @Override
+            public void execute(JobContext context, JobExecutionContext executionContext) throws Exception {
+                threads.put(context.id(), Thread.currentThread().getName());
+                holderStarted.countDown();
+                releaseHolder.await();
+            }
+
+            @Override
+            public void rollback(JobContext context, JobExecutionContext executionContext, Exception cause) {
+            }
+        };
+        Job recording = new Job() {
+            @Override
+            public void prepare(JobContext context, JobExecutionContext executionContext) {
+            }
+
+            @Override
+            public void execute(JobContext context, JobExecutionContext executionContext) {
+                threads.put(context.id(), Thread.currentThread().getName());
+            }
+
+            @Override
+            public void rollback(JobContext context, JobExecutionContext executionContext, Exception cause) {
+            }
+        };
+        Map<Resource, LockMode> shared = Map.of(new Resource("hot"), LockMode.SHARED);
+
+        try (JobEngine engine = JobEngine.builder(newRunner(auditLogger), auditLogger)
+                .workerMode(WorkerMode.WORK_STEALING)
+                .workerCount(4)
+                .build()) {
+            CompletableFuture<Void> held = engine.submit(holder,
+                    new JobContext("job-holder", Duration.ofSeconds(1), RetryPolicies.fixedDelay(1, 0), shared));
+            assertThat(holderStarted.await(1, TimeUnit.SECONDS)).isTrue();
+
+            CompletableFuture<Void> first = engine.submit(recording, new JobContext("job-behind-1",
+                    Duration.ofSeconds(1), RetryPolicies.fixedDelay(1, 0), shared));
+            CompletableFuture<Void> second = engine.submit(recording, new JobContext("job-behind-2",
+                    Duration.ofSeconds(1), RetryPolicies.fixedDelay(1, 0), shared));
+            first.get(1, TimeUnit.SECONDS);
+            assertThat(threads.get("job-behind-1")).isNotEqualTo(threads.get("job-holder"));
+            assertThat(engine.stolenJobCount()).isPositive();
+
+            CompletableFuture<?>[] others = new CompletableFuture<?>[20];
+            for (int i = 0; i < others.length; i++) {
+                others[i] = engine.submit(recording, newContext("job-" + i, "resource-" + i));
+            }
+            CompletableFuture.allOf(others).get(1, TimeUnit.SECONDS);
+            releaseHolder.countDown();
+            held.get(1, TimeUnit.SECONDS);
+            second.get(1, TimeUnit.SECONDS);
+            assertThat(engine.stateOf("job-holder")).isEqualTo(JobState.SUCCESS);
+        }
+    }
+
+    @Test
+    void rejectsVirtualModeOnOlderRuntimes() {
+        assumeTrue(!VirtualThreads.isSupported(), "only meaningful before Java 21");
+        AuditLogger auditLogger = mock(AuditLogger.class);
+
+        assertThatThrownBy(() -> JobEngine.builder(newRunner(auditLogger), auditLogger)
+                .workerMode(WorkerMode.VIRTUAL_PER_JOB)
+                .build())
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    private static JobRunner newRunner(AuditLogger auditLogger) {
+        return new JobRunner(new LockRegistry(new LockGraphEngine(), auditLogger), auditLogger,
+                new InMemoryExecutionContextFactory());
+    }
+
+    private static JobContext newContext(String id) {
+        return new JobContext(id, Duration.ofSeconds(1), RetryPolicies.fixedDelay(1, 0), List.of());
+    }
+
+    private static JobContext newContext(String id, String resource) {
+        return new JobContext(id, Duration.ofSeconds(1), RetryPolicies.fixedDelay(1, 0), List.of(new Resource(resource)));
+    }
+}
@@ -4,18 +4,28 @@ import com.domain.Job;
 import com.domain.JobContext;
 import com.domain.RetryPolicies;
 import com.infra.AuditLogger;
+import com.infra.JdbcExecutionContextFactory;
 import org.awaitility.Awaitility;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
 import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -106,4 +116,267 @@ class JobRunnerTest {
         assertThat(started.getCount()).isZero();
         Awaitility.await().atMost(Duration.ofSeconds(1)).untilTrue(interrupted);
     }
+
+    @Test
+    void timeoutRunsOnCallerThreadWithoutLeakingInterrupt() {
+        AuditLogger auditLogger = mock(AuditLogger.class);
+        LockRegistry lockRegistry = new LockRegistry(new LockGraphEngine(), auditLogger);
+        JobRunner runner = new JobRunner(lockRegistry, auditLogger, new InMemoryExecutionContextFactory());
+
+        Thread caller = Thread.currentThread();
+        AtomicBoolean ranOnCaller = new AtomicBoolean(false);
+        Job job = new Job() {
+            @Override
+            public void prepare(JobContext context, com.domain.JobExecutionContext executionContext) {
+            }
+
+            @Override
+            public void execute(JobContext context, com.domain.JobExecutionContext executionContext) throws Exception {
+                ranOnCaller.set(Thread.currentThread() == caller);
+                Thread.sleep(500);
+            }
+
+            @Override
+            public void rollback(JobContext context, com.domain.JobExecutionContext executionContext, Exception cause) {
+            }
+        };
+
+        JobContext context = new JobContext(
+                "job-deadline",
+                Duration.ofMillis(50),
+                RetryPolicies.fixedDelay(1, 0),
+                List.of()
+        );
+
+        JobState result = runner.run(job, context);
+
+        assertThat(result).isEqualTo(JobState.TIMEOUT);
+        assertThat(ranOnCaller).isTrue();
+        assertThat(Thread.currentThread().isInterrupted()).isFalse();
+    }
+
+    @Test
+    void deadlineKeepsAnInterruptThatWasAlreadyPending() {
+        DeadlineAttemptExecutor executor = new DeadlineAttemptExecutor();
+        long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+
+        Thread.currentThread().interrupt();
+        assertThatThrownBy(() -> executor.execute(() -> {
+            while (System.nanoTime() < until) {
+                Thread.onSpinWait();
+            }
+            return null;
+        }, Duration.ofMillis(10))).isInstanceOf(JobRunner.TimeoutException.class);
+
+        assertThat(Thread.interrupted()).isTrue();
+    }
+
+    @Test
+    void deadlineIsDisarmedWhenTheBodyThrowsAnError() throws Exception {
+        DeadlineAttemptExecutor executor = new DeadlineAttemptExecutor();
+
+        assertThatThrownBy(() -> executor.execute(() -> {
+            throw new StackOverflowError();
+        }, Duration.ofMillis(20))).isInstanceOf(StackOverflowError.class);
+        Thread.sleep(60);
+        assertThat(Thread.interrupted()).isFalse();
+
+        assertThatThrownBy(() -> executor.execute(() -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            throw new StackOverflowError();
+        }, Duration.ofMillis(10))).isInstanceOf(StackOverflowError.class);
+        assertThat(Thread.interrupted()).isFalse();
+    }
+
+    @Test
+    void abandoningExecutorGivesUpOnABodyThatIgnoresInterrupts() {
+        AbandoningAttemptExecutor executor = new AbandoningAttemptExecutor(Duration.ofMillis(50));
+        CountDownLatch release = new CountDownLatch(1);
+        long started = System.nanoTime();
+
+        try {
+            assertThatThrownBy(() -> executor.execute(() -> {
+                while (release.getCount() > 0) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException ignored) {
+                    }
+                }
+                return null;
+            }, Duration.ofMillis(20))).isInstanceOf(JobRunner.TimeoutException.class);
+        } finally {
+            release.countDown();
+        }
+
+        assertThat(System.nanoTime() - started).isLessThan(TimeUnit.SECONDS.toNanos(1));
+        assertThat(Thread.currentThread().isInterrupted()).isFalse();
+    }
+
+    @Test
+    void groupCommitRunsConcurrentJobsInOneTransactionAndRetriesTheRestWhenOneFails() throws Exception {
+        String url = "jdbc:h2:mem:group-commit;DB_CLOSE_DELAY=-1";
+        try (Connection connection = DriverManager.getConnection(url); Statement statement = connection.createStatement()) {
+            statement.execute("create table group_events(name varchar(64))");
+        }
+        AtomicInteger transactions = new AtomicInteger();
+        JdbcExecutionContextFactory jdbc = new JdbcExecutionContextFactory(() -> DriverManager.getConnection(url));
+        AuditLogger auditLogger = mock(AuditLogger.class);
+        JobRunner runner = JobRunner.builder(new LockRegistry(new LockGraphEngine(), auditLogger), auditLogger, () -> {
+            transactions.incrementAndGet();
+            return jdbc.create();
+        }).groupCommit(8).build();
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        List<String> executed = new CopyOnWriteArrayList<>();
+        List<String> rolledBack = new CopyOnWriteArrayList<>();
+        Job insert = new Job() {
+            @Override
+            public void prepare(JobContext context, com.domain.JobExecutionContext executionContext) {
+            }
+
+            @Override
+            public void execute(JobContext context, com.domain.JobExecutionContext executionContext) throws Exception {
+                executed.add(context.id());
+                if (context.id().equals("job-first")) {
+                    releaseFirst.await();
+                }
+                try (PreparedStatement statement = executionContext.find(ExecutionContextKeys.JDBC_CONNECTION, Connection.class)
+                        .orElseThrow()
+                        .prepareStatement("insert into group_events(name) values (?)")) {
+                    statement.setString(1, context.id());
+                    statement.executeUpdate();
+                }
+                if (context.id().equals("job-broken")) {
+                    throw new IllegalStateException("broken");
+                }
+            }
+
+            @Override
+            public void rollback(JobContext context, com.domain.JobExecutionContext executionContext, Exception cause) {
+                rolledBack.add(context.id());
+            }
+        };
+
+        FutureTask<JobState> first = runInThread(runner, insert, "job-first", "resource-1");
+        Awaitility.await().atMost(Duration.ofSeconds(1)).until(() -> executed.contains("job-first"));
+        FutureTask<JobState> good = runInThread(runner, insert, "job-good", "resource-2");
+        FutureTask<JobState> broken = runInThread(runner, insert, "job-broken", "resource-3");
+        releaseFirst.countDown();
+
+        assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo(JobState.SUCCESS);
+        assertThat(good.get(1, TimeUnit.SECONDS)).isEqualTo(JobState.SUCCESS);
+        assertThat(broken.get(1, TimeUnit.SECONDS)).isEqualTo(JobState.FAILED);
+        assertThat(rolledBack).containsExactly("job-broken");
+        assertThat(executed).containsExactly("job-first", "job-good", "job-broken", "job-good");
+        assertThat(transactions).hasValue(3);
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("select name from group_events order by name")) {
+            List<String> names = new CopyOnWriteArrayList<>();
+            while (rows.next()) {
+                names.add(rows.getString(1));
+            }
+            assertThat(names).containsExactly("job-first", "job-good");
+        }
+    }
+
+    @Test
+    void groupCommitReleasesTheGroupWhenABodyThrowsAnError() throws Exception {
+        AuditLogger auditLogger = mock(AuditLogger.class);
+        JobRunner runner = JobRunner.builder(new LockRegistry(new LockGraphEngine(), auditLogger), auditLogger,
+                new InMemoryExecutionContextFactory()).groupCommit(8).build();
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        Job job = new Job() {
+            @Override
+            public void prepare(JobContext context, com.domain.JobExecutionContext executionContext) {
+            }
+
+            @Override
+            public void execute(JobContext context, com.domain.JobExecutionContext executionContext) throws Exception {
+                if (context.id().equals("job-first")) {
+                    releaseFirst.await();
+                }
+                if (context.id().equals("job-error")) {
+                    throw new AssertionError("broken");
+                }
+            }
+
+            @Override
+            public void rollback(JobContext context, com.domain.JobExecutionContext executionContext, Exception cause) {
+            }
+        };
+
+        FutureTask<JobState> first = runInThread(runner, job, "job-first", "resource-1");
+        FutureTask<JobState> error = runInThread(runner, job, "job-error", "resource-2");
+        FutureTask<JobState> follower = runInThread(runner, job, "job-follower", "resource-3");
+        releaseFirst.countDown();
+
+        assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo(JobState.SUCCESS);
+        assertThatThrownBy(() -> error.get(1, TimeUnit.SECONDS)).hasCauseInstanceOf(AssertionError.class);
+        assertThatThrownBy(() -> follower.get(1, TimeUnit.SECONDS)).hasCauseInstanceOf(AssertionError.class);
+        assertThat(runner.run(job, newContext("job-later", "resource-1"))).isEqualTo(JobState.SUCCESS);
+    }
+
+    @Test
+    void groupCommitMembersGiveUpWaitingAtTheirTimeoutOrWhenInterrupted() throws Exception {
+        AuditLogger auditLogger = mock(AuditLogger.class);
+        JobRunner runner = JobRunner.builder(new LockRegistry(new LockGraphEngine(), auditLogger), auditLogger,
+                new InMemoryExecutionContextFactory()).groupCommit(8).build();
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        Job job = new Job() {
+            @Override
+            public void prepare(JobContext context, com.domain.JobExecutionContext executionContext) {
+            }
+
+            @Override
+            public void execute(JobContext context, com.domain.JobExecutionContext executionContext) throws Exception {
+                if (context.id().equals("job-first")) {
+                    releaseFirst.await();
+                }
+            }
+
+            @Override
+            public void rollback(JobContext context, com.domain.JobExecutionContext executionContext, Exception cause) {
+            }
+        };
+
+        FutureTask<JobState> first = runInThread(runner, job, newContext("job-first", "resource-1"));
+        JobState impatient = runner.run(job, new JobContext("job-impatient", Duration.ofMillis(50),
+                RetryPolicies.fixedDelay(1, 0), List.of(new com.domain.Resource("resource-2"))));
+        FutureTask<JobState> cancelled = new FutureTask<>(() -> runner.run(job, newContext("job-interrupted", "resource-3")));
+        Thread waiter = new Thread(cancelled, "job-interrupted");
+        waiter.start();
+        Awaitility.await().atMost(Duration.ofSeconds(1)).until(() -> waiter.getState() == Thread.State.TIMED_WAITING);
+        waiter.interrupt();
+
+        assertThat(impatient).isEqualTo(JobState.TIMEOUT);
+        assertThat(cancelled.get(1, TimeUnit.SECONDS)).isEqualTo(JobState.FAILED);
+        assertThat(first.isDone()).isFalse();
+        releaseFirst.countDown();
+        assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo(JobState.SUCCESS);
+    }
+
+    private static FutureTask<JobState> runInThread(JobRunner runner, Job job, String id, String resource) {
+        return runInThread(runner, job, newContext(id, resource));
+    }
+
+    /**
+     * Starts the job on its own thread and returns once that thread waits for the running group.
+     */
+    private static FutureTask<JobState> runInThread(JobRunner runner, Job job, JobContext context) {
+        FutureTask<JobState> task = new FutureTask<>(() -> runner.run(job, context));
+        Thread thread = new Thread(task, context.id());
+        thread.setDaemon(true);
+        thread.start();
+        Awaitility.await().atMost(Duration.ofSeconds(1)).until(() -> thread.getState() == Thread.State.WAITING
+                || thread.getState() == Thread.State.TIMED_WAITING);
+        return task;
+    }
+
+    private static JobContext newContext(String id, String resource) {
+        return new JobContext(id, Duration.ofSeconds(1), RetryPolicies.fixedDelay(1, 0), List.of(new com.domain.Resource(resource)));
+    }
 }
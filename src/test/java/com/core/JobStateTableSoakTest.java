@@ -0,0 +1,44 @@
+package com.core;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Finishes {@code soak.jobs} jobs (5M by default) with a small state table and reports the heap retained
+ * per job once states have moved to the archive. Excluded from {@code test}; run with {@code gradle soakTest}.
+ */
+@Tag("soak")
+class JobStateTableSoakTest {
+    private static final int JOBS = Integer.getInteger("soak.jobs", 5_000_000);
+    private static final long MAX_BYTES_PER_JOB = 32;
+
+    @Test
+    void archivedJobsCostAFewBytesEach() {
+        JobStateTable table = new JobStateTable(Duration.ofHours(1), 10_000, true);
+        long baseline = usedHeapAfterGc();
+
+        for (int i = 0; i < JOBS; i++) {
+            String jobId = "job-" + i;
+            table.put(jobId, JobState.PENDING);
+            table.put(jobId, JobState.RUNNING);
+            table.put(jobId, JobState.SUCCESS);
+        }
+
+        long bytesPerJob = (usedHeapAfterGc() - baseline) / JOBS;
+        System.out.printf("%d jobs: %d tracked, %d archived, %d bytes/job retained, archive %d bytes%n",
+                JOBS, table.trackedCount(), table.archivedCount(), bytesPerJob, table.archiveMemoryBytes());
+        assertThat(table.trackedCount()).isEqualTo(10_000);
+        assertThat(table.lookup("job-0").state()).isEqualTo(JobState.SUCCESS);
+        assertThat(bytesPerJob).isLessThan(MAX_BYTES_PER_JOB);
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
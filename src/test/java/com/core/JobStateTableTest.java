@@ -0,0 +1,25 @@
+package com.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JobStateTableTest {
+    @Test
+    void anExpiryFromAnEarlierRunDoesNotEvictTheNextRun() {
+        JobStateTable table = new JobStateTable(null, 1, true);
+
+        table.put("job-1", JobState.SUCCESS);
+        table.put("job-1", JobState.PENDING);
+        table.put("job-1", JobState.FAILED);
+
+        assertThat(table.lookup("job-1").source()).isEqualTo(JobStatus.Source.TRACKED);
+        assertThat(table.lookup("job-1").state()).isEqualTo(JobState.FAILED);
+
+        table.put("job-2", JobState.SUCCESS);
+
+        assertThat(table.lookup("job-1").source()).isEqualTo(JobStatus.Source.EVICTED);
+        assertThat(table.lookup("job-1").state()).isEqualTo(JobState.FAILED);
+        assertThat(table.trackedCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,73 @@
+package com.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyHistogramTest {
+    @Test
+    void reportsPercentilesWithinTheBucketResolution() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.record(micros * 1000);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertThat(snapshot.count()).isEqualTo(1000);
+        assertThat((double) snapshot.valueAtPercentile(50)).isCloseTo(500_000, within(500_000 * 0.04));
+        assertThat((double) snapshot.valueAtPercentile(99)).isCloseTo(990_000, within(990_000 * 0.04));
+        assertThat((double) snapshot.max()).isCloseTo(1_000_000, within(1_000_000 * 0.04));
+        assertThat(new LatencyHistogram().snapshot().valueAtPercentile(99)).isZero();
+    }
+
+    @Test
+    void bucketsCoverTheWholeLongRange() {
+        for (long value : new long[]{0, 1, 31, 32, 33, 1023, 1024, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.indexOf(value);
+            assertThat(LatencyHistogram.highestValueAt(index)).isGreaterThanOrEqualTo(value);
+            if (index > 0) {
+                assertThat(LatencyHistogram.highestValueAt(index - 1)).isLessThan(value);
+            }
+        }
+    }
+
+    @Test
+    void countsEveryValueRecordedConcurrently() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        int threads = 4;
+        int values = 100_000;
+        CyclicBarrier start = new CyclicBarrier(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int value = 0; value < values; value++) {
+                        histogram.record(1000);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.count()).isEqualTo((long) threads * values);
+        assertThat((double) snapshot.max()).isCloseTo(1000, within(1000 * 0.04));
+    }
+}
@@ -0,0 +1,67 @@
+package com.core;
+
+import com.domain.LockMode;
+import com.domain.Resource;
+import com.infra.AuditLogger;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class LockAwareDispatcherTest {
+    private static final Resource ORDERS = new Resource("orders");
+    private static final Map<Resource, LockMode> EXCLUSIVE = Map.of(ORDERS, LockMode.EXCLUSIVE);
+
+    @Test
+    void givesBackTheClaimsOfARejectedAttempt() {
+        AtomicBoolean reject = new AtomicBoolean(true);
+        BlockingQueue<String> accepted = new LinkedBlockingQueue<>();
+        try (LockAwareDispatcher<String> dispatcher = new LockAwareDispatcher<>(new LockGraphEngine(), attempt -> {
+            if (reject.getAndSet(false)) {
+                return false;
+            }
+            accepted.add(attempt);
+            return true;
+        }, Runnable::run)) {
+            dispatcher.dispatch("rejected", EXCLUSIVE);
+            dispatcher.dispatch("next", EXCLUSIVE);
+
+            assertThat(accepted).containsExactly("next");
+            assertThat(dispatcher.parkedCount()).isZero();
+        }
+    }
+
+    @Test
+    void wakesOnTheWakeExecutorAfterAnOutsideRelease() throws Exception {
+        LockGraphEngine lockGraphEngine = new LockGraphEngine();
+        LockRegistry lockRegistry = new LockRegistry(lockGraphEngine, mock(AuditLogger.class));
+        BlockingQueue<Thread> dispatchedOn = new LinkedBlockingQueue<>();
+        ExecutorService wakeExecutor = Executors.newSingleThreadExecutor();
+        try (LockAwareDispatcher<String> dispatcher = new LockAwareDispatcher<>(lockGraphEngine, attempt -> {
+            dispatchedOn.add(Thread.currentThread());
+            return true;
+        }, wakeExecutor)) {
+            LockRegistry.LockHandle handle = lockRegistry.acquireLocks("outside", List.of(ORDERS), Duration.ofSeconds(1));
+            dispatcher.dispatch("parked", EXCLUSIVE);
+            assertThat(dispatcher.parkedCount()).isEqualTo(1);
+
+            handle.close();
+
+            Thread thread = dispatchedOn.poll(1, TimeUnit.SECONDS);
+            assertThat(thread).isNotNull().isNotSameAs(Thread.currentThread());
+            assertThat(dispatcher.parkedCount()).isZero();
+        } finally {
+            wakeExecutor.shutdownNow();
+        }
+    }
+}
@@ -1,8 +1,20 @@
 package com.core;
 
+import com.domain.LockMode;
 import com.domain.Resource;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 class LockGraphEngineTest {
@@ -46,4 +58,209 @@ class LockGraphEngineTest {
         assertThat(engine.waitingFor("job-b")).containsExactlyInAnyOrder(resourceA, resourceB);
         assertThat(engine.heldBy("job-a")).containsExactly(resourceA);
     }
+
+    @Test
+    void followsLongWaitChainsWithoutOverflowingTheStack() {
+        LockGraphEngine engine = new LockGraphEngine();
+        int jobs = 50_000;
+        for (int i = 0; i < jobs; i++) {
+            engine.markAcquired("job-" + i, new Resource("resource-" + i));
+        }
+        for (int i = 0; i < jobs - 1; i++) {
+            engine.markWaiting("job-" + i, new Resource("resource-" + (i + 1)));
+        }
+
+        assertThat(engine.hasDeadlock("job-0")).isFalse();
+
+        engine.markWaiting("job-" + (jobs - 1), new Resource("resource-0"));
+
+        assertThat(engine.hasDeadlock("job-0")).isTrue();
+    }
+
+    @Test
+    void dropsWaitForEdgesWhenOwnershipChanges() {
+        LockGraphEngine engine = new LockGraphEngine();
+        Resource resourceA = new Resource("resource-a");
+        Resource resourceB = new Resource("resource-b");
+
+        engine.markAcquired("job-a", resourceA);
+        engine.markAcquired("job-b", resourceB);
+        engine.markWaiting("job-a", resourceB);
+        engine.markReleased("job-b", resourceB);
+        engine.markAcquired("job-a", resourceB);
+        engine.markWaiting("job-b", resourceA);
+
+        assertThat(engine.hasDeadlock("job-b")).isFalse();
+
+        engine.clear("job-a");
+
+        assertThat(engine.heldBy("job-a")).isEmpty();
+        assertThat(engine.ownerOf(resourceA)).isNull();
+        assertThat(engine.waitersOf(resourceA)).containsExactly("job-b");
+    }
+
+    @Test
+    void onlyIncompatibleModesCreateWaitForEdges() {
+        LockGraphEngine engine = new LockGraphEngine();
+        Resource table = new Resource("table");
+        Resource report = new Resource("report");
+
+        engine.markAcquired("reader-1", table, LockMode.SHARED);
+        engine.markAcquired("reader-2", table, LockMode.SHARED);
+        engine.markAcquired("writer", report);
+        engine.markWaiting("writer", table, LockMode.EXCLUSIVE);
+        engine.markWaiting("reader-1", report, LockMode.SHARED);
+
+        assertThat(engine.holdersOf(table)).containsExactlyInAnyOrder("reader-1", "reader-2");
+        assertThat(engine.hasDeadlock("reader-1")).isTrue();
+
+        engine.cancelWaiting("reader-1", report);
+        engine.markWaiting("reader-3", table, LockMode.SHARED);
+        engine.markWaiting("reader-3", report, LockMode.SHARED);
+
+        assertThat(engine.hasDeadlock("reader-3")).isFalse();
+        assertThat(engine.waitersOf(table)).containsExactlyInAnyOrder("writer", "reader-3");
+    }
+
+    @Test
+    void confirmsCyclesUnderTheNodeMonitorsOnceOptimisticChecksRunOut() {
+        LockGraphEngine engine = new LockGraphEngine(0);
+        Resource table = new Resource("table");
+        Resource report = new Resource("report");
+
+        engine.markAcquired("reader-1", table, LockMode.SHARED);
+        engine.markAcquired("reader-2", table, LockMode.SHARED);
+        engine.markAcquired("writer", report);
+        engine.markWaiting("writer", table, LockMode.EXCLUSIVE);
+        engine.markWaiting("reader-1", report, LockMode.SHARED);
+
+        assertThat(engine.hasDeadlock("reader-1")).isTrue();
+        assertThat(engine.hasDeadlock("writer")).isTrue();
+
+        engine.markReleased("reader-2", table);
+        assertThat(engine.hasDeadlock("writer")).isTrue();
+
+        engine.cancelWaiting("reader-1", report);
+        assertThat(engine.hasDeadlock("writer")).isFalse();
+        assertThat(engine.hasDeadlock("reader-1")).isFalse();
+    }
+
+    @Test
+    void aCompatibleWaiterStillWaitsForEveryJobQueuedAheadOfIt() {
+        LockGraphEngine engine = new LockGraphEngine();
+        Resource table = new Resource("table");
+        Resource row = new Resource("row");
+
+        engine.markAcquired("holder", table, LockMode.SHARED);
+        engine.markAcquired("late-reader", row, LockMode.EXCLUSIVE);
+        engine.markWaiting("writer", table, LockMode.INTENTION_EXCLUSIVE);
+        engine.markWaiting("late-reader", table, LockMode.INTENTION_SHARED);
+
+        assertThat(engine.hasDeadlock("holder")).isFalse();
+
+        engine.markWaiting("holder", row, LockMode.EXCLUSIVE);
+
+        assertThat(engine.hasDeadlock("holder")).isTrue();
+        assertThat(engine.hasDeadlock("late-reader")).isTrue();
+    }
+
+    @Test
+    void detectsCyclesClosedConcurrentlyFromBothSides() throws Exception {
+        LockGraphEngine engine = new LockGraphEngine();
+        Resource resourceA = new Resource("resource-a");
+        Resource resourceB = new Resource("resource-b");
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 1_000; round++) {
+                engine.markAcquired("job-a", resourceA);
+                engine.markAcquired("job-b", resourceB);
+                Future<Boolean> jobA = executor.submit(() -> {
+                    barrier.await();
+                    engine.markWaiting("job-a", resourceB);
+                    return engine.hasDeadlock("job-a");
+                });
+                Future<Boolean> jobB = executor.submit(() -> {
+                    barrier.await();
+                    engine.markWaiting("job-b", resourceA);
+                    return engine.hasDeadlock("job-b");
+                });
+
+                boolean detectedByA = jobA.get(1, TimeUnit.SECONDS);
+                boolean detectedByB = jobB.get(1, TimeUnit.SECONDS);
+                assertThat(detectedByA || detectedByB).isTrue();
+
+                engine.clear("job-a");
+                engine.clear("job-b");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(engine.snapshotJson()).isEqualTo("{\"owners\":{},\"waiting\":{}}");
+    }
+
+    @Test
+    void keepsIndexesConsistentUnderConcurrentMutation() throws Exception {
+        LockGraphEngine engine = new LockGraphEngine();
+        int threads = 8;
+        List<String> jobs = new ArrayList<>();
+        List<Resource> resources = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            jobs.add("job-" + i);
+        }
+        for (int i = 0; i < 64; i++) {
+            resources.add(new Resource("resource-" + i));
+        }
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Void>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    barrier.await();
+                    for (int i = 0; i < 20_000; i++) {
+                        String job = jobs.get(random.nextInt(jobs.size()));
+                        Resource resource = resources.get(random.nextInt(resources.size()));
+                        switch (random.nextInt(5)) {
+                            case 0 -> engine.markWaiting(job, resource);
+                            case 1 -> engine.cancelWaiting(job, resource);
+                            case 2 -> engine.markAcquired(job, resource);
+                            case 3 -> engine.markReleased(job, resource);
+                            default -> {
+                                if (random.nextInt(20) == 0) {
+                                    engine.clear(job);
+                                }
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<Void> worker : workers) {
+                worker.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (String job : jobs) {
+            Set<Resource> owned = new HashSet<>();
+            for (Resource resource : resources) {
+                if (job.equals(engine.ownerOf(resource))) {
+                    owned.add(resource);
+                }
+            }
+            assertThat(engine.heldBy(job)).as("held by %s", job).isEqualTo(owned);
+        }
+        for (Resource resource : resources) {
+            Set<String> waiters = new HashSet<>();
+            for (String job : jobs) {
+                if (engine.waitingFor(job).contains(resource)) {
+                    waiters.add(job);
+                }
+            }
+            assertThat(engine.waitersOf(resource)).as("waiters of %s", resource).isEqualTo(waiters);
+        }
+    }
 }
@@ -1,19 +1,29 @@
 package com.core;
 
+import com.domain.LockMode;
 import com.domain.Resource;
 import com.infra.AuditLogger;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 
 class LockRegistryConcurrencyTest {
     @Test
@@ -61,4 +71,254 @@ class LockRegistryConcurrencyTest {
             executor.shutdownNow();
         }
     }
+
+    @Test
+    void handsReleasedLockToWaiterWithoutPolling() throws Exception {
+        AuditLogger auditLogger = mock(AuditLogger.class);
+        LockRegistry lockRegistry = new LockRegistry(new LockGraphEngine(), auditLogger);
+        Resource resource = new Resource("shared");
+        LockRegistry.LockHandle first = lockRegistry.acquireLocks("job-1", List.of(resource), Duration.ofSeconds(1));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Long> second = executor.submit(() -> {
+                try (LockRegistry.LockHandle ignored = lockRegistry.acquireLocks(
+                        "job-2",
+                        List.of(resource),
+                        Duration.ofSeconds(5)
+                )) {
+                    return System.nanoTime();
+                }
+            });
+            verify(auditLogger, timeout(1000)).lockWaiting("job-2", resource, "job-1");
+
+            long releasedAt = System.nanoTime();
+            first.close();
+            long acquiredAt = second.get(1, TimeUnit.SECONDS);
+
+            assertThat(TimeUnit.NANOSECONDS.toMillis(acquiredAt - releasedAt)).isLessThan(50);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void releasesHeldLocksWhenDeadlockIsDetected() throws Exception {
+        AuditLogger auditLogger = mock(AuditLogger.class);
+        LockGraphEngine lockGraphEngine = new LockGraphEngine();
+        LockRegistry lockRegistry = new LockRegistry(lockGraphEngine, auditLogger);
+        Resource resourceA = new Resource("resource-a");
+        Resource resourceB = new Resource("resource-b");
+        LockRegistry.LockHandle holdsB = lockRegistry.acquireLocks("job-b", List.of(resourceB), Duration.ofSeconds(1));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Void> jobA = executor.submit(() -> {
+                try (LockRegistry.LockHandle ignored = lockRegistry.acquireLocks(
+                        "job-a",
+                        List.of(resourceA, resourceB),
+                        Duration.ofSeconds(5)
+                )) {
+                    return null;
+                }
+            });
+            verify(auditLogger, timeout(1000)).lockWaiting("job-a", resourceB, "job-b");
+
+            assertThatThrownBy(() -> lockRegistry.acquireLocks("job-b", List.of(resourceA), Duration.ofSeconds(1)))
+                    .isInstanceOf(LockRegistry.DeadlockException.class);
+            holdsB.close();
+
+            jobA.get(1, TimeUnit.SECONDS);
+            assertThat(lockGraphEngine.heldBy("job-a")).isEmpty();
+            assertThat(lockGraphEngine.heldBy("job-b")).isEmpty();
+            assertThat(lockGraphEngine.waitingFor("job-b")).isEmpty();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void timeoutReleasesLocksAcquiredEarlier() throws Exception {
+        AuditLogger auditLogger = mock(AuditLogger.class);
+        LockRegistry lockRegistry = new LockRegistry(new LockGraphEngine(), auditLogger);
+        Resource resourceA = new Resource("resource-a");
+        Resource resourceB = new Resource("resource-b");
+        LockRegistry.LockHandle holdsB = lockRegistry.acquireLocks("job-b", List.of(resourceB), Duration.ofSeconds(1));
+
+        assertThatThrownBy(() -> lockRegistry.acquireLocks("job-a", List.of(resourceA, resourceB), Duration.ofMillis(50)))
+                .isInstanceOf(LockRegistry.LockTimeoutException.class);
+
+        try (LockRegistry.LockHandle ignored = lockRegistry.acquireLocks("job-c", List.of(resourceA), Duration.ofMillis(50))) {
+            verify(auditLogger).lockAcquired("job-c", resourceA);
+        } finally {
+            holdsB.close();
+        }
+    }
+
+    @Test
+    void grantsSharedLocksConcurrentlyAndQueuesExclusiveRequests() throws Exception {
+        AuditLogger auditLogger = mock(AuditLogger.class);
+        LockGraphEngine lockGraphEngine = new LockGraphEngine();
+        LockRegistry lockRegistry = new LockRegistry(lockGraphEngine, auditLogger);
+        Resource resource = new Resource("reference");
+        Map<Resource, LockMode> shared = Map.of(resource, LockMode.SHARED);
+        LockRegistry.LockHandle reader1 = lockRegistry.acquireLocks("reader-1", shared, Duration.ofSeconds(1));
+        LockRegistry.LockHandle reader2 = lockRegistry.acquireLocks("reader-2", shared, Duration.ofSeconds(1));
+        assertThat(lockGraphEngine.holdersOf(resource)).containsExactlyInAnyOrder("reader-1", "reader-2");
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Void> writer = executor.submit(() -> {
+                lockRegistry.acquireLocks("writer", List.of(resource), Duration.ofSeconds(5)).close();
+                return null;
+            });
+            verify(auditLogger, timeout(1000)).lockWaiting("writer", resource, "reader-1");
+            Future<Void> lateReader = executor.submit(() -> {
+                lockRegistry.acquireLocks("reader-3", shared, Duration.ofSeconds(5)).close();
+                return null;
+            });
+            verify(auditLogger, timeout(1000)).lockWaiting("reader-3", resource, "writer");
+
+            reader1.close();
+            reader2.close();
+            writer.get(1, TimeUnit.SECONDS);
+            lateReader.get(1, TimeUnit.SECONDS);
+            assertThat(lockRegistry.lockTableSize()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void detectsDeadlockBetweenSharedHoldersUpgradingToExclusive() throws Exception {
+        AuditLogger auditLogger = mock(AuditLogger.class);
+        LockRegistry lockRegistry = new LockRegistry(new LockGraphEngine(), auditLogger);
+        Resource resource = new Resource("reference");
+        Map<Resource, LockMode> shared = Map.of(resource, LockMode.SHARED);
+        LockRegistry.LockHandle readerA = lockRegistry.acquireLocks("job-a", shared, Duration.ofSeconds(1));
+        LockRegistry.LockHandle readerB = lockRegistry.acquireLocks("job-b", shared, Duration.ofSeconds(1));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Void> upgradeA = executor.submit(() -> {
+                lockRegistry.acquireLocks("job-a", List.of(resource), Duration.ofSeconds(5)).close();
+                return null;
+            });
+            verify(auditLogger, timeout(1000)).lockWaiting("job-a", resource, "job-b");
+
+            assertThatThrownBy(() -> lockRegistry.acquireLocks("job-b", List.of(resource), Duration.ofSeconds(1)))
+                    .isInstanceOf(LockRegistry.DeadlockException.class);
+            readerB.close();
+
+            upgradeA.get(1, TimeUnit.SECONDS);
+            readerA.close();
+            assertThat(lockRegistry.lockTableSize()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void parentLockExcludesChildrenWhileSiblingsRunConcurrently() throws Exception {
+        AuditLogger auditLogger = mock(AuditLogger.class);
+        LockGraphEngine lockGraphEngine = new LockGraphEngine();
+        LockRegistry lockRegistry = new LockRegistry(lockGraphEngine, auditLogger);
+        Resource tenant = new Resource("tenant/42");
+        Resource order7 = new Resource("tenant/42/orders/7");
+        Resource order8 = new Resource("tenant/42/orders/8");
+        LockRegistry.LockHandle first = lockRegistry.acquireLocks("job-7", List.of(order7), Duration.ofSeconds(1));
+        LockRegistry.LockHandle second = lockRegistry.acquireLocks("job-8", List.of(order8), Duration.ofSeconds(1));
+        assertThat(lockGraphEngine.holdersOf(tenant)).containsExactlyInAnyOrder("job-7", "job-8");
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Set<Resource>> whole = executor.submit(() -> {
+                try (LockRegistry.LockHandle ignored = lockRegistry.acquireLocks(
+                        "job-tenant",
+                        List.of(tenant, order7),
+                        Duration.ofSeconds(5)
+                )) {
+                    return lockGraphEngine.heldBy("job-tenant");
+                }
+            });
+            verify(auditLogger, timeout(1000)).lockWaiting("job-tenant", tenant, "job-7");
+
+            first.close();
+            second.close();
+            assertThat(whole.get(1, TimeUnit.SECONDS)).containsExactlyInAnyOrder(new Resource("tenant"), tenant);
+            assertThat(lockRegistry.lockTableSize()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void detectsDeadlockAcrossLevelsOfTheHierarchy() throws Exception {
+        AuditLogger auditLogger = mock(AuditLogger.class);
+        LockRegistry lockRegistry = new LockRegistry(new LockGraphEngine(), auditLogger);
+        Resource tenant = new Resource("tenant/42");
+        Resource order = new Resource("tenant/42/orders/7");
+        Resource other = new Resource("other");
+        LockRegistry.LockHandle holdsOrder = lockRegistry.acquireLocks("job-a", List.of(order), Duration.ofSeconds(1));
+        LockRegistry.LockHandle holdsOther = lockRegistry.acquireLocks("job-b", List.of(other), Duration.ofSeconds(1));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Void> tenantJob = executor.submit(() -> {
+                lockRegistry.acquireLocks("job-b", List.of(tenant), Duration.ofSeconds(5)).close();
+                return null;
+            });
+            verify(auditLogger, timeout(1000)).lockWaiting("job-b", tenant, "job-a");
+
+            assertThatThrownBy(() -> lockRegistry.acquireLocks("job-a", List.of(other), Duration.ofSeconds(1)))
+                    .isInstanceOf(LockRegistry.DeadlockException.class);
+            holdsOrder.close();
+            tenantJob.get(1, TimeUnit.SECONDS);
+            holdsOther.close();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void evictsIdleLocksWithoutBreakingMutualExclusion() throws Exception {
+        AuditLogger auditLogger = mock(AuditLogger.class);
+        LockRegistry lockRegistry = new LockRegistry(new LockGraphEngine(), auditLogger);
+        List<Resource> resources = List.of(new Resource("r-0"), new Resource("r-1"), new Resource("r-2"));
+        AtomicInteger[] holders = {new AtomicInteger(), new AtomicInteger(), new AtomicInteger()};
+        AtomicBoolean overlap = new AtomicBoolean(false);
+        int threads = 8;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Void>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String jobId = "job-" + t;
+                workers.add(executor.submit(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        int index = ThreadLocalRandom.current().nextInt(resources.size());
+                        try (LockRegistry.LockHandle ignored = lockRegistry.acquireLocks(
+                                jobId,
+                                List.of(resources.get(index)),
+                                Duration.ofSeconds(5)
+                        )) {
+                            if (holders[index].incrementAndGet() != 1) {
+                                overlap.set(true);
+                            }
+                            holders[index].decrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<Void> worker : workers) {
+                worker.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(overlap).isFalse();
+        assertThat(lockRegistry.lockTableSize()).isZero();
+    }
 }
@@ -0,0 +1,45 @@
+package com.core;
+
+import com.domain.Resource;
+import com.infra.NoopAuditLogger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Churns through {@code soak.resources} distinct resources (100M by default) and checks that the lock
+ * table and the heap stay bounded. Excluded from {@code test}; run with {@code gradle soakTest}.
+ */
+@Tag("soak")
+class LockRegistrySoakTest {
+    private static final long RESOURCES = Long.getLong("soak.resources", 100_000_000L);
+    private static final long CHECK_EVERY = 1_000_000L;
+    private static final long MAX_USED_HEAP_BYTES = 64L * 1024 * 1024;
+
+    @Test
+    void churnsDistinctResourcesInBoundedMemory() throws Exception {
+        LockGraphEngine lockGraphEngine = new LockGraphEngine();
+        LockRegistry lockRegistry = new LockRegistry(lockGraphEngine, new NoopAuditLogger());
+        long baseline = usedHeapAfterGc();
+
+        for (long i = 0; i < RESOURCES; i++) {
+            lockRegistry.acquireLocks("job-" + (i % 64), List.of(new Resource("resource-" + i)), Duration.ofSeconds(1))
+                    .close();
+            if ((i + 1) % CHECK_EVERY == 0) {
+                assertThat(lockRegistry.lockTableSize()).isZero();
+                assertThat(lockGraphEngine.snapshotJson()).isEqualTo("{\"owners\":{},\"waiting\":{}}");
+                assertThat(usedHeapAfterGc() - baseline).isLessThan(MAX_USED_HEAP_BYTES);
+            }
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,138 @@
+package com.core;
+
+import com.domain.Job;
+import com.domain.JobContext;
+import com.domain.JobExecutionContext;
+import com.domain.Resource;
+import com.domain.RetryPolicies;
+import com.infra.AuditLogger;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class SchedulerMetricsTest {
+    @Test
+    void runnerRecordsRetriesAttemptsAndOutcomes() {
+        AuditLogger auditLogger = mock(AuditLogger.class);
+        JobRunner runner = new JobRunner(new LockRegistry(new LockGraphEngine(), auditLogger), auditLogger,
+                new InMemoryExecutionContextFactory());
+        AtomicInteger calls = new AtomicInteger();
+
+        JobState flaky = runner.run(job(() -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new IllegalStateException("boom");
+            }
+        }), newContext("job-flaky", Duration.ofSeconds(1), 3));
+        JobState slow = runner.run(job(() -> Thread.sleep(500)), newContext("job-slow", Duration.ofMillis(20), 1));
+
+        SchedulerMetrics.Snapshot snapshot = runner.metrics().snapshot();
+        assertThat(flaky).isEqualTo(JobState.SUCCESS);
+        assertThat(slow).isEqualTo(JobState.TIMEOUT);
+        assertThat(snapshot.retries()).isEqualTo(2);
+        assertThat(snapshot.executionTimeouts()).isEqualTo(1);
+        assertThat(snapshot.outcomes(JobState.SUCCESS)).isEqualTo(1);
+        assertThat(snapshot.outcomes(JobState.TIMEOUT)).isEqualTo(1);
+        assertThat(snapshot.attemptsPerJob().count()).isEqualTo(2);
+        assertThat(snapshot.attemptsPerJob().max()).isEqualTo(3);
+        assertThat(snapshot.executionTime().count()).isEqualTo(4);
+        assertThat(snapshot.executionTime().max()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    @Test
+    void lockRegistryRecordsWaitsPerResourceAndTimeouts() throws Exception {
+        AuditLogger auditLogger = mock(AuditLogger.class);
+        LockRegistry lockRegistry = new LockRegistry(new LockGraphEngine(), auditLogger, new SchedulerMetrics(1));
+        JobRunner runner = new JobRunner(lockRegistry, auditLogger, new InMemoryExecutionContextFactory());
+        Resource orders = new Resource("orders");
+        Resource invoices = new Resource("invoices");
+
+        try (LockRegistry.LockHandle ignored = lockRegistry.acquireLocks("holder", List.of(orders, invoices), Duration.ofSeconds(1))) {
+            assertThat(runner.run(job(() -> {
+            }), newContext("job-orders", Duration.ofMillis(200), 1, orders))).isEqualTo(JobState.TIMEOUT);
+            assertThat(runner.run(job(() -> {
+            }), newContext("job-invoices", Duration.ofMillis(30), 1, invoices))).isEqualTo(JobState.TIMEOUT);
+        }
+
+        SchedulerMetrics.Snapshot snapshot = lockRegistry.metrics().snapshot();
+        assertThat(snapshot.lockTimeouts()).isEqualTo(2);
+        assertThat(snapshot.executionTimeouts()).isZero();
+        assertThat(snapshot.lockWait()).containsOnlyKeys(orders);
+        assertThat(snapshot.lockWait().get(orders).max()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(snapshot.otherLockWait().count()).isEqualTo(1);
+        assertThat(snapshot.executionTime().count()).isZero();
+    }
+
+    @Test
+    void concurrentFirstWaitsStayWithinTheTrackedResourceCap() throws Exception {
+        SchedulerMetrics metrics = new SchedulerMetrics(4);
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            Resource resource = new Resource("resource-" + i);
+            threads[i] = new Thread(() -> {
+                for (int round = 0; round < 1_000; round++) {
+                    metrics.recordLockWait(resource, 1);
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        SchedulerMetrics.Snapshot snapshot = metrics.snapshot();
+        assertThat(snapshot.lockWait()).hasSize(4);
+        assertThat(snapshot.otherLockWait().count()).isEqualTo(4_000);
+    }
+
+    @Test
+    void engineRecordsQueueWaitIntoItsRunnersMetrics() {
+        AuditLogger auditLogger = mock(AuditLogger.class);
+        JobRunner runner = new JobRunner(new LockRegistry(new LockGraphEngine(), auditLogger), auditLogger,
+                new InMemoryExecutionContextFactory());
+
+        try (JobEngine engine = new JobEngine(1, runner, auditLogger)) {
+            engine.submit(job(() -> {
+            }), newContext("job-1", Duration.ofSeconds(1), 1), JobPriority.HIGH, null).join();
+
+            assertThat(engine.metrics()).isSameAs(runner.metrics());
+            SchedulerMetrics.Snapshot snapshot = engine.metrics().snapshot();
+            assertThat(snapshot.queueWait(JobPriority.HIGH).count()).isEqualTo(1);
+            assertThat(snapshot.queueWait(JobPriority.NORMAL).count()).isZero();
+            assertThat(engine.queueDelay(JobPriority.HIGH).count()).isEqualTo(1);
+            assertThat(snapshot.outcomes(JobState.SUCCESS)).isEqualTo(1);
+        }
+    }
+
+    private static JobContext newContext(String id, Duration timeout, int maxAttempts, Resource... resources) {
+        return new JobContext(id, timeout, RetryPolicies.fixedDelay(maxAttempts, 0), List.of(resources));
+    }
+
+    private static Job job(Body body) {
+        return new Job() {
+            @Override
+            public void prepare(JobContext context, JobExecutionContext executionContext) {
+            }
+
+            @Override
+            public void execute(JobContext context, JobExecutionContext executionContext) throws Exception {
+                body.run();
+            }
+
+            @Override
+            public void rollback(JobContext context, JobExecutionContext executionContext, Exception cause) {
+            }
+        };
+    }
+
+    private interface Body {
+        void run() throws Exception;
+    }
+}
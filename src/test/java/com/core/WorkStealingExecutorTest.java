@@ -0,0 +1,104 @@
+package com.core;
+
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkStealingExecutorTest {
+    @Test
+    void aWorkerSurvivesATaskThatThrows() throws Exception {
+        AtomicReference<Throwable> reported = new AtomicReference<>();
+        Thread.UncaughtExceptionHandler previous = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler((thread, failure) -> reported.set(failure));
+        WorkStealingExecutor<Task> executor = new WorkStealingExecutor<>(1, "test-worker-");
+        try {
+            CountDownLatch ran = new CountDownLatch(1);
+            executor.execute(new Task(0, () -> {
+                throw new IllegalStateException("boom");
+            }), 0);
+            executor.execute(new Task(1, ran::countDown), 0);
+
+            assertThat(ran.await(1, TimeUnit.SECONDS)).isTrue();
+            assertThat(reported.get()).isInstanceOf(IllegalStateException.class);
+        } finally {
+            executor.shutdownNow();
+            Thread.setDefaultUncaughtExceptionHandler(previous);
+        }
+    }
+
+    @Test
+    void aBusyOwnerKeepsASingleQueuedTask() throws Exception {
+        WorkStealingExecutor<Task> executor = new WorkStealingExecutor<>(2, "affinity-worker-");
+        try {
+            Awaitility.await().atMost(Duration.ofSeconds(1)).until(() -> Thread.getAllStackTraces().keySet().stream()
+                    .filter(thread -> thread.getName().startsWith("affinity-worker-"))
+                    .filter(thread -> thread.getState() == Thread.State.WAITING)
+                    .count() == 2);
+            CountDownLatch ownerStarted = new CountDownLatch(1);
+            CountDownLatch releaseOwner = new CountDownLatch(1);
+            AtomicReference<Thread> owner = new AtomicReference<>();
+            AtomicReference<Thread> firstBehind = new AtomicReference<>();
+            CountDownLatch firstRan = new CountDownLatch(1);
+            executor.execute(new Task(0, () -> {
+                owner.set(Thread.currentThread());
+                ownerStarted.countDown();
+                awaitUninterruptibly(releaseOwner);
+            }), 0);
+            assertThat(ownerStarted.await(1, TimeUnit.SECONDS)).isTrue();
+
+            executor.execute(new Task(1, () -> {
+                firstBehind.set(Thread.currentThread());
+                firstRan.countDown();
+            }), 0);
+            assertThat(firstRan.await(100, TimeUnit.MILLISECONDS)).isFalse();
+            assertThat(executor.stolenCount()).isZero();
+
+            CountDownLatch secondRan = new CountDownLatch(1);
+            executor.execute(new Task(2, secondRan::countDown), 0);
+            assertThat(firstRan.await(1, TimeUnit.SECONDS)).isTrue();
+            assertThat(firstBehind.get()).isNotEqualTo(owner.get());
+            assertThat(executor.stolenCount()).isPositive();
+
+            releaseOwner.countDown();
+            assertThat(secondRan.await(1, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        while (true) {
+            try {
+                latch.await();
+                return;
+            } catch (InterruptedException ignored) {
+            }
+        }
+    }
+
+    private static final class Task implements Runnable, Comparable<Task> {
+        private final int order;
+        private final Runnable body;
+
+        private Task(int order, Runnable body) {
+            this.order = order;
+            this.body = body;
+        }
+
+        @Override
+        public void run() {
+            body.run();
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            return Integer.compare(order, other.order);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.domain;
+
+import com.core.ExecutionContextKeys;
+import com.infra.JdbcExecutionContext;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class ContextKeyTest {
+    @Test
+    void internsKeysByNameWithDistinctSlots() {
+        ContextKey<String> tenant = ContextKey.of("test.tenant", String.class);
+
+        assertThat(ContextKey.of("test.tenant", String.class)).isSameAs(tenant);
+        assertThat(ContextKey.named("test.tenant")).containsSame(tenant);
+        assertThat(tenant.index()).isNotEqualTo(ExecutionContextKeys.CONNECTION.index());
+        assertThat(ContextKey.count()).isGreaterThan(tenant.index());
+        assertThatThrownBy(() -> ContextKey.of("test.tenant", Integer.class))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void typedAndStringLookupsSeeTheSameValues() throws Exception {
+        Connection connection = mock(Connection.class);
+        try (JobExecutionContext context = new JdbcExecutionContext(connection)) {
+            assertThat(context.get(ExecutionContextKeys.CONNECTION)).isSameAs(connection);
+            assertThat(context.get(ContextKey.of("test.unset", String.class))).isNull();
+            assertThat(context.find(ExecutionContextKeys.JDBC_CONNECTION, Connection.class)).containsSame(connection);
+            assertThat(context.find(ExecutionContextKeys.JDBC_CONNECTION, String.class)).isEmpty();
+            assertThat(context.find("test.unknown", Object.class)).isEmpty();
+        }
+    }
+
+    @Test
+    void contextsThatOnlyImplementStringLookupStillAnswerTypedKeys() throws Exception {
+        ContextKey<String> region = ContextKey.of("test.region", String.class);
+        JobExecutionContext context = new JobExecutionContext() {
+            @Override
+            public <T> Optional<T> find(String key, Class<T> type) {
+                return key.equals("test.region") ? Optional.of(type.cast("eu-west")) : Optional.empty();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        assertThat(context.get(region)).isEqualTo("eu-west");
+        assertThat(context.get(ExecutionContextKeys.CONNECTION)).isNull();
+    }
+}
@@ -0,0 +1,47 @@
+package com.domain;
+
+import org.junit.jupiter.api.Test;
+
+import static com.domain.LockMode.EXCLUSIVE;
+import static com.domain.LockMode.INTENTION_EXCLUSIVE;
+import static com.domain.LockMode.INTENTION_SHARED;
+import static com.domain.LockMode.SHARED;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LockModeTest {
+    @Test
+    void followsTheMultipleGranularityCompatibilityMatrix() {
+        assertThat(INTENTION_SHARED.isCompatibleWith(INTENTION_EXCLUSIVE)).isTrue();
+        assertThat(INTENTION_SHARED.isCompatibleWith(SHARED)).isTrue();
+        assertThat(INTENTION_SHARED.isCompatibleWith(EXCLUSIVE)).isFalse();
+        assertThat(INTENTION_EXCLUSIVE.isCompatibleWith(INTENTION_EXCLUSIVE)).isTrue();
+        assertThat(INTENTION_EXCLUSIVE.isCompatibleWith(SHARED)).isFalse();
+        assertThat(SHARED.isCompatibleWith(SHARED)).isTrue();
+        assertThat(EXCLUSIVE.isCompatibleWith(INTENTION_SHARED)).isFalse();
+        for (LockMode mode : LockMode.values()) {
+            for (LockMode other : LockMode.values()) {
+                assertThat(mode.isCompatibleWith(other)).isEqualTo(other.isCompatibleWith(mode));
+            }
+        }
+    }
+
+    @Test
+    void combinesIntoTheWeakestCoveringMode() {
+        assertThat(INTENTION_SHARED.combine(INTENTION_EXCLUSIVE)).isEqualTo(INTENTION_EXCLUSIVE);
+        assertThat(INTENTION_SHARED.combine(SHARED)).isEqualTo(SHARED);
+        assertThat(SHARED.combine(INTENTION_EXCLUSIVE)).isEqualTo(EXCLUSIVE);
+        assertThat(EXCLUSIVE.intention()).isEqualTo(INTENTION_EXCLUSIVE);
+        assertThat(SHARED.coversDescendants(INTENTION_SHARED)).isTrue();
+        assertThat(INTENTION_EXCLUSIVE.coversDescendants(INTENTION_SHARED)).isFalse();
+    }
+
+    @Test
+    void resourcesNestOnTheSeparator() {
+        Resource order = new Resource("tenant/42/orders/7");
+
+        assertThat(order.parent()).isEqualTo(new Resource("tenant/42/orders"));
+        assertThat(new Resource("tenant").parent()).isNull();
+        assertThat(new Resource("tenant/42").isAncestorOf(order)).isTrue();
+        assertThat(new Resource("tenant/4").isAncestorOf(order)).isFalse();
+    }
+}
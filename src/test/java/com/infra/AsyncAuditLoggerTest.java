@@ -0,0 +1,136 @@
+package com.infra;
+
+import com.core.JobState;
+import com.domain.Resource;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class AsyncAuditLoggerTest {
+    @Test
+    void replaysEventsInOrderAndDrainsOnClose() {
+        AuditLogger delegate = mock(AuditLogger.class);
+        Resource resource = new Resource("resource-a");
+        AsyncAuditLogger auditLogger = AsyncAuditLogger.builder(delegate).capacity(4).batchSize(2).build();
+
+        auditLogger.jobStateChanged("job-1", JobState.RUNNING, "attempt 1");
+        auditLogger.lockWaiting("job-1", resource, "job-2");
+        for (int i = 0; i < 100; i++) {
+            auditLogger.lockAcquired("job-1", resource);
+            auditLogger.lockReleased("job-1", resource);
+        }
+        auditLogger.deadlockDetected("job-1", "cycle detected");
+        auditLogger.close();
+
+        InOrder inOrder = inOrder(delegate);
+        inOrder.verify(delegate).jobStateChanged("job-1", JobState.RUNNING, "attempt 1");
+        inOrder.verify(delegate).lockWaiting("job-1", resource, "job-2");
+        inOrder.verify(delegate, times(100)).lockReleased("job-1", resource);
+        inOrder.verify(delegate).deadlockDetected("job-1", "cycle detected");
+        verify(delegate, times(100)).lockAcquired("job-1", resource);
+        assertThat(auditLogger.droppedEvents()).isZero();
+    }
+
+    @Test
+    void publishesBatchedStateChangesInOrderAcrossBufferLaps() {
+        AuditLogger delegate = mock(AuditLogger.class);
+        AsyncAuditLogger auditLogger = AsyncAuditLogger.builder(delegate).capacity(8).batchSize(4).build();
+        List<String> jobIds = IntStream.range(0, 50).mapToObj(i -> "job-" + i).toList();
+
+        auditLogger.jobStatesChanged(jobIds, JobState.PENDING, "queued");
+        auditLogger.close();
+
+        InOrder inOrder = inOrder(delegate);
+        for (String jobId : jobIds) {
+            inOrder.verify(delegate).jobStateChanged(jobId, JobState.PENDING, "queued");
+        }
+        assertThat(auditLogger.droppedEvents()).isZero();
+    }
+
+    @Test
+    void dropsEventsWhenTheBufferIsFull() throws Exception {
+        AuditLogger delegate = mock(AuditLogger.class);
+        CountDownLatch unblock = new CountDownLatch(1);
+        doAnswer(invocation -> unblock.await(5, TimeUnit.SECONDS))
+                .when(delegate).jobStateChanged(anyString(), any(), anyString());
+        Resource resource = new Resource("resource-a");
+        AsyncAuditLogger auditLogger = AsyncAuditLogger.builder(delegate)
+                .capacity(4)
+                .overflowPolicy(AuditOverflowPolicy.DROP)
+                .build();
+
+        auditLogger.jobStateChanged("job-1", JobState.RUNNING, "blocks the writer");
+        verify(delegate, timeout(1000)).jobStateChanged("job-1", JobState.RUNNING, "blocks the writer");
+        // The slot being replayed stays occupied, so three of the four slots are free.
+        for (int i = 0; i < 10; i++) {
+            auditLogger.lockAcquired("job-1", resource);
+        }
+        unblock.countDown();
+        auditLogger.close();
+
+        verify(delegate, times(3)).lockAcquired("job-1", resource);
+        assertThat(auditLogger.droppedEvents()).isEqualTo(7);
+    }
+
+    @Test
+    void keepsReplayingAfterTheDelegateThrowsAnError() {
+        AuditLogger delegate = mock(AuditLogger.class);
+        doThrow(new AssertionError("delegate broke")).doNothing()
+                .when(delegate).jobStateChanged(anyString(), any(), anyString());
+        AsyncAuditLogger auditLogger = AsyncAuditLogger.builder(delegate).capacity(4).build();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (int i = 0; i < 20; i++) {
+                auditLogger.jobStateChanged("job-" + i, JobState.SUCCESS, "done");
+            }
+            auditLogger.close();
+        });
+
+        verify(delegate, times(20)).jobStateChanged(anyString(), any(), anyString());
+        assertThat(auditLogger.droppedEvents()).isEqualTo(1);
+    }
+
+    @Test
+    void replaysOrDropsEveryEventThatRacesClose() throws Exception {
+        AuditLogger delegate = mock(AuditLogger.class);
+        AsyncAuditLogger auditLogger = AsyncAuditLogger.builder(delegate).capacity(64).build();
+        Resource resource = new Resource("resource-a");
+        int producers = 4;
+        int events = 5_000;
+        CountDownLatch started = new CountDownLatch(producers);
+        List<Thread> threads = IntStream.range(0, producers).mapToObj(i -> new Thread(() -> {
+            started.countDown();
+            for (int event = 0; event < events; event++) {
+                auditLogger.lockAcquired("job-" + i, resource);
+            }
+        })).toList();
+        threads.forEach(Thread::start);
+
+        started.await();
+        auditLogger.close();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long replayed = mockingDetails(delegate).getInvocations().size();
+        assertThat(replayed + auditLogger.droppedEvents()).isEqualTo((long) producers * events);
+    }
+}
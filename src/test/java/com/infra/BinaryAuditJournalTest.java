@@ -0,0 +1,76 @@
+package com.infra;
+
+import com.core.JobState;
+import com.domain.Resource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BinaryAuditJournalTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsBackEveryEventType() {
+        Resource resource = new Resource("tenant/42/orders/7");
+        try (BinaryAuditJournal journal = new BinaryAuditJournal(directory)) {
+            journal.jobStateChanged("job-1", JobState.RUNNING, "attempt 1");
+            journal.lockWaiting("job-1", resource, null);
+            journal.lockAcquired("job-1", resource);
+            journal.retryScheduled("job-1", 2, 250, new IllegalStateException("\u00fcbertrag \u20ac \ud83d\udd12"));
+            journal.deadlockDetected("job-1", "cycle detected");
+            journal.lockReleased("job-1", resource);
+        }
+
+        List<AuditRecord> records = readAll();
+
+        assertThat(records).extracting(AuditRecord::type).containsExactly(
+                AuditEventType.JOB_STATE_CHANGED,
+                AuditEventType.LOCK_WAITING,
+                AuditEventType.LOCK_ACQUIRED,
+                AuditEventType.RETRY_SCHEDULED,
+                AuditEventType.DEADLOCK_DETECTED,
+                AuditEventType.LOCK_RELEASED);
+        assertThat(records).extracting(AuditRecord::jobId).containsOnly("job-1");
+        assertThat(records.get(0).state()).isEqualTo(JobState.RUNNING);
+        assertThat(records.get(0).text()).isEqualTo("attempt 1");
+        assertThat(records.get(1).resourceId()).isEqualTo("tenant/42/orders/7");
+        assertThat(records.get(1).text()).isNull();
+        assertThat(records.get(3).attempt()).isEqualTo(2);
+        assertThat(records.get(3).delayMillis()).isEqualTo(250);
+        assertThat(records.get(3).causeType()).isEqualTo(IllegalStateException.class.getName());
+        assertThat(records.get(3).text()).isEqualTo("\u00fcbertrag \u20ac \ud83d\udd12");
+        assertThat(records.get(4).text()).isEqualTo("cycle detected");
+    }
+
+    @Test
+    void rollsOverToNewSegmentsAndReopensAfterThem() throws Exception {
+        Resource resource = new Resource("resource-a");
+        try (BinaryAuditJournal journal = new BinaryAuditJournal(directory, BinaryAuditJournal.MIN_SEGMENT_BYTES)) {
+            for (int i = 0; i < 10_000; i++) {
+                journal.lockAcquired("job-" + i, resource);
+            }
+        }
+        try (BinaryAuditJournal journal = new BinaryAuditJournal(directory, BinaryAuditJournal.MIN_SEGMENT_BYTES)) {
+            journal.lockReleased("job-last", resource);
+        }
+
+        List<AuditRecord> records = readAll();
+
+        assertThat(BinaryAuditJournal.segments(directory)).hasSizeGreaterThan(2);
+        assertThat(records).hasSize(10_001);
+        assertThat(records.get(9_999).jobId()).isEqualTo("job-9999");
+        assertThat(records.get(10_000).type()).isEqualTo(AuditEventType.LOCK_RELEASED);
+    }
+
+    private List<AuditRecord> readAll() {
+        List<AuditRecord> records = new ArrayList<>();
+        new AuditJournalReader(directory).forEachRemaining(records::add);
+        return records;
+    }
+}
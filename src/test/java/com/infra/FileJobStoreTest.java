@@ -0,0 +1,100 @@
+package com.infra;
+
+import com.core.JobState;
+import com.core.StoredJob;
+import com.domain.JobContext;
+import com.domain.LockMode;
+import com.domain.Resource;
+import com.domain.RetryPolicies;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileJobStoreTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysUnfinishedJobsAndIgnoresATornTail() throws Exception {
+        try (FileJobStore jobStore = new FileJobStore(directory)) {
+            jobStore.submitted("report", context("job-1", Map.of(new Resource("tenant/42"), LockMode.SHARED)));
+            jobStore.transitioned("job-1", JobState.RUNNING, 2);
+            jobStore.submitted("report", context("job-2", Map.of()));
+            jobStore.transitioned("job-2", JobState.FAILED, 1);
+        }
+        Files.write(directory.resolve(FileJobStore.LOG_FILE), new byte[]{0, 0, 0, 42, 1, 2},
+                StandardOpenOption.APPEND);
+
+        try (FileJobStore jobStore = new FileJobStore(directory)) {
+            List<StoredJob> unfinished = jobStore.unfinished();
+
+            assertThat(unfinished).hasSize(1);
+            StoredJob job = unfinished.get(0);
+            assertThat(job.jobId()).isEqualTo("job-1");
+            assertThat(job.jobType()).isEqualTo("report");
+            assertThat(job.timeout()).isEqualTo(Duration.ofSeconds(5));
+            assertThat(job.lockModes()).containsEntry(new Resource("tenant/42"), LockMode.SHARED);
+            assertThat(job.state()).isEqualTo(JobState.RUNNING);
+            assertThat(job.attempt()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void compactsTheLogWhileOpen() throws Exception {
+        Path log = directory.resolve(FileJobStore.LOG_FILE);
+        try (FileJobStore jobStore = new FileJobStore(directory, 4096)) {
+            jobStore.submitted("report", context("job-open", Map.of()));
+            for (int i = 0; i < 1000; i++) {
+                String id = "job-" + i;
+                jobStore.submitted("report", context(id, Map.of(new Resource("tenant/" + i), LockMode.EXCLUSIVE)));
+                jobStore.transitioned(id, JobState.RUNNING, 1);
+                jobStore.transitioned(id, JobState.SUCCESS, 1);
+                assertThat(Files.size(log)).isLessThan(8192);
+            }
+            jobStore.transitioned("job-open", JobState.RUNNING, 1);
+        }
+
+        try (FileJobStore jobStore = new FileJobStore(directory)) {
+            assertThat(jobStore.unfinished()).extracting(StoredJob::jobId).containsExactly("job-open");
+            assertThat(jobStore.unfinished().get(0).state()).isEqualTo(JobState.RUNNING);
+        }
+    }
+
+    @Test
+    void groupCommitsConcurrentSubmissions() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (FileJobStore jobStore = new FileJobStore(directory)) {
+            List<Future<?>> submissions = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                String jobId = "job-" + i;
+                submissions.add(executor.submit(() -> jobStore.submitted("report", context(jobId, Map.of()))));
+            }
+            for (Future<?> submission : submissions) {
+                submission.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try (FileJobStore jobStore = new FileJobStore(directory)) {
+            assertThat(jobStore.unfinished()).hasSize(400);
+        }
+    }
+
+    private static JobContext context(String id, Map<Resource, LockMode> lockModes) {
+        return new JobContext(id, Duration.ofSeconds(5), RetryPolicies.fixedDelay(1, 0), lockModes);
+    }
+}
@@ -0,0 +1,37 @@
+package com.infra;
+
+import com.core.JobStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GroupCommitTest {
+    @Test
+    void anErrorFromAFlushFailsTheBatchWithoutBlockingLaterCommits() throws Exception {
+        List<String> flushed = new CopyOnWriteArrayList<>();
+        GroupCommit<String> groupCommit = new GroupCommit<>() {
+            @Override
+            protected void flush(List<String> batch) {
+                if (batch.contains("poison")) {
+                    throw new AssertionError("flush broke");
+                }
+                flushed.addAll(batch);
+            }
+        };
+
+        assertThatThrownBy(() -> groupCommit.commit("poison"))
+                .isInstanceOf(JobStore.StoreException.class)
+                .hasCauseInstanceOf(AssertionError.class);
+
+        CompletableFuture<Void> later = CompletableFuture.runAsync(() -> groupCommit.commit("entry"));
+        assertThatCode(() -> later.get(1, TimeUnit.SECONDS)).doesNotThrowAnyException();
+        assertThat(flushed).containsExactly("entry");
+    }
+}
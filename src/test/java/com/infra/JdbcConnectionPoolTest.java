@@ -0,0 +1,117 @@
+package com.infra;
+
+import com.core.ExecutionContextKeys;
+import com.domain.JobExecutionContext;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JdbcConnectionPoolTest {
+    private static final String URL = "jdbc:h2:mem:connection-pool;DB_CLOSE_DELAY=-1";
+
+    @Test
+    void reusesConnectionsAndResetsThemOnReturn() throws Exception {
+        AtomicInteger opened = new AtomicInteger();
+        try (JdbcConnectionPool pool = JdbcConnectionPool.builder(() -> {
+            opened.incrementAndGet();
+            return DriverManager.getConnection(URL);
+        }).maxSize(2).build()) {
+            Connection first;
+            try (JobExecutionContext context = pool.create()) {
+                first = connectionOf(context);
+                first.setAutoCommit(false);
+                first.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+                try (Statement statement = first.createStatement()) {
+                    statement.execute("create table if not exists pooled(id int)");
+                    statement.execute("insert into pooled values (1)");
+                }
+            }
+
+            try (JobExecutionContext context = pool.create()) {
+                Connection second = connectionOf(context);
+                assertThat(second).isSameAs(first);
+                assertThat(second.isClosed()).isFalse();
+                assertThat(second.getAutoCommit()).isTrue();
+                assertThat(second.getTransactionIsolation()).isEqualTo(Connection.TRANSACTION_READ_COMMITTED);
+                assertThat(pool.activeConnections()).isEqualTo(1);
+            }
+
+            assertThat(opened).hasValue(1);
+            assertThat(pool.leaseCount()).isEqualTo(2);
+            assertThat(pool.idleConnections()).isEqualTo(1);
+            assertThat(pool.leaseWaitTime().count()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void replacesConnectionsThatFailValidation() throws Exception {
+        Connection stale = mock(Connection.class);
+        when(stale.getAutoCommit()).thenReturn(true);
+        when(stale.getTransactionIsolation()).thenReturn(Connection.TRANSACTION_READ_COMMITTED);
+        when(stale.isValid(anyInt())).thenReturn(false);
+        Connection fresh = mock(Connection.class);
+        when(fresh.getAutoCommit()).thenReturn(true);
+        when(fresh.getTransactionIsolation()).thenReturn(Connection.TRANSACTION_READ_COMMITTED);
+        Connection[] connections = {stale, fresh};
+        AtomicInteger opened = new AtomicInteger();
+
+        try (JdbcConnectionPool pool = new JdbcConnectionPool(() -> connections[opened.getAndIncrement()])) {
+            pool.create().close();
+            try (JobExecutionContext context = pool.create()) {
+                assertThat(connectionOf(context)).isSameAs(fresh);
+            }
+
+            verify(stale).close();
+            assertThat(pool.discardedConnectionCount()).isEqualTo(1);
+            assertThat(pool.totalConnections()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void closesAConnectionThatFailsWhileBeingOpened() throws Exception {
+        Connection broken = mock(Connection.class);
+        when(broken.getAutoCommit()).thenReturn(true);
+        when(broken.getTransactionIsolation()).thenThrow(new SQLException("connection reset"));
+
+        try (JdbcConnectionPool pool = new JdbcConnectionPool(() -> broken)) {
+            assertThatThrownBy(pool::create).isInstanceOf(SQLException.class).hasMessage("connection reset");
+
+            verify(broken).close();
+            assertThat(pool.totalConnections()).isZero();
+        }
+    }
+
+    @Test
+    void timesOutWhenEveryConnectionIsLeased() throws Exception {
+        try (JdbcConnectionPool pool = JdbcConnectionPool.builder(() -> DriverManager.getConnection(URL))
+                .maxSize(1)
+                .acquireTimeout(Duration.ofMillis(50))
+                .build()) {
+            JobExecutionContext leased = pool.create();
+
+            assertThatThrownBy(pool::create).isInstanceOf(SQLTimeoutException.class);
+            assertThat(pool.leaseTimeoutCount()).isEqualTo(1);
+
+            leased.close();
+            pool.create().close();
+            assertThat(pool.createdConnectionCount()).isEqualTo(1);
+        }
+    }
+
+    private static Connection connectionOf(JobExecutionContext context) {
+        return context.find(ExecutionContextKeys.JDBC_CONNECTION, Connection.class).orElseThrow();
+    }
+}
@@ -0,0 +1,82 @@
+package com.infra;
+
+import com.core.JobState;
+import com.core.StoredJob;
+import com.domain.JobContext;
+import com.domain.LockMode;
+import com.domain.Resource;
+import com.domain.RetryPolicies;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JdbcJobStoreTest {
+    @Test
+    void persistsSubmissionsAndTransitions() {
+        String url = "jdbc:h2:mem:job-store;DB_CLOSE_DELAY=-1";
+        JdbcJobStore jobStore = new JdbcJobStore(() -> DriverManager.getConnection(url));
+        jobStore.createSchema();
+        Map<Resource, LockMode> lockModes = Map.of(new Resource("tenant/42/orders/7"), LockMode.EXCLUSIVE);
+
+        jobStore.submitted("invoice", new JobContext("job-1", Duration.ofSeconds(3), RetryPolicies.fixedDelay(1, 0), lockModes));
+        jobStore.submitted("invoice", new JobContext("job-2", Duration.ofSeconds(3), RetryPolicies.fixedDelay(1, 0), List.of()));
+        jobStore.transitioned("job-1", JobState.RUNNING, 1);
+        jobStore.transitioned("job-2", JobState.SUCCESS, 1);
+
+        List<StoredJob> unfinished = new JdbcJobStore(() -> DriverManager.getConnection(url)).unfinished();
+
+        assertThat(unfinished).hasSize(1);
+        assertThat(unfinished.get(0).jobId()).isEqualTo("job-1");
+        assertThat(unfinished.get(0).state()).isEqualTo(JobState.RUNNING);
+        assertThat(unfinished.get(0).attempt()).isEqualTo(1);
+        assertThat(unfinished.get(0).timeout()).isEqualTo(Duration.ofSeconds(3));
+        assertThat(unfinished.get(0).lockModes()).isEqualTo(lockModes);
+    }
+
+    @Test
+    void keepsResourceIdsWithLineBreaksAndBackslashesIntact() {
+        String url = "jdbc:h2:mem:job-store-escaping;DB_CLOSE_DELAY=-1";
+        JdbcJobStore jobStore = new JdbcJobStore(() -> DriverManager.getConnection(url));
+        jobStore.createSchema();
+        Map<Resource, LockMode> lockModes = Map.of(
+                new Resource("reports\nEXCLUSIVE tenant/42"), LockMode.SHARED,
+                new Resource("C:\\exports\\n"), LockMode.EXCLUSIVE);
+
+        jobStore.submitted("invoice", new JobContext("job-1", Duration.ofSeconds(3), RetryPolicies.fixedDelay(1, 0), lockModes));
+
+        assertThat(jobStore.unfinished().get(0).lockModes()).isEqualTo(lockModes);
+    }
+
+    @Test
+    void replacesResubmittedJobsAndDeletesFinishedOnes() throws Exception {
+        String url = "jdbc:h2:mem:job-store-resubmit;DB_CLOSE_DELAY=-1";
+        JdbcJobStore jobStore = new JdbcJobStore(() -> DriverManager.getConnection(url));
+        jobStore.createSchema();
+
+        jobStore.submitted("invoice", new JobContext("job-1", Duration.ofSeconds(3), RetryPolicies.fixedDelay(1, 0), List.of()));
+        jobStore.transitioned("job-1", JobState.RUNNING, 1);
+        jobStore.submitted("refund", new JobContext("job-1", Duration.ofSeconds(5), RetryPolicies.fixedDelay(1, 0), List.of()));
+        jobStore.submitted("invoice", new JobContext("job-2", Duration.ofSeconds(3), RetryPolicies.fixedDelay(1, 0), List.of()));
+        jobStore.transitioned("job-2", JobState.SUCCESS, 1);
+
+        List<StoredJob> unfinished = jobStore.unfinished();
+        assertThat(unfinished).hasSize(1);
+        assertThat(unfinished.get(0).jobType()).isEqualTo("refund");
+        assertThat(unfinished.get(0).state()).isEqualTo(JobState.PENDING);
+        assertThat(unfinished.get(0).timeout()).isEqualTo(Duration.ofSeconds(5));
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("select count(*) from job_store")) {
+            rows.next();
+            assertThat(rows.getInt(1)).isEqualTo(1);
+        }
+    }
+}
@@ -9,6 +9,7 @@ import com.core.LockRegistry;
 import com.domain.Job;
 import com.domain.JobContext;
 import com.domain.JobExecutionContext;
+import com.domain.Resource;
 import com.domain.RetryPolicies;
 import org.awaitility.Awaitility;
 import org.junit.jupiter.api.BeforeEach;
@@ -25,6 +26,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Statement;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -132,6 +134,58 @@ class JobRunnerJdbcIntegrationTest {
         }
     }
 
+    @Test
+    void groupCommitKeepsTheGoodJobsWhenOneInTheGroupFails() throws Exception {
+        ExecutionContextFactory executionContextFactory = new JdbcExecutionContextFactory(
+                () -> DriverManager.getConnection(
+                        POSTGRES.getJdbcUrl(),
+                        POSTGRES.getUsername(),
+                        POSTGRES.getPassword()
+                )
+        );
+        JobRunner runner = JobRunner.builder(new LockRegistry(new LockGraphEngine(), mock(AuditLogger.class)),
+                mock(AuditLogger.class),
+                executionContextFactory).groupCommit(16).build();
+        Job job = new Job() {
+            @Override
+            public void prepare(JobContext context, JobExecutionContext executionContext) {
+            }
+
+            @Override
+            public void execute(JobContext context, JobExecutionContext executionContext) throws Exception {
+                try (PreparedStatement statement = executionContext.find(ExecutionContextKeys.JDBC_CONNECTION, Connection.class)
+                        .orElseThrow()
+                        .prepareStatement("insert into job_events(name) values (?)")) {
+                    statement.setString(1, context.id());
+                    statement.executeUpdate();
+                }
+                if (context.id().equals("job-7")) {
+                    throw new IllegalStateException("boom");
+                }
+            }
+
+            @Override
+            public void rollback(JobContext context, JobExecutionContext executionContext, Exception cause) {
+            }
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<JobState>> futures = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                JobContext context = new JobContext("job-" + i, Duration.ofSeconds(2), RetryPolicies.fixedDelay(1, 0),
+                        List.of(new Resource("row-" + i)));
+                futures.add(executor.submit(() -> runner.run(job, context)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertThat(futures.get(i).get()).isEqualTo(i == 7 ? JobState.FAILED : JobState.SUCCESS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(countRows()).isEqualTo(31);
+    }
+
     private JobRunner buildRunner() {
         ExecutionContextFactory executionContextFactory = new JdbcExecutionContextFactory(
                 () -> DriverManager.getConnection(
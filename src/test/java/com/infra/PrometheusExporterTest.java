@@ -0,0 +1,80 @@
+package com.infra;
+
+import com.core.JobPriority;
+import com.core.JobState;
+import com.core.SchedulerMetrics;
+import com.domain.Resource;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PrometheusExporterTest {
+    @Test
+    void writesSummariesAndCountersInTheTextFormat() {
+        SchedulerMetrics metrics = new SchedulerMetrics();
+        metrics.recordQueueWait(JobPriority.CRITICAL, 2_000_000);
+        metrics.recordLockWait(new Resource("tenant/\"7\""), 1_000_000_000);
+        metrics.recordOutcome(JobState.FAILED, 3);
+        metrics.recordDeadlock();
+        metrics.recordLockTimeout();
+        metrics.recordRetry();
+        metrics.recordRetry();
+        PrometheusExporter exporter = PrometheusExporter.builder(metrics)
+                .gauge("app_widgets", "Widgets in stock.", () -> 42)
+                .build();
+
+        String text = exporter.scrape();
+
+        assertThat(text).contains(
+                "# TYPE scheduler_queue_wait_seconds summary\n",
+                "scheduler_queue_wait_seconds_count{priority=\"critical\"} 1\n",
+                "scheduler_queue_wait_seconds_count{priority=\"bulk\"} 0\n",
+                "scheduler_lock_wait_seconds{resource=\"tenant/\\\"7\\\"\",quantile=\"0.99\"} 1.0",
+                "scheduler_lock_wait_seconds_count{resource=\"tenant/\\\"7\\\"\"} 1\n",
+                "scheduler_attempts_per_job{quantile=\"0.5\"} 3\n",
+                "scheduler_deadlocks_total 1\n",
+                "scheduler_timeouts_total{kind=\"lock\"} 1\n",
+                "scheduler_timeouts_total{kind=\"execution\"} 0\n",
+                "scheduler_retries_total 2\n",
+                "scheduler_jobs_finished_total{state=\"failed\"} 1\n",
+                "# TYPE app_widgets gauge\napp_widgets 42\n");
+        assertThat(text).doesNotContain("state=\"running\"");
+        assertThat(text.lines()).allMatch(line -> line.startsWith("# ") || line.matches("[a-z_]+(\\{.*})? \\S+"));
+    }
+
+    @Test
+    void rejectsInvalidAndDuplicateNames() {
+        PrometheusExporter.Builder builder = PrometheusExporter.builder(new SchedulerMetrics())
+                .counter("app_events_total", "Events.", () -> 0);
+
+        assertThatThrownBy(() -> builder.gauge("app-widgets", "Widgets.", () -> 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> builder.counter("app_events_total", "Events.", () -> 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void servesTheExporterOverHttp() throws Exception {
+        SchedulerMetrics metrics = new SchedulerMetrics();
+        metrics.recordRetry();
+        PrometheusExporter exporter = PrometheusExporter.builder(metrics).build();
+
+        try (MetricsHttpServer server = MetricsHttpServer.start(0, exporter)) {
+            URL url = new URL("http://localhost:" + server.address().getPort() + MetricsHttpServer.PATH);
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            try (InputStream body = connection.getInputStream()) {
+                assertThat(connection.getResponseCode()).isEqualTo(200);
+                assertThat(connection.getContentType()).isEqualTo(PrometheusExporter.CONTENT_TYPE);
+                assertThat(new String(body.readAllBytes(), StandardCharsets.UTF_8)).contains("scheduler_retries_total 1\n");
+            } finally {
+                connection.disconnect();
+            }
+        }
+    }
+}